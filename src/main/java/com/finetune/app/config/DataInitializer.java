@@ -2,30 +2,51 @@ package com.finetune.app.config;
 
 import com.finetune.app.model.SkiBrand;
 import com.finetune.app.model.SkiModel;
+import com.finetune.app.repository.sql.CatalogSyncStateSqlRepository;
 import com.finetune.app.repository.sql.SkiBrandSqlRepository;
+import com.finetune.app.repository.sql.SkiCatalog;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.core.ObjectReadContext;
+import tools.jackson.core.json.JsonFactory;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
+import java.io.InputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Map;
+import java.util.Set;
 
 @Component
 public class DataInitializer implements CommandLineRunner {
 
+    private static final String CATALOG_RESOURCE = "classpath:SkiModels.json";
+
     private final SkiBrandSqlRepository brandRepository;
+    private final CatalogSyncStateSqlRepository syncStateRepository;
+    private final SkiCatalog catalog;
     private final ResourceLoader resourceLoader;
+    private final TransactionTemplate transactionTemplate;
 
-    public DataInitializer(SkiBrandSqlRepository brandRepository, ResourceLoader resourceLoader) {
+    public DataInitializer(SkiBrandSqlRepository brandRepository,
+                           CatalogSyncStateSqlRepository syncStateRepository,
+                           SkiCatalog catalog,
+                           ResourceLoader resourceLoader,
+                           PlatformTransactionManager transactionManager) {
         this.brandRepository = brandRepository;
+        this.syncStateRepository = syncStateRepository;
+        this.catalog = catalog;
         this.resourceLoader = resourceLoader;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     @Override
@@ -33,209 +54,198 @@ public class DataInitializer implements CommandLineRunner {
         System.out.println("Analyzing SkiModels.json and comparing with database...");
         syncDatabaseWithJson();
         System.out.println("Database sync completed!");
+        // Publish the synced catalog before the first /brands request
+        try {
+            catalog.refresh();
+        } catch (Exception e) {
+            System.err.println("Could not load ski catalog: " + e.getMessage());
+        }
     }
 
     /**
-     * Compare JSON file content with database and update only what's different
+     * Compare JSON file content with database and update only what's different.
+     *
+     * - The file is hashed first; if the hash matches the one stored at the last sync, nothing
+     *   else is read or written.
+     * - Otherwise the file is parsed as a stream and diffed per brand against ski_brands/ski_models
+     *   (one query). Only added/removed models are written, as JDBC batches, in one transaction.
      */
-    @Transactional
     private void syncDatabaseWithJson() {
         try {
-            // Load JSON data
-            List<BrandData> jsonBrands = loadBrandsFromJson();
-            
-            // Get existing brands from database with models eagerly loaded
-            List<SkiBrand> dbBrands = brandRepository.findAllWithModels();
-            
-            // Compare and sync
-            boolean hasChanges = false;
-            
-            for (BrandData jsonBrand : jsonBrands) {
-                SkiBrand existingBrand = findBrandByName(dbBrands, jsonBrand.name);
-                
-                if (existingBrand == null) {
-                    // Brand doesn't exist - add it
-                    System.out.println("Adding new brand: " + jsonBrand.name + " with " + jsonBrand.models.size() + " models");
-                    addBrandWithModels(jsonBrand.name, jsonBrand.models);
-                    hasChanges = true;
-                } else {
-                    // Brand exists - check if models have changed
-                    if (modelsHaveChanged(existingBrand, jsonBrand.models)) {
-                        System.out.println("Updating models for brand: " + jsonBrand.name);
-                        updateBrandModels(existingBrand, jsonBrand.models);
-                        hasChanges = true;
-                    }
-                }
-            }
-            
-            // Remove brands that are no longer in JSON
-            for (SkiBrand dbBrand : dbBrands) {
-                if (findBrandDataByName(jsonBrands, dbBrand.getName()) == null) {
-                    System.out.println("Removing brand no longer in JSON: " + dbBrand.getName());
-                    brandRepository.delete(dbBrand);
-                    hasChanges = true;
-                }
+            Resource resource = resourceLoader.getResource(CATALOG_RESOURCE);
+            String contentHash = hashResource(resource);
+            String storedHash = syncStateRepository.findContentHash(CATALOG_RESOURCE).orElse(null);
+            if (contentHash.equals(storedHash)) {
+                System.out.println("SkiModels.json unchanged since last sync - skipping");
+                return;
             }
-            
-            if (!hasChanges) {
+
+            // Load JSON data
+            Map<String, Set<String>> jsonBrands = loadBrandsFromJson(resource);
+
+            Boolean hasChanges = transactionTemplate.execute(status -> applyDiff(jsonBrands));
+
+            if (!Boolean.TRUE.equals(hasChanges)) {
                 System.out.println("Database is already in sync with SkiModels.json - no changes needed");
             }
-            
+            syncStateRepository.saveContentHash(CATALOG_RESOURCE, contentHash);
+
         } catch (Exception e) {
             System.err.println("Error syncing database with JSON: " + e.getMessage());
             e.printStackTrace();
         }
     }
-    
+
     /**
-     * Load brands from JSON file into memory for comparison
+     * Diff JSON brands/models against the database and write only the differences.
+     *
+     * @return true if anything was written
      */
-    private List<BrandData> loadBrandsFromJson() throws Exception {
-        List<BrandData> brands = new ArrayList<>();
-        
-        BufferedReader reader = new BufferedReader(new InputStreamReader(
-            resourceLoader.getResource("classpath:SkiModels.json").getInputStream(), 
-            StandardCharsets.UTF_8));
-        
-        StringBuilder jsonContent = new StringBuilder();
-        String line;
-        while ((line = reader.readLine()) != null) {
-            jsonContent.append(line);
+    private boolean applyDiff(Map<String, Set<String>> jsonBrands) {
+        // Get existing brands from database with models eagerly loaded
+        List<SkiBrand> dbBrands = brandRepository.findAllWithModels();
+        Map<String, SkiBrand> dbBrandsByName = new HashMap<>();
+        for (SkiBrand brand : dbBrands) {
+            dbBrandsByName.put(brand.getName(), brand);
         }
-        reader.close();
-        
-        // Normalize the JSON content to fix Unicode issues
-        String normalizedJson = normalizeJsonContent(jsonContent.toString());
-        
-        // Parse JSON content
-        Pattern brandPattern = Pattern.compile("\"name\"\\s*:\\s*\"([^\"]+)\"[^\\[]*\\[([^\\]]+)\\]");
-        Matcher brandMatcher = brandPattern.matcher(normalizedJson);
-        
-        while (brandMatcher.find()) {
-            String brandName = brandMatcher.group(1);
-            String makesString = brandMatcher.group(2);
-            
-            List<String> models = new ArrayList<>();
-            String[] makesParts = makesString.split(",");
-            for (String make : makesParts) {
-                String cleanMake = make.replaceAll("\"", "").trim();
-                if (!cleanMake.isEmpty()) {
-                    models.add(cleanMake);
+
+        List<Object[]> modelsToInsert = new ArrayList<>();
+        List<Long> modelsToDelete = new ArrayList<>();
+        List<SkiBrand> brandsToDelete = new ArrayList<>();
+        boolean brandsAdded = false;
+
+        for (Map.Entry<String, Set<String>> jsonBrand : jsonBrands.entrySet()) {
+            String brandName = jsonBrand.getKey();
+            Set<String> jsonModels = jsonBrand.getValue();
+            SkiBrand existingBrand = dbBrandsByName.get(brandName);
+
+            if (existingBrand == null) {
+                // Brand doesn't exist - add it
+                System.out.println("Adding new brand: " + brandName + " with " + jsonModels.size() + " models");
+                Long brandId = brandRepository.insertBrand(brandName);
+                brandsAdded = true;
+                for (String model : jsonModels) {
+                    modelsToInsert.add(new Object[] { brandId, model });
+                }
+                continue;
+            }
+
+            // Brand exists - diff model names
+            Set<String> existingNames = new LinkedHashSet<>();
+            int added = 0, removed = 0;
+            for (SkiModel model : existingBrand.getModels()) {
+                if (!jsonModels.contains(model.getName()) || !existingNames.add(model.getName())) {
+                    // Removed from JSON, or a duplicate row
+                    modelsToDelete.add(model.getId());
+                    removed++;
+                }
+            }
+            for (String model : jsonModels) {
+                if (!existingNames.contains(model)) {
+                    modelsToInsert.add(new Object[] { existingBrand.getId(), model });
+                    added++;
                 }
             }
-            
-            brands.add(new BrandData(brandName, models));
+            if (added > 0 || removed > 0) {
+                System.out.println("Updating models for brand: " + brandName + " (+" + added + " / -" + removed + ")");
+            }
         }
-        
-        return brands;
-    }
-    
-    /**
-     * Normalize Unicode characters that cause display issues
-     */
-    private String normalizeJsonContent(String content) {
-        return content
-            .replace("‑", "-")  // Replace non-breaking hyphen with regular hyphen
-            .replace("–", "-")  // Replace en dash with regular hyphen
-            .replace("—", "-"); // Replace em dash with regular hyphen
-    }
-    
-    private SkiBrand findBrandByName(List<SkiBrand> brands, String name) {
-        return brands.stream().filter(b -> b.getName().equals(name)).findFirst().orElse(null);
-    }
-    
-    private BrandData findBrandDataByName(List<BrandData> brands, String name) {
-        return brands.stream().filter(b -> b.name.equals(name)).findFirst().orElse(null);
-    }
-    
-    private boolean modelsHaveChanged(SkiBrand existingBrand, List<String> newModels) {
-        List<String> existingModels = existingBrand.getModels().stream()
-            .map(SkiModel::getName).sorted().toList();
-        List<String> sortedNewModels = newModels.stream().sorted().toList();
-        return !existingModels.equals(sortedNewModels);
-    }
-    
-    private void updateBrandModels(SkiBrand brand, List<String> newModels) {
-        // Clear existing models
-        brand.getModels().clear();
-        // Add new models
-        for (String modelName : newModels) {
-            brand.addModel(new SkiModel(modelName));
+
+        // Remove brands that are no longer in JSON
+        for (SkiBrand dbBrand : dbBrands) {
+            if (!jsonBrands.containsKey(dbBrand.getName())) {
+                System.out.println("Removing brand no longer in JSON: " + dbBrand.getName());
+                for (SkiModel model : dbBrand.getModels()) {
+                    modelsToDelete.add(model.getId());
+                }
+                brandsToDelete.add(dbBrand);
+            }
         }
-        brandRepository.save(brand);
-    }
-    
-    // Helper class to hold JSON data
-    private static class BrandData {
-        final String name;
-        final List<String> models;
-        
-        BrandData(String name, List<String> models) {
-            this.name = name;
-            this.models = models;
+
+        brandRepository.deleteModelsBatch(modelsToDelete);
+        for (SkiBrand brand : brandsToDelete) {
+            brandRepository.delete(brand);
         }
+        brandRepository.insertModelsBatch(modelsToInsert);
+
+        return brandsAdded || !modelsToInsert.isEmpty() || !modelsToDelete.isEmpty() || !brandsToDelete.isEmpty();
     }
 
     /**
-     * Load ski brands and models from SkiModels.json file using simple string parsing
+     * SHA-256 of the resource, read as a stream.
      */
-    private void loadSkiDataFromJson() {
-        try {
-            BufferedReader reader = new BufferedReader(new InputStreamReader(
-                resourceLoader.getResource("classpath:SkiModels.json").getInputStream()));
-            
-            StringBuilder jsonContent = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                jsonContent.append(line);
+    private String hashResource(Resource resource) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        try (InputStream in = new DigestInputStream(resource.getInputStream(), digest)) {
+            byte[] buffer = new byte[8192];
+            while (in.read(buffer) != -1) {
+                // DigestInputStream updates the digest as bytes are read
             }
-            reader.close();
-            
-            parseJsonContent(jsonContent.toString());
-            
-        } catch (Exception e) {
-            System.err.println("Error loading ski data from JSON: " + e.getMessage());
-            e.printStackTrace();
-            // Fallback to a minimal dataset if JSON loading fails
-            System.out.println("Falling back to minimal dataset...");
-            addBrandWithModels("Atomic", Arrays.asList("Bent 90", "Bent 100"));
-            addBrandWithModels("Rossignol", Arrays.asList("Experience 88", "Black Ops 98"));
         }
+        return java.util.HexFormat.of().formatHex(digest.digest());
     }
-    
+
     /**
-     * Simple JSON parser for the specific structure of SkiModels.json
+     * Stream-parse SkiModels.json ({"brands": [{"name": ..., "makes": [...]}, ...]}) into
+     * brand name -> model names (insertion ordered, de-duplicated). Unknown fields are skipped.
      */
-    private void parseJsonContent(String jsonContent) {
-        // Pattern to match brand objects: "name": "BrandName", "makes": [...]
-        Pattern brandPattern = Pattern.compile("\"name\"\\s*:\\s*\"([^\"]+)\"[^\\[]*\\[([^\\]]+)\\]");
-        Matcher brandMatcher = brandPattern.matcher(jsonContent);
-        
-        while (brandMatcher.find()) {
-            String brandName = brandMatcher.group(1);
-            String makesString = brandMatcher.group(2);
-            
-            // Parse the makes array - split by comma and clean quotes
-            List<String> makes = new ArrayList<>();
-            String[] makesParts = makesString.split(",");
-            for (String make : makesParts) {
-                // Remove quotes and trim whitespace
-                String cleanMake = make.replaceAll("\"", "").trim();
-                if (!cleanMake.isEmpty()) {
-                    makes.add(cleanMake);
+    private Map<String, Set<String>> loadBrandsFromJson(Resource resource) throws Exception {
+        Map<String, Set<String>> brands = new java.util.LinkedHashMap<>();
+
+        try (InputStream in = resource.getInputStream();
+             JsonParser parser = new JsonFactory().createParser(ObjectReadContext.empty(), in)) {
+
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalStateException("SkiModels.json: expected a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (!"brands".equals(field) || value != JsonToken.START_ARRAY) {
+                    parser.skipChildren();
+                    continue;
+                }
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    String brandName = null;
+                    Set<String> models = new LinkedHashSet<>();
+                    while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+                        String brandField = parser.currentName();
+                        JsonToken brandValue = parser.nextToken();
+                        if ("name".equals(brandField) && brandValue == JsonToken.VALUE_STRING) {
+                            brandName = normalizeName(parser.getString());
+                        } else if ("makes".equals(brandField) && brandValue == JsonToken.START_ARRAY) {
+                            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                                if (parser.currentToken() == JsonToken.VALUE_STRING) {
+                                    String model = normalizeName(parser.getString());
+                                    if (!model.isEmpty()) {
+                                        models.add(model);
+                                    }
+                                } else {
+                                    parser.skipChildren();
+                                }
+                            }
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                    if (brandName != null && !brandName.isEmpty()) {
+                        brands.computeIfAbsent(brandName, k -> new LinkedHashSet<>()).addAll(models);
+                    }
                 }
             }
-            
-            addBrandWithModels(brandName, makes);
         }
+
+        return brands;
     }
 
-    private void addBrandWithModels(String brandName, List<String> modelNames) {
-        System.out.println("Adding brand '" + brandName + "' with " + modelNames.size() + " models");
-        SkiBrand brand = new SkiBrand(brandName);
-        for (String m : modelNames) {
-            brand.addModel(new SkiModel(m));
-        }
-        brandRepository.save(brand);
+    /**
+     * Normalize Unicode characters that cause display issues
+     */
+    private String normalizeName(String content) {
+        return content
+            .replace("‑", "-")  // Replace non-breaking hyphen with regular hyphen
+            .replace("–", "-")  // Replace en dash with regular hyphen
+            .replace("—", "-")  // Replace em dash with regular hyphen
+            .trim();
     }
 }
@@ -25,6 +25,9 @@ public class DataSeeder implements CommandLineRunner {
     @Autowired
     private ShopSqlRepository shopRepository;
 
+    @Autowired
+    private ShopHostResolver shopHostResolver;
+
     @Override
     public void run(String... args) throws Exception {
         // Create default staff user if none exists
@@ -67,6 +70,10 @@ public class DataSeeder implements CommandLineRunner {
                 shopRepository.insert(sev);
                 System.out.println("Created shop: 7evenskis (slug: 7evenskis)");
             }
+
+            if (!hasAlta || !has7evens) {
+                shopHostResolver.refresh();
+            }
         } catch (Exception e) {
             System.err.println("Error seeding shops: " + e.getMessage());
         }
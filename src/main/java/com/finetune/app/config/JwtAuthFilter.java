@@ -1,7 +1,6 @@
 package com.finetune.app.config;
 
 import com.finetune.app.model.Staff;
-import com.finetune.app.repository.sql.StaffSqlRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,7 +12,6 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.stereotype.Component;
 import org.springframework.core.annotation.Order;
 import org.springframework.web.filter.OncePerRequestFilter;
-import com.finetune.app.repository.sql.ShopSqlRepository;
 
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -37,10 +35,10 @@ public class JwtAuthFilter extends OncePerRequestFilter {
     private JwtUtils jwtUtils;
 
     @Autowired
-    private StaffSqlRepository staffRepository;
+    private StaffPrincipalCache principalCache;
 
     @Autowired
-    private ShopSqlRepository shopRepository;
+    private ShopHostResolver shopHostResolver;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -101,27 +99,33 @@ public class JwtAuthFilter extends OncePerRequestFilter {
                 }
             }
 
-            if (token != null && jwtUtils.validateToken(token) && SecurityContextHolder.getContext().getAuthentication() == null) {
+            // Parse and verify the token once; getClaims returns null for invalid/expired tokens
+            io.jsonwebtoken.Claims claims = null;
+            if (token != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                claims = jwtUtils.getClaims(token);
+            }
+
+            if (claims != null) {
                 logger.debug("JwtAuthFilter: token present and validated");
-                String email = jwtUtils.getEmailFromToken(token);
+                String email = claims.getSubject();
                 logger.debug("JwtAuthFilter: token subject/email={}", email);
                 if (email != null) {
-                    // Load full staff record (with shops) from DB
-                    Optional<Staff> staffOpt = staffRepository.findByEmailWithShops(email);
+                    // Load full staff record (with shops) from the principal cache (DB on miss)
+                    Optional<Staff> staffOpt = principalCache.getByEmail(email);
                     Staff staff = staffOpt.orElse(null);
 
                     if (staff != null) {
                         logger.debug("JwtAuthFilter: loaded staff id={} email={}", staff.getId(), staff.getEmail());
                         try {
-                            io.jsonwebtoken.Claims claims = jwtUtils.getClaims(token);
-                            Object staffIdObj = claims == null ? null : claims.get("staffUserId");
-                            if (staffIdObj != null) {
+                            Object staffIdObj = claims.get("staffUserId");
+                            // Cached Staff instances are shared between requests; only fill a missing id
+                            if (staffIdObj != null && staff.getId() == null) {
                                 if (staffIdObj instanceof Number) staff.setId(((Number) staffIdObj).longValue());
                                 else {
                                     try { staff.setId(Long.parseLong(staffIdObj.toString())); } catch (Exception ignore) {}
                                 }
                             }
-                            Object singleShop = claims == null ? null : claims.get("shopId");
+                            Object singleShop = claims.get("shopId");
                             if (singleShop != null) {
                                 Long sid = null;
                                 if (singleShop instanceof Number) sid = ((Number) singleShop).longValue();
@@ -175,15 +179,16 @@ public class JwtAuthFilter extends OncePerRequestFilter {
                                 response.addHeader(HttpHeaders.SET_COOKIE, updated.toString());
                             }
 
-                            // Verify staff belongs to active_shop
-                            boolean belongs = false;
+                            // Verify staff belongs to active_shop; the membership rows already carry
+                            // the full Shop, so no extra lookup is needed to attach it
+                            com.finetune.app.model.Shop activeShop = null;
                             if (staff.getShops() != null) {
                                 for (com.finetune.app.model.Shop s : staff.getShops()) {
-                                    if (s != null && Long.valueOf(s.getId()).equals(cookieShopId)) { belongs = true; break; }
+                                    if (s != null && Long.valueOf(s.getId()).equals(cookieShopId)) { activeShop = s; break; }
                                 }
                             }
 
-                            if (!belongs) {
+                            if (activeShop == null) {
                                 logger.debug("JwtAuthFilter: staff id={} does not belong to active shop id={}", staff.getId(), cookieShopId);
                                 response.setStatus(403);
                                 response.getWriter().write("Forbidden: staff does not belong to active shop");
@@ -191,16 +196,8 @@ public class JwtAuthFilter extends OncePerRequestFilter {
                             }
 
                             // Attach shop object to request
-                            Optional<com.finetune.app.model.Shop> shopOpt = shopRepository.findById(cookieShopId);
-                            if (shopOpt.isPresent()) {
-                                request.setAttribute("ACTIVE_SHOP", shopOpt.get());
-                                logger.debug("JwtAuthFilter: attached ACTIVE_SHOP id={}", shopOpt.get().getId());
-                            } else {
-                                logger.debug("JwtAuthFilter: active shop id={} not found; returning 403", cookieShopId);
-                                response.setStatus(403);
-                                response.getWriter().write("Forbidden: active shop not found");
-                                return;
-                            }
+                            request.setAttribute("ACTIVE_SHOP", activeShop);
+                            logger.debug("JwtAuthFilter: attached ACTIVE_SHOP id={}", activeShop.getId());
                         } catch (IOException ioe) {
                             logger.warn("Error enforcing active_shop: {}", ioe.getMessage());
                             // On IO errors, continue without blocking
@@ -229,26 +226,10 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
         // 2) subdomain
         if (shopId == null) {
-            String hostHeader = request.getHeader("Host");
-            if (hostHeader != null && !hostHeader.isBlank()) {
-                String host = hostHeader.split(":")[0].toLowerCase().trim();
-                String subdomain = null;
-                // Support both shop.localhost and shop.localhost.com for local development
-                if (host.endsWith(".localhost") || host.endsWith(".localhost.com")) {
-                    String suffix = host.endsWith(".localhost.com") ? ".localhost.com" : ".localhost";
-                    String prefix = host.substring(0, host.length() - suffix.length());
-                    if (!prefix.isBlank()) subdomain = prefix.split("\\.")[0];
-                } else if (host.contains(".")) {
-                    String[] parts = host.split("\\.");
-                    if (parts.length >= 3) subdomain = parts[0];
-                }
-                if (subdomain != null) {
-                    try {
-                        Optional<com.finetune.app.model.Shop> shopOpt = shopRepository.findBySlug(subdomain);
-                        if (shopOpt.isPresent()) shopId = shopOpt.get().getId();
-                    } catch (Exception ignore) {}
-                }
-            }
+            try {
+                com.finetune.app.model.Shop shop = shopHostResolver.resolve(request).orElse(null);
+                if (shop != null) shopId = shop.getId();
+            } catch (Exception ignore) {}
         }
 
         return shopId;
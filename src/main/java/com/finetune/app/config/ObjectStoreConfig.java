@@ -0,0 +1,42 @@
+package com.finetune.app.config;
+
+import com.finetune.app.service.LocalObjectStore;
+import com.finetune.app.service.ObjectStorageService;
+import com.finetune.app.service.ObjectStore;
+import com.finetune.app.service.R2ObjectStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Chooses the ObjectStore backend for shop assets.
+ *
+ * app.storage.assets.backend:
+ * - local (default): files under app.storage.local.root (default {user.dir}/uploads, where
+ *   shop logos have always been kept, so existing /uploads/shops/* files keep working)
+ * - r2: the Cloudflare R2 bucket configured in R2Config
+ */
+@Configuration
+public class ObjectStoreConfig {
+
+    @Bean
+    public ObjectStore assetObjectStore(
+            ObjectStorageService objectStorageService,
+            @Value("${app.storage.assets.backend:local}") String backend,
+            @Value("${app.storage.local.root:}") String localRoot) throws IOException {
+        if ("r2".equalsIgnoreCase(backend)) {
+            return new R2ObjectStore(objectStorageService);
+        }
+        if (!"local".equalsIgnoreCase(backend)) {
+            throw new IllegalArgumentException("Unknown app.storage.assets.backend: " + backend);
+        }
+        Path root = localRoot.isBlank()
+                ? Paths.get(System.getProperty("user.dir"), "uploads")
+                : Paths.get(localRoot);
+        return new LocalObjectStore(root);
+    }
+}
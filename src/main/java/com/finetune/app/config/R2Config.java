@@ -5,12 +5,15 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
-import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 
 import java.net.URI;
+import java.time.Duration;
 
 /**
  * Configuration for Cloudflare R2 object storage.
@@ -31,6 +34,15 @@ public class R2Config {
     @Value("${r2.secret-key}")
     private String secretKey;
 
+    @Value("${app.storage.max-connections:50}")
+    private int maxConnections;
+
+    @Value("${app.storage.async-max-concurrency:32}")
+    private int asyncMaxConcurrency;
+
+    @Value("${app.storage.async-max-pending-acquires:256}")
+    private int asyncMaxPendingAcquires;
+
     /**
      * Create S3Client bean configured for Cloudflare R2.
      * 
@@ -39,6 +51,10 @@ public class R2Config {
      * - Region: "auto" (required by R2)
      * - Path-style access: enabled (required by R2)
      * - ACLs: not supported by R2
+     * - HTTP: pooled Apache client (connections are reused across requests; callers wait
+     *   for a free connection instead of opening an unbounded number)
+     * 
+     * Used for reads, HEAD and DELETE. Uploads go through r2AsyncClient.
      *
      * @return Configured S3Client for Cloudflare R2
      */
@@ -57,7 +73,42 @@ public class R2Config {
                 .credentialsProvider(credentialsProvider)
                 .region(Region.of("auto")) // R2 uses "auto" region
                 .forcePathStyle(true) // Required for R2
-                .httpClient(UrlConnectionHttpClient.builder().build()) // Explicitly set HTTP client
+                .httpClient(ApacheHttpClient.builder()
+                        .maxConnections(maxConnections)
+                        .connectionAcquisitionTimeout(Duration.ofSeconds(30))
+                        .build()) // Pooled HTTP client
+                .build();
+    }
+
+    /**
+     * Create S3AsyncClient bean configured for Cloudflare R2, used for uploads.
+     * 
+     * Same endpoint, credentials, region and path-style access as r2Client. The Netty client
+     * keeps at most asyncMaxConcurrency requests (single PUTs and multipart parts across all
+     * uploads) open at once; further requests queue for a connection (up to
+     * asyncMaxPendingAcquires) instead of tying up a request thread each.
+     *
+     * @return Configured S3AsyncClient for Cloudflare R2
+     */
+    @Bean
+    public S3AsyncClient r2AsyncClient() {
+        // Cloudflare R2 endpoint format (same as S3Client)
+        String endpoint = String.format("https://%s.r2.cloudflarestorage.com", accountId);
+
+        // Create credentials (same as S3Client)
+        AwsBasicCredentials credentials = AwsBasicCredentials.create(accessKey, secretKey);
+        StaticCredentialsProvider credentialsProvider = StaticCredentialsProvider.create(credentials);
+
+        return S3AsyncClient.builder()
+                .endpointOverride(URI.create(endpoint))
+                .credentialsProvider(credentialsProvider)
+                .region(Region.of("auto")) // R2 uses "auto" region
+                .forcePathStyle(true) // Required for R2
+                .httpClient(NettyNioAsyncHttpClient.builder()
+                        .maxConcurrency(asyncMaxConcurrency)
+                        .maxPendingConnectionAcquires(asyncMaxPendingAcquires)
+                        .connectionAcquisitionTimeout(Duration.ofSeconds(30))
+                        .build())
                 .build();
     }
 
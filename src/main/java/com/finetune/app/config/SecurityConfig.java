@@ -23,6 +23,7 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import java.util.List;
 import com.finetune.app.repository.sql.StaffSqlRepository;
 import org.springframework.security.web.AuthenticationEntryPoint;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
@@ -49,6 +50,10 @@ public class SecurityConfig {
             .csrf(csrf -> csrf.disable())
             .sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
+                // Async dispatches (e.g. completing the /workorders/changes event stream) belong to a
+                // request that was already authorized; the stateless JWT context is not carried over
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                 // Public: static assets, public APIs, and public UI pages - must be checked first
                 .requestMatchers(
                     "/**/*.js",
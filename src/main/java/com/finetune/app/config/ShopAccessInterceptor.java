@@ -2,24 +2,22 @@ package com.finetune.app.config;
 
 import com.finetune.app.model.Shop;
 import com.finetune.app.model.Staff;
-import com.finetune.app.repository.sql.ShopSqlRepository;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.util.List;
-import java.util.Optional;
 
 import org.springframework.security.core.context.SecurityContextHolder;
 
 @Component
 public class ShopAccessInterceptor implements HandlerInterceptor {
 
-    private final ShopSqlRepository shopRepository;
+    private final ShopHostResolver shopHostResolver;
 
-    public ShopAccessInterceptor(ShopSqlRepository shopRepository) {
-        this.shopRepository = shopRepository;
+    public ShopAccessInterceptor(ShopHostResolver shopHostResolver) {
+        this.shopHostResolver = shopHostResolver;
     }
 
     @Override
@@ -41,22 +39,8 @@ public class ShopAccessInterceptor implements HandlerInterceptor {
 
         // 2) Try subdomain
         if (shopId == null) {
-            String hostHeader = request.getHeader("Host");
-            if (hostHeader != null && !hostHeader.isBlank()) {
-                String host = hostHeader.split(":")[0].toLowerCase().trim();
-                String subdomain = null;
-                if (host.endsWith(".localhost")) {
-                    String prefix = host.substring(0, host.length() - ".localhost".length());
-                    if (!prefix.isBlank()) subdomain = prefix.split("\\.")[0];
-                } else if (host.contains(".")) {
-                    String[] parts = host.split("\\.");
-                    if (parts.length >= 3) subdomain = parts[0];
-                }
-                if (subdomain != null) {
-                    Optional<Shop> shopOpt = shopRepository.findBySlug(subdomain);
-                    if (shopOpt.isPresent()) shopId = shopOpt.get().getId();
-                }
-            }
+            Shop shop = shopHostResolver.resolve(request).orElse(null);
+            if (shop != null) shopId = shop.getId();
         }
 
         // If we couldn't determine shopId, allow request through (can't verify)
@@ -0,0 +1,122 @@
+package com.finetune.app.config;
+
+import com.finetune.app.model.Shop;
+import com.finetune.app.repository.sql.ShopSqlRepository;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Single place that turns a request's Host header into a Shop.
+ *
+ * Shared by ShopSubdomainResolver, JwtAuthFilter, ResolveShopFromSubdomainInterceptor and
+ * ShopAccessInterceptor so that a request parses the host and looks up the slug once.
+ * Slugs are served from an immutable snapshot map (swapped atomically on refresh) instead of
+ * querying the shop table; ShopService calls refresh() whenever shops are inserted, updated
+ * or deleted.
+ */
+@Component
+public class ShopHostResolver {
+
+    /** Request attribute holding the resolved Optional<Shop> for the current request. */
+    public static final String RESOLVED_SHOP_ATTRIBUTE = "HOST_RESOLVED_SHOP";
+
+    private final ShopSqlRepository shopRepository;
+
+    // Immutable snapshot; replaced wholesale so readers never need to lock
+    private volatile Map<String, Shop> shopsBySlug;
+
+    public ShopHostResolver(ShopSqlRepository shopRepository) {
+        this.shopRepository = shopRepository;
+    }
+
+    /**
+     * Resolve the shop for this request's subdomain. The result (including "no shop") is
+     * stored on the request so later filters and interceptors reuse it.
+     */
+    @SuppressWarnings("unchecked")
+    public Optional<Shop> resolve(HttpServletRequest request) {
+        Object cached = request.getAttribute(RESOLVED_SHOP_ATTRIBUTE);
+        if (cached instanceof Optional) {
+            return (Optional<Shop>) cached;
+        }
+        Optional<Shop> shop = findBySlug(extractSubdomain(request.getHeader("Host")));
+        request.setAttribute(RESOLVED_SHOP_ATTRIBUTE, shop);
+        return shop;
+    }
+
+    /**
+     * Look up a shop by slug in the in-memory snapshot.
+     */
+    public Optional<Shop> findBySlug(String slug) {
+        if (slug == null || slug.isBlank()) return Optional.empty();
+        return Optional.ofNullable(snapshot().get(slug));
+    }
+
+    /**
+     * Extract the shop subdomain from a Host header.
+     * - "7evenskis.finetune.app" -> "7evenskis" (first label when there are 3+ labels)
+     * - "alta.localhost" / "a.b.localhost.com" -> first label before the localhost suffix
+     * Returns null when the host has no shop subdomain.
+     */
+    public static String extractSubdomain(String hostHeader) {
+        if (hostHeader == null || hostHeader.isBlank()) return null;
+
+        // Remove port if present
+        int colon = hostHeader.indexOf(':');
+        String host = (colon >= 0 ? hostHeader.substring(0, colon) : hostHeader).trim().toLowerCase();
+
+        String prefix;
+        if (host.endsWith(".localhost.com")) {
+            prefix = host.substring(0, host.length() - ".localhost.com".length());
+        } else if (host.endsWith(".localhost")) {
+            prefix = host.substring(0, host.length() - ".localhost".length());
+        } else {
+            // Need at least three labels (shop.domain.tld)
+            int first = host.indexOf('.');
+            if (first <= 0 || host.indexOf('.', first + 1) < 0) return null;
+            return host.substring(0, first);
+        }
+
+        if (prefix.isBlank()) return null;
+        int dot = prefix.indexOf('.');
+        String label = dot >= 0 ? prefix.substring(0, dot) : prefix;
+        return label.isBlank() ? null : label;
+    }
+
+    /**
+     * Rebuild the slug snapshot from the database.
+     */
+    public void refresh() {
+        Map<String, Shop> next = new HashMap<>();
+        List<Shop> shops = shopRepository.findAll();
+        for (Shop shop : shops) {
+            if (shop.getSlug() != null) {
+                next.put(shop.getSlug().toLowerCase(), shop);
+            }
+        }
+        shopsBySlug = Map.copyOf(next);
+    }
+
+    private Map<String, Shop> snapshot() {
+        Map<String, Shop> current = shopsBySlug;
+        if (current == null) {
+            synchronized (this) {
+                if (shopsBySlug == null) {
+                    try {
+                        refresh();
+                    } catch (Exception e) {
+                        // Shop table unavailable; treat as no shops until the next refresh
+                        return Map.of();
+                    }
+                }
+                current = shopsBySlug;
+            }
+        }
+        return current;
+    }
+}
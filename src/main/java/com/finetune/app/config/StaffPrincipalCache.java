@@ -0,0 +1,100 @@
+package com.finetune.app.config;
+
+import com.finetune.app.model.Staff;
+import com.finetune.app.repository.sql.StaffSqlRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Bounded in-process cache of authenticated principals, keyed by staff email (the JWT subject).
+ *
+ * Each entry holds the Staff row together with its shop memberships and the full Shop rows
+ * (as loaded by StaffSqlRepository.findByEmailWithShops), so JwtAuthFilter can authenticate a
+ * request and resolve ACTIVE_SHOP without touching the database while the entry is fresh.
+ *
+ * Entries expire after a TTL and the least recently used entry is evicted once the size limit
+ * is reached. Callers that change staff or shop membership must call invalidate/invalidateAll.
+ */
+@Component
+public class StaffPrincipalCache {
+
+    private final StaffSqlRepository staffRepository;
+    private final long ttlMillis;
+    private final int maxSize;
+
+    private final Map<String, Entry> entries;
+
+    private static final class Entry {
+        final Staff staff;
+        final long expiresAt;
+
+        Entry(Staff staff, long expiresAt) {
+            this.staff = staff;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    public StaffPrincipalCache(StaffSqlRepository staffRepository,
+                               @Value("${app.auth.principal-cache.ttl-seconds:60}") long ttlSeconds,
+                               @Value("${app.auth.principal-cache.max-size:1000}") int maxSize) {
+        this.staffRepository = staffRepository;
+        this.ttlMillis = ttlSeconds * 1000L;
+        this.maxSize = maxSize;
+        // Access-ordered map gives LRU eviction via removeEldestEntry
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > StaffPrincipalCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Return the staff (with shops) for the given email, loading from the DB on a miss or expiry.
+     * Missing staff are not cached so a newly created account is visible immediately.
+     */
+    public Optional<Staff> getByEmail(String email) {
+        if (email == null) return Optional.empty();
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            Entry e = entries.get(email);
+            if (e != null && e.expiresAt > now) {
+                return Optional.of(e.staff);
+            }
+            if (e != null) {
+                entries.remove(email);
+            }
+        }
+
+        Optional<Staff> loaded = staffRepository.findByEmailWithShops(email);
+        loaded.ifPresent(staff -> {
+            synchronized (entries) {
+                entries.put(email, new Entry(staff, System.currentTimeMillis() + ttlMillis));
+            }
+        });
+        return loaded;
+    }
+
+    /**
+     * Drop the cached principal for one staff member (e.g. after login or membership change).
+     */
+    public void invalidate(String email) {
+        if (email == null) return;
+        synchronized (entries) {
+            entries.remove(email);
+        }
+    }
+
+    /**
+     * Drop every cached principal. Used when shop rows change, since each entry embeds Shop data.
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+}
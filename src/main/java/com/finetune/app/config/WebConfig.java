@@ -3,7 +3,6 @@ package com.finetune.app.config;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
-import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
@@ -15,12 +14,6 @@ public class WebConfig implements WebMvcConfigurer {
 	@Autowired
 	private ShopAccessInterceptor shopAccessInterceptor;
 
-	@Override
-	public void addResourceHandlers(ResourceHandlerRegistry registry) {
-		registry.addResourceHandler("/uploads/shops/**")
-				.addResourceLocations("file:" + System.getProperty("user.dir") + "/uploads/shops/");
-	}
-
 	@Override
 	public void addInterceptors(InterceptorRegistry registry) {
 		// Apply to protected API routes. Adjust the pattern as needed.
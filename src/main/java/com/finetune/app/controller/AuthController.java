@@ -18,6 +18,7 @@ import com.finetune.app.repository.sql.ShopSqlRepository;
 import java.util.ArrayList;
 import java.util.List;
 import com.finetune.app.config.JwtUtils;
+import com.finetune.app.config.StaffPrincipalCache;
 
 import java.util.Optional;
 import java.util.HashMap;
@@ -47,6 +48,9 @@ public class AuthController {
     @Autowired
     private ShopSqlRepository shopRepository;
 
+    @Autowired
+    private StaffPrincipalCache principalCache;
+
     @PostMapping("/refresh")
     public ResponseEntity<?> refreshToken(HttpServletRequest request) {
         // Read access_token cookie
@@ -153,6 +157,9 @@ public class AuthController {
             Authentication authentication = authenticationManager.authenticate(authToken);
             SecurityContextHolder.getContext().setAuthentication(authentication);
 
+            // Drop any cached principal so the new session sees current shop membership
+            principalCache.invalidate(loginRequest.getEmail());
+
             // Load staff with shops for token claims
             Optional<Staff> staffWithShops = staffRepository.findByEmailWithShops(loginRequest.getEmail());
             Staff sForToken = staffWithShops.orElseGet(() -> staffRepository.findByEmail(loginRequest.getEmail()).orElse(null));
@@ -2,34 +2,74 @@ package com.finetune.app.controller;
 
 import com.finetune.app.model.SkiBrand;
 import com.finetune.app.model.SkiModel;
-import com.finetune.app.repository.sql.SkiBrandSqlRepository;
-import com.finetune.app.repository.sql.SkiModelSqlRepository;
+import com.finetune.app.repository.sql.SkiCatalog;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import java.time.Duration;
 import java.util.List;
 
+/**
+ * Brand/model catalog for the intake form dropdowns.
+ *
+ * Served from the in-memory SkiCatalog snapshot with a strong ETag (the catalog content hash)
+ * and Cache-Control max-age, so browsers reuse their copy without a round trip and revalidate
+ * with If-None-Match (304, via ServletWebRequest.checkNotModified) once it expires.
+ */
 @RestController
 @RequestMapping("/brands")
 @CrossOrigin(origins = "*")
 public class BrandController {
 
-    private final SkiBrandSqlRepository brandRepository;
-    private final SkiModelSqlRepository modelRepository;
+    private final SkiCatalog catalog;
+    private final CacheControl cacheControl;
 
-    public BrandController(SkiBrandSqlRepository brandRepository, SkiModelSqlRepository modelRepository) {
-        this.brandRepository = brandRepository;
-        this.modelRepository = modelRepository;
+    public BrandController(SkiCatalog catalog,
+                           @Value("${app.catalog.max-age-seconds:3600}") long maxAgeSeconds) {
+        this.catalog = catalog;
+        this.cacheControl = CacheControl.maxAge(Duration.ofSeconds(maxAgeSeconds)).cachePublic();
     }
 
     // GET /brands → returns list of ski brands (id + name)
+    // Optional q: case-insensitive name prefix, with limit (0 = no limit)
     @GetMapping
-    public List<SkiBrand> getBrands() {
-        return brandRepository.findAll();
+    public ResponseEntity<List<SkiBrand>> getBrands(
+            @RequestParam(value = "q", required = false) String q,
+            @RequestParam(value = "limit", defaultValue = "0") int limit,
+            ServletWebRequest webRequest) {
+        SkiCatalog.Snapshot snapshot = catalog.get();
+        if (webRequest.checkNotModified(snapshot.getEtag())) {
+            return notModified(snapshot);
+        }
+        List<SkiBrand> brands = q != null && !q.isBlank()
+                ? snapshot.findBrandsByPrefix(q, limit)
+                : snapshot.getBrands();
+        return ResponseEntity.ok().eTag(snapshot.getEtag()).cacheControl(cacheControl).body(brands);
     }
 
     // GET /brands/{id}/models → returns models for a brand (id + name)
+    // Optional q: case-insensitive name prefix, with limit (0 = no limit)
     @GetMapping("/{id}/models")
-    public List<SkiModel> getModelsByBrand(@PathVariable Long id) {
-        return modelRepository.findByBrandId(id);
+    public ResponseEntity<List<SkiModel>> getModelsByBrand(
+            @PathVariable Long id,
+            @RequestParam(value = "q", required = false) String q,
+            @RequestParam(value = "limit", defaultValue = "0") int limit,
+            ServletWebRequest webRequest) {
+        SkiCatalog.Snapshot snapshot = catalog.get();
+        if (webRequest.checkNotModified(snapshot.getEtag())) {
+            return notModified(snapshot);
+        }
+        List<SkiModel> models = q != null && !q.isBlank()
+                ? snapshot.findModelsByPrefix(id, q, limit)
+                : snapshot.getModels(id);
+        return ResponseEntity.ok().eTag(snapshot.getEtag()).cacheControl(cacheControl).body(models);
+    }
+
+    private <T> ResponseEntity<T> notModified(SkiCatalog.Snapshot snapshot) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(snapshot.getEtag()).cacheControl(cacheControl).build();
     }
 }
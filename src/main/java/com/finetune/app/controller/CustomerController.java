@@ -10,6 +10,7 @@ import com.finetune.app.model.dto.EquipmentResponse;
 import com.finetune.app.model.Customer;
 import com.finetune.app.model.WorkOrder;
 import com.finetune.app.model.Equipment;
+import com.finetune.app.repository.sql.CustomerSearchIndex;
 import com.finetune.app.repository.sql.CustomerSqlRepository;
 import com.finetune.app.repository.sql.EquipmentSqlRepository;
 import com.finetune.app.repository.sql.BootSqlRepository;
@@ -41,24 +42,54 @@ public class CustomerController {
     private final EquipmentSqlRepository equipmentRepository;
     private final BootSqlRepository bootRepository;
     private final WorkOrderSqlRepository workOrderRepository;
-    public CustomerController(CustomerSqlRepository customerRepository, CustomerService customerService, EquipmentSqlRepository equipmentRepository, BootSqlRepository bootRepository, WorkOrderSqlRepository workOrderRepository) {
+    private final CustomerSearchIndex customerSearchIndex;
+    public CustomerController(CustomerSqlRepository customerRepository, CustomerService customerService, EquipmentSqlRepository equipmentRepository, BootSqlRepository bootRepository, WorkOrderSqlRepository workOrderRepository, CustomerSearchIndex customerSearchIndex) {
         this.customerRepository = customerRepository;
         this.customerService = customerService;
         this.equipmentRepository = equipmentRepository;
         this.bootRepository = bootRepository;
         this.workOrderRepository = workOrderRepository;
+        this.customerSearchIndex = customerSearchIndex;
     }
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+
     /**
-     * Get all customers.
-     * Returns CustomerResponseDTO with aggregate counts (work orders, equipment, boots).
+     * Get one page of customers.
+     * Returns CustomerResponseDTO with aggregate counts (work orders, equipment, boots),
+     * computed in SQL for the requested page only. The body stays a plain array; the total
+     * number of matching customers is returned in the X-Total-Count header.
      * 
-     * @return List of all customers with counts
+     * @param page Zero-based page number (default 0)
+     * @param size Page size (default 50, max 200)
+     * @param sort id, firstName, lastName, email, workOrderCount, equipmentCount or bootCount (default id)
+     * @param direction asc or desc (default asc)
+     * @param q Optional filter: substring of the customer's full name or phone
+     * @return Page of customers with counts
      */
     @GetMapping
-    public ResponseEntity<List<CustomerResponseDTO>> getAllCustomers() {
-        List<CustomerResponseDTO> customers = customerService.getAllCustomers();
-        return ResponseEntity.ok(customers);
+    public ResponseEntity<?> getAllCustomers(
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "" + DEFAULT_PAGE_SIZE) int size,
+            @RequestParam(value = "sort", defaultValue = "id") String sort,
+            @RequestParam(value = "direction", defaultValue = "asc") String direction,
+            @RequestParam(value = "q", required = false) String q) {
+        if (page < 0 || size < 1) {
+            return ResponseEntity.badRequest().body("page must be >= 0 and size >= 1");
+        }
+        if (!CustomerSqlRepository.isSummarySortField(sort)) {
+            return ResponseEntity.badRequest().body("Unsupported sort field: " + sort);
+        }
+        int pageSize = Math.min(size, MAX_PAGE_SIZE);
+        boolean ascending = !"desc".equalsIgnoreCase(direction);
+
+        List<CustomerResponseDTO> customers = customerService.getCustomersPage(q, page, pageSize, sort, ascending);
+        return ResponseEntity.ok()
+                .header("X-Total-Count", String.valueOf(customerService.countCustomers(q)))
+                .header("X-Page", String.valueOf(page))
+                .header("X-Page-Size", String.valueOf(pageSize))
+                .body(customers);
     }
 
     /**
@@ -76,37 +107,66 @@ public class CustomerController {
             .orElse(ResponseEntity.notFound().build());
     }
 
+    private static final int DEFAULT_SEARCH_LIMIT = 50;
+
     /**
      * Search for customers by email, phone, or name.
-     * Accepts one of three query parameters:
+     * Accepts one of four query parameters:
      * - email: partial match (case-insensitive)
-     * - phone: exact match
+     * - phone: exact or prefix match on digits (formatting ignored)
      * - name: partial match against first or last name (case-insensitive)
+     * - q: partial match against any of the above (phone digits anywhere in the number)
+     * 
+     * Served from the in-memory CustomerSearchIndex (no database query); results are ranked
+     * exact match first, then word prefix, then substring. Falls back to SQL while the index
+     * is still loading at startup.
      * 
      * @param email Optional email search query
      * @param phone Optional phone search query
      * @param name Optional name search query
+     * @param q Optional query matched against name, email and phone
+     * @param limit Maximum number of results (default 50)
      * @return List of matching CustomerResponse objects
      */
     @GetMapping("/search")
     public ResponseEntity<List<CustomerResponse>> searchCustomers(
         @RequestParam(required = false) String email,
         @RequestParam(required = false) String phone,
-        @RequestParam(required = false) String name
+        @RequestParam(required = false) String name,
+        @RequestParam(required = false) String q,
+        @RequestParam(value = "limit", defaultValue = "" + DEFAULT_SEARCH_LIMIT) int limit
     ) {
-        List<Customer> results;
-        
+        String query;
+        CustomerSearchIndex.Field field;
         if (email != null && !email.trim().isEmpty()) {
-            results = customerRepository.findByEmailContainingIgnoreCase(email.trim());
+            query = email.trim();
+            field = CustomerSearchIndex.Field.EMAIL;
         } else if (phone != null && !phone.trim().isEmpty()) {
-            results = customerRepository.findByPhone(phone.trim());
+            query = phone.trim();
+            field = CustomerSearchIndex.Field.PHONE;
         } else if (name != null && !name.trim().isEmpty()) {
-            results = customerRepository.findByNameContaining(name.trim());
+            query = name.trim();
+            field = CustomerSearchIndex.Field.NAME;
+        } else if (q != null && !q.trim().isEmpty()) {
+            query = q.trim();
+            field = CustomerSearchIndex.Field.ANY;
         } else {
             return ResponseEntity.badRequest().build();
         }
+
+        List<Customer> results;
+        if (customerSearchIndex.isReady()) {
+            results = customerSearchIndex.searchCustomers(query, field, limit);
+        } else if (field == CustomerSearchIndex.Field.EMAIL) {
+            results = customerRepository.findByEmailContainingIgnoreCase(query);
+        } else if (field == CustomerSearchIndex.Field.PHONE) {
+            results = customerRepository.findByPhone(query);
+        } else {
+            results = customerRepository.findByNameContaining(query);
+        }
         
         List<CustomerResponse> responses = results.stream()
+            .limit(limit > 0 ? limit : Long.MAX_VALUE)
             .map(CustomerResponse::fromEntity)
             .collect(Collectors.toList());
         
@@ -8,6 +8,9 @@ import com.finetune.app.model.dto.WorkOrderResponse;
 import com.finetune.app.model.dto.PublicWorkOrderCreationResponse;
 import com.finetune.app.model.dto.SignAgreementRequest;
 import com.finetune.app.model.dto.SignAgreementResponse;
+import com.finetune.app.model.dto.AgreementSigningJobResponse;
+import com.finetune.app.model.AgreementSigningJob;
+import com.finetune.app.model.enums.SigningJobStatus;
 import com.finetune.app.model.Shop;
 import com.finetune.app.model.Customer;
 import com.finetune.app.model.Equipment;
@@ -23,8 +26,15 @@ import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import tools.jackson.databind.MapperFeature;
+import tools.jackson.databind.SerializationFeature;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 
 import java.time.Duration;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -47,6 +57,17 @@ public class PublicWorkOrderController {
     private final ObjectStorageService objectStorageService;
     private final SignedAgreementService signedAgreementService;
     private final ShopService shopService;
+    private final AgreementSigningJobService signingJobService;
+    private final IdempotencyStore idempotencyStore;
+
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    // Canonical JSON for request fingerprints: stable property and map-key order
+    private static final JsonMapper FINGERPRINT_MAPPER = JsonMapper.builder()
+            .enable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+            .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+            .build();
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
 
     public PublicWorkOrderController(
             CustomerSqlRepository customerRepository,
@@ -56,7 +77,9 @@ public class PublicWorkOrderController {
             WorkOrderSqlRepository workOrderRepository,
             ObjectStorageService objectStorageService,
             SignedAgreementService signedAgreementService,
-            ShopService shopService) {
+            ShopService shopService,
+            AgreementSigningJobService signingJobService,
+            IdempotencyStore idempotencyStore) {
         this.customerRepository = customerRepository;
         this.customerService = customerService;
         this.equipmentRepository = equipmentRepository;
@@ -65,6 +88,8 @@ public class PublicWorkOrderController {
         this.objectStorageService = objectStorageService;
         this.signedAgreementService = signedAgreementService;
         this.shopService = shopService;
+        this.signingJobService = signingJobService;
+        this.idempotencyStore = idempotencyStore;
     }
 
     /**
@@ -174,20 +199,83 @@ public class PublicWorkOrderController {
      * 
      * Response format includes work order ID, status, and equipment with associated boots.
      * 
+     * Clients that may retry (kiosks, phones on shop Wi-Fi) should send an Idempotency-Key header.
+     * A retry with the same key and payload returns the original response (with
+     * Idempotent-Replayed: true) without creating or merging anything again. The same key with a
+     * different payload is rejected with 422, and a retry while the first request is still running
+     * gets 409.
+     * 
      * @param request CreateWorkOrderRequest with customer and equipment details
      * @return PublicWorkOrderCreationResponse with work order details, or error if daily limit exceeded
      */
     @PostMapping
     public ResponseEntity<PublicWorkOrderCreationResponse> createPublicWorkOrder(
-            @Valid @RequestBody CreateWorkOrderRequest request) {
-        
-        // Create work order with customerCreated = true (enforces daily limit)
-        WorkOrder workOrder = workOrderService.createOrMergeWorkOrder(request, true);
-        
-        // Build response with equipment options and associated boots
-        PublicWorkOrderCreationResponse response = PublicWorkOrderCreationResponse.fromWorkOrder(workOrder);
+            @Valid @RequestBody CreateWorkOrderRequest request,
+            HttpServletRequest httpRequest) {
         
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        // Shop resolved from the subdomain by ShopSubdomainResolver (may be absent)
+        Object activeShop = httpRequest.getAttribute("ACTIVE_SHOP");
+        Long shopId = activeShop instanceof Shop ? ((Shop) activeShop).getId() : null;
+
+        String idempotencyKey = httpRequest.getHeader(IDEMPOTENCY_KEY_HEADER);
+        String storeKey = null;
+        if (idempotencyKey != null && !idempotencyKey.isBlank()) {
+            if (idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+                return ResponseEntity.badRequest()
+                        .body(PublicWorkOrderCreationResponse.error("Idempotency-Key must be at most " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters"));
+            }
+            // Keys are scoped per shop so two shops cannot collide
+            storeKey = "public-workorder:" + shopId + ":" + idempotencyKey.trim();
+            IdempotencyStore.Claim claim = idempotencyStore.claim(storeKey, requestFingerprint(request));
+            switch (claim.getOutcome()) {
+                case REPLAY:
+                    return ResponseEntity.status(claim.getStatus())
+                            .header("Idempotent-Replayed", "true")
+                            .body((PublicWorkOrderCreationResponse) claim.getBody());
+                case IN_PROGRESS:
+                    return ResponseEntity.status(HttpStatus.CONFLICT)
+                            .body(PublicWorkOrderCreationResponse.error("A request with this Idempotency-Key is still being processed"));
+                case MISMATCH:
+                    return ResponseEntity.status(HttpStatus.UNPROCESSABLE_CONTENT)
+                            .body(PublicWorkOrderCreationResponse.error("Idempotency-Key was already used for a different request"));
+                default:
+                    break;
+            }
+        }
+
+        boolean completed = false;
+        try {
+            // Create work order with customerCreated = true (enforces daily limit)
+            WorkOrder workOrder = workOrderService.createOrMergeWorkOrder(request, true, shopId);
+
+            // Build response with equipment options and associated boots
+            PublicWorkOrderCreationResponse response = PublicWorkOrderCreationResponse.fromWorkOrder(workOrder);
+
+            if (storeKey != null) {
+                idempotencyStore.complete(storeKey, HttpStatus.CREATED.value(), response);
+            }
+            completed = true;
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } finally {
+            // Any failure (exception or Error) means nothing was stored for this key; let the client retry
+            if (storeKey != null && !completed) {
+                idempotencyStore.release(storeKey);
+            }
+        }
+    }
+
+    /**
+     * SHA-256 of the whole create request, used to detect Idempotency-Key reuse.
+     * The request is serialized with properties in a fixed (alphabetical) order, so every field -
+     * including ones added later - is part of the fingerprint and equal payloads hash equally.
+     */
+    private String requestFingerprint(CreateWorkOrderRequest request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(FINGERPRINT_MAPPER.writeValueAsBytes(request)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 
     /**
@@ -204,15 +292,21 @@ public class PublicWorkOrderController {
      * 5. Call SignedAgreementService workflow
      * 6. Return signed URL for PDF access
      * 
+     * With async=true, steps 5-6 are queued as a durable signing job instead: the endpoint
+     * returns 202 with an AgreementSigningJobResponse, and the client polls statusUrl
+     * until the job is COMPLETED (pdfUrl set) or FAILED.
+     * 
      * @param id Work order ID
      * @param request SignAgreementRequest with signature name, email, and phone
+     * @param async Queue the PDF work and return 202 instead of waiting for it
      * @param httpRequest HTTP request for extracting IP and User-Agent
-     * @return SignAgreementResponse with PDF URL and agreement details
+     * @return SignAgreementResponse with PDF URL and agreement details, or AgreementSigningJobResponse when async
      */
     @PostMapping("/{id}/sign-agreement")
-    public ResponseEntity<SignAgreementResponse> signAgreement(
+    public ResponseEntity<?> signAgreement(
             @PathVariable Long id,
             @Valid @RequestBody SignAgreementRequest request,
+            @RequestParam(value = "async", defaultValue = "false") boolean async,
             HttpServletRequest httpRequest) {
         
         try {
@@ -252,6 +346,18 @@ public class PublicWorkOrderController {
             // 5. Capture IP address and User-Agent
             String ipAddress = getClientIpAddress(httpRequest);
             String userAgent = httpRequest.getHeader("User-Agent");
+
+            if (async) {
+                AgreementSigningJob job = signingJobService.submit(
+                    workOrder,
+                    shop,
+                    request.getSignatureName(),
+                    ipAddress,
+                    userAgent,
+                    request.getSignatureImageBase64()
+                );
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(AgreementSigningJobResponse.fromEntity(job));
+            }
             
             // 6. Complete workflow: Load template, generate PDF, upload to R2, create agreement
                 System.out.println("[PublicWorkOrderController] Calling createSignedAgreementWorkflow for workOrderId=" + workOrder.getId());
@@ -288,6 +394,37 @@ public class PublicWorkOrderController {
         }
     }
 
+    /**
+     * Get the status of an asynchronous signing job.
+     * Once the job has COMPLETED, the response carries a signed URL for the PDF (valid for 7 days).
+     *
+     * @param id Work order ID
+     * @param jobId Signing job ID returned by sign-agreement?async=true
+     * @return AgreementSigningJobResponse, or 404 if the job does not belong to the work order
+     */
+    @GetMapping("/{id}/sign-agreement/jobs/{jobId}")
+    public ResponseEntity<AgreementSigningJobResponse> getSigningJob(
+            @PathVariable Long id,
+            @PathVariable String jobId) {
+
+        AgreementSigningJob job = signingJobService.getJob(jobId).orElse(null);
+        if (job == null || !id.equals(job.getWorkOrderId())) {
+            return ResponseEntity.notFound().build();
+        }
+
+        AgreementSigningJobResponse response = AgreementSigningJobResponse.fromEntity(job);
+        if (job.getStatus() == SigningJobStatus.COMPLETED && job.getSignedAgreementId() != null) {
+            signedAgreementService.getSignedAgreementById(job.getSignedAgreementId()).ifPresent(agreement -> {
+                response.setSignedAt(agreement.getSignedAt());
+                response.setPdfUrl(objectStorageService.generateSignedUrl(
+                        agreement.getPdfStorageKey(),
+                        Duration.ofDays(7)
+                ));
+            });
+        }
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * Extract client IP address from HTTP request.
      * Checks various headers for proxy/load balancer scenarios.
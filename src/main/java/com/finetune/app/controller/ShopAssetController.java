@@ -0,0 +1,105 @@
+package com.finetune.app.controller;
+
+import com.finetune.app.service.ObjectStore;
+import com.finetune.app.service.ShopAssetService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Serves shop assets (logos) stored in the asset ObjectStore under the "shops/" prefix.
+ *
+ * Endpoint: GET /uploads/shops/{filename}
+ *
+ * Responses carry a strong ETag and Last-Modified from ShopAssetService; If-None-Match and
+ * If-Modified-Since are answered with 304 (ServletWebRequest.checkNotModified). Fingerprinted names (content hashes) are immutable
+ * and cached for a year; other names must be revalidated.
+ *
+ * Small hot assets are written from ShopAssetService's in-memory (memory-mapped) copy. Larger
+ * local files are handed to Tomcat's sendfile support when available, so the kernel copies them
+ * to the socket; otherwise the object is streamed with ObjectStore.transferTo.
+ */
+@RestController
+public class ShopAssetController {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final String IMMUTABLE_CACHE_CONTROL =
+            CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable().getHeaderValue();
+    private static final String REVALIDATE_CACHE_CONTROL =
+            CacheControl.noCache().cachePublic().getHeaderValue();
+
+    private final ObjectStore objectStore;
+    private final ShopAssetService shopAssetService;
+
+    public ShopAssetController(ObjectStore objectStore, ShopAssetService shopAssetService) {
+        this.objectStore = objectStore;
+        this.shopAssetService = shopAssetService;
+    }
+
+    @GetMapping("/uploads/shops/{filename}")
+    public void getShopAsset(@PathVariable String filename,
+                             HttpServletRequest request,
+                             HttpServletResponse response) throws IOException {
+        if (filename.isEmpty() || filename.startsWith(".") || filename.contains("..")) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        String key = "shops/" + filename;
+        ShopAssetService.Asset asset = shopAssetService.get(key);
+        if (asset == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL,
+                asset.isFingerprinted() ? IMMUTABLE_CACHE_CONTROL : REVALIDATE_CACHE_CONTROL);
+
+        // Sets ETag and Last-Modified, and the 304 status if the client's copy is current
+        if (new ServletWebRequest(request, response).checkNotModified(asset.getEtag(), asset.getLastModified())) {
+            return;
+        }
+
+        response.setContentType(MediaTypeFactory.getMediaType(filename)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+        response.setContentLengthLong(asset.getSize());
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+
+        ByteBuffer content = asset.getContent();
+        if (content != null) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            while (content.hasRemaining()) {
+                out.write(content);
+            }
+            return;
+        }
+
+        Path file = objectStore.localPath(key);
+        if (file != null && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, asset.getSize());
+            return;
+        }
+        objectStore.transferTo(key, Channels.newChannel(response.getOutputStream()));
+    }
+}
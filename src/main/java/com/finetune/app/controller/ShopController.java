@@ -1,6 +1,8 @@
 package com.finetune.app.controller;
 
+import com.finetune.app.config.StaffPrincipalCache;
 import com.finetune.app.model.Shop;
+import com.finetune.app.service.ObjectStore;
 import com.finetune.app.service.ShopService;
 import java.util.List;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -20,21 +22,21 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.http.ResponseEntity;
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.util.UUID;
+import java.io.InputStream;
 
 @RestController
 @RequestMapping("/shops")
 public class ShopController {
    private final ShopService shopService;
+   private final StaffPrincipalCache principalCache;
+   private final ObjectStore objectStore;
 
     // Constructor injection (preferred)
-  public ShopController(ShopService shopService) {
+  public ShopController(ShopService shopService, StaffPrincipalCache principalCache, ObjectStore objectStore) {
       this.shopService = shopService;
+      this.principalCache = principalCache;
+      this.objectStore = objectStore;
   }
 
   @GetMapping()
@@ -50,18 +52,24 @@ public class ShopController {
   @PostMapping
   @ResponseStatus(HttpStatus.CREATED)
   public Shop createShop(@RequestBody Shop shop) {
-    return shopService.createShop(shop);
+    Shop created = shopService.createShop(shop);
+    principalCache.invalidateAll();
+    return created;
   }
 
   @PutMapping("/{id}")
   public Shop updateShop(@PathVariable Long id, @RequestBody Shop shop) {
-    return shopService.updateShop(id, shop);
+    Shop updated = shopService.updateShop(id, shop);
+    // Cached principals embed Shop rows (name, slug, logo) from staff_shops
+    principalCache.invalidateAll();
+    return updated;
   }
 
   @DeleteMapping("/{id}")
   @ResponseStatus(HttpStatus.NO_CONTENT)
   public void deleteShop(@PathVariable Long id) {
     shopService.deleteShop(id);
+    principalCache.invalidateAll();
   }
 
 
@@ -73,14 +81,13 @@ public class ShopController {
     try {
       String logoUrl = null;
       if (logoFile != null && !logoFile.isEmpty()) {
-        // Save logo to persistent directory
-        String uploadsDir = System.getProperty("user.dir") + File.separator + "uploads" + File.separator + "shops";
-        Files.createDirectories(Paths.get(uploadsDir));
-        String ext = logoFile.getOriginalFilename() != null && logoFile.getOriginalFilename().contains(".") ? logoFile.getOriginalFilename().substring(logoFile.getOriginalFilename().lastIndexOf('.')) : "";
-        String filename = UUID.randomUUID().toString() + ext;
-        Path filePath = Paths.get(uploadsDir, filename);
-        logoFile.transferTo(filePath);
-        logoUrl = "/uploads/shops/" + filename;
+        // Store logo by content hash (re-uploading the same image reuses the stored copy)
+        String ext = logoExtension(logoFile.getOriginalFilename());
+        String key;
+        try (InputStream in = logoFile.getInputStream()) {
+          key = objectStore.putContentAddressed(in, "shops", ext, logoFile.getContentType());
+        }
+        logoUrl = "/uploads/" + key;
       }
       // Save or update shop (assuming single shop for branding)
       Shop shop = shopService.getOrCreateMainShop();
@@ -89,6 +96,7 @@ public class ShopController {
         shop.setLogoUrl(logoUrl);
       }
       shopService.saveShop(shop);
+      principalCache.invalidateAll();
 
       // Automatically generate and save agreement template HTML with shop logo
       String defaultAgreementText = "<h2>Binding Mounting Agreement</h2>" +
@@ -119,5 +127,12 @@ public class ShopController {
       return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to upload logo: " + e.getMessage());
     }
   }
+
+  // Lower-case extension of the uploaded file name (e.g. ".png"), or "" if it has none or an odd one
+  private String logoExtension(String originalFilename) {
+    if (originalFilename == null || !originalFilename.contains(".")) return "";
+    String ext = originalFilename.substring(originalFilename.lastIndexOf('.')).toLowerCase();
+    return ext.matches("\\.[a-z0-9]{1,5}") ? ext : "";
+  }
 }
 
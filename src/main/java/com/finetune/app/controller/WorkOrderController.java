@@ -1,9 +1,13 @@
 package com.finetune.app.controller;
 
+import com.finetune.app.model.dto.BulkEquipmentStatusRequest;
+import com.finetune.app.model.dto.BulkEquipmentStatusResponse;
 import com.finetune.app.model.dto.CreateWorkOrderRequest;
 import com.finetune.app.model.dto.WorkOrderResponse;
 import com.finetune.app.model.dto.UpdateEquipmentStatusRequest;
 import com.finetune.app.model.dto.BootResponse;
+import com.finetune.app.model.dto.WorkOrderPageResponse;
+import com.finetune.app.model.dto.WorkOrderSummaryResponse;
 import com.finetune.app.model.WorkOrder;
 import com.finetune.app.model.SignedAgreement;
 import com.finetune.app.repository.sql.WorkOrderSqlRepository;
@@ -11,25 +15,33 @@ import com.finetune.app.repository.sql.CustomerSqlRepository;
 import com.finetune.app.service.WorkOrderService;
 import com.finetune.app.service.SignedAgreementService;
 import com.finetune.app.service.ObjectStorageService;
+import com.finetune.app.service.WorkOrderChangeFeed;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 /**
  * WorkOrderController handles all WorkOrder-related API endpoints.
@@ -68,36 +80,213 @@ public class WorkOrderController {
     @Autowired
     private ObjectStorageService objectStorageService;
 
+    @Autowired
+    private WorkOrderChangeFeed changeFeed;
+
+    /** Default and maximum page sizes for GET /workorders/page. */
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+
+    /** Maximum number of work orders returned by the unpaged GET /workorders. */
+    private static final int MAX_LEGACY_LIST_SIZE = 500;
+
+    /** Maximum number of customerId values per GET /workorders/completed/page request. */
+    private static final int MAX_HISTORY_CUSTOMER_IDS = 200;
+
+    /** Maximum number of work orders per GET /workorders/agreement-urls request. */
+    private static final int MAX_AGREEMENT_URL_IDS = 200;
+
     /**
-     * Get all work orders, optionally filtered by status.
+     * Get the active shop's work orders, optionally filtered by status.
      * Returns WorkOrderResponse DTOs to avoid circular references.
+     *
+     * Kept for older clients: the list is capped at MAX_LEGACY_LIST_SIZE rows (oldest first). If
+     * more exist, the X-Next-Cursor header carries a cursor for GET /workorders/page to continue
+     * from. New clients should use GET /workorders/page directly.
      * 
      * @param status optional status filter (e.g., "RECEIVED", "IN_PROGRESS", "READY_FOR_PICKUP", "COMPLETED")
      *               Note: "COMPLETED" will return both "COMPLETED" and "PICKED_UP" work orders
-     * @return list of work orders, filtered by status if provided
+     * @return list of work orders, filtered by status if provided,
+     *         or 409 SHOP_NOT_SELECTED if no active shop is attached to the request
      */
     @GetMapping
-    public List<WorkOrderResponse> getAllWorkOrders(@RequestParam(value = "status", required = false) String status) {
-        List<WorkOrder> workOrders;
-        
+    public ResponseEntity<?> getAllWorkOrders(
+            @RequestParam(value = "status", required = false) String status,
+            HttpServletRequest request) {
+
+        Object activeShop = request.getAttribute("ACTIVE_SHOP");
+        if (!(activeShop instanceof com.finetune.app.model.Shop)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("SHOP_NOT_SELECTED");
+        }
+        Long shopId = ((com.finetune.app.model.Shop) activeShop).getId();
+
+        List<String> statuses = null;
         if (status != null && !status.trim().isEmpty()) {
             String statusFilter = status.trim();
-            
-            if ("COMPLETED".equals(statusFilter)) {
-                // For "COMPLETED" tab, show both COMPLETED and PICKED_UP work orders
-                workOrders = workOrderRepository.findByStatusInOrderByCreatedAtAsc(List.of("COMPLETED", "PICKED_UP"));
-            } else {
-                // Filter by specific status
-                workOrders = workOrderRepository.findByStatusOrderByCreatedAtAsc(statusFilter);
+            // For "COMPLETED" tab, show both COMPLETED and PICKED_UP work orders
+            statuses = "COMPLETED".equals(statusFilter) ? List.of("COMPLETED", "PICKED_UP") : List.of(statusFilter);
+        }
+
+        // Fetch one extra row to know whether the list was cut off
+        List<WorkOrder> rows = workOrderRepository.findPageByShopId(shopId, statuses, null, null, null, MAX_LEGACY_LIST_SIZE + 1);
+        boolean truncated = rows.size() > MAX_LEGACY_LIST_SIZE;
+        List<WorkOrder> workOrders = truncated ? rows.subList(0, MAX_LEGACY_LIST_SIZE) : rows;
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (truncated) {
+            WorkOrder last = workOrders.get(workOrders.size() - 1);
+            response.header("X-Next-Cursor", WorkOrderPageResponse.encodeCursor(last.getCreatedAt(), last.getId()));
+        }
+        return response.body(workOrders.stream()
+            .map(WorkOrderResponse::fromEntity)
+            .collect(Collectors.toList()));
+    }
+
+    /**
+     * Get one page of the active shop's work orders, optionally filtered by status.
+     * Uses keyset (cursor) pagination on (createdAt, id) so every page, including the
+     * first, costs the same regardless of how much history exists.
+     *
+     * Endpoint: GET /workorders/page
+     * Query Params:
+     * - status (optional): one or more statuses (repeat or comma-separate); same semantics as
+     *   GET /workorders ("COMPLETED" includes "PICKED_UP")
+     * - serviceType (optional): only work orders with at least one item of this service type
+     * - cursor (optional): nextCursor from the previous page
+     * - limit (optional): page size, default 50, capped at 200
+     *
+     * @return WorkOrderPageResponse with items and nextCursor (null on the last page),
+     *         or 409 SHOP_NOT_SELECTED if no active shop is attached to the request
+     */
+    @GetMapping("/page")
+    public ResponseEntity<?> getWorkOrderPage(
+            @RequestParam(value = "status", required = false) List<String> status,
+            @RequestParam(value = "serviceType", required = false) String serviceType,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            HttpServletRequest request) {
+
+        Object activeShop = request.getAttribute("ACTIVE_SHOP");
+        if (!(activeShop instanceof com.finetune.app.model.Shop)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("SHOP_NOT_SELECTED");
+        }
+        Long shopId = ((com.finetune.app.model.Shop) activeShop).getId();
+
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        List<String> statuses = new java.util.ArrayList<>();
+        if (status != null) {
+            for (String value : status) {
+                String statusFilter = value.trim();
+                if (statusFilter.isEmpty() || statuses.contains(statusFilter)) continue;
+                statuses.add(statusFilter);
+                if ("COMPLETED".equals(statusFilter) && !statuses.contains("PICKED_UP")) {
+                    statuses.add("PICKED_UP");
+                }
             }
-        } else {
-            // Return all work orders
-            workOrders = workOrderRepository.findAllOrderByCreatedAtAsc();
         }
-        
-        return workOrders.stream()
+
+        LocalDateTime afterCreatedAt = null;
+        Long afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                Object[] position = WorkOrderPageResponse.decodeCursor(cursor);
+                afterCreatedAt = (LocalDateTime) position[0];
+                afterId = (Long) position[1];
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
+        }
+
+        // Fetch one extra row to know whether another page exists
+        List<WorkOrder> rows = workOrderRepository.findPageByShopId(shopId, statuses, serviceType, afterCreatedAt, afterId, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        List<WorkOrder> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            WorkOrder last = page.get(page.size() - 1);
+            nextCursor = WorkOrderPageResponse.encodeCursor(last.getCreatedAt(), last.getId());
+        }
+
+        List<WorkOrderResponse> items = page.stream()
             .map(WorkOrderResponse::fromEntity)
             .collect(Collectors.toList());
+        return ResponseEntity.ok(new WorkOrderPageResponse(items, nextCursor));
+    }
+
+    /**
+     * Get compact board cards for the active shop's work orders, optionally filtered by status.
+     * Each card has status, customer name, promised-by date, equipment counts per status and open
+     * item counts per service type, produced by one SQL projection instead of loading full work
+     * order graphs. Without a status only active work orders are returned; completed history is
+     * paged through GET /workorders/page.
+     *
+     * Endpoint: GET /workorders/board
+     * Query Params:
+     * - status (optional): same semantics as GET /workorders ("COMPLETED" includes "PICKED_UP");
+     *   default: every status except COMPLETED and PICKED_UP
+     *
+     * @return list of WorkOrderSummaryResponse, or 409 SHOP_NOT_SELECTED if no active shop is attached
+     */
+    @GetMapping("/board")
+    public ResponseEntity<?> getBoard(
+            @RequestParam(value = "status", required = false) String status,
+            HttpServletRequest request) {
+
+        Object activeShop = request.getAttribute("ACTIVE_SHOP");
+        if (!(activeShop instanceof com.finetune.app.model.Shop)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("SHOP_NOT_SELECTED");
+        }
+        Long shopId = ((com.finetune.app.model.Shop) activeShop).getId();
+
+        List<String> statuses = null;
+        if (status != null && !status.trim().isEmpty()) {
+            String statusFilter = status.trim();
+            statuses = "COMPLETED".equals(statusFilter) ? List.of("COMPLETED", "PICKED_UP") : List.of(statusFilter);
+        }
+
+        List<WorkOrderSummaryResponse> cards = workOrderRepository.findBoardSummariesByShopId(shopId, statuses);
+        return ResponseEntity.ok(cards);
+    }
+
+    /**
+     * Stream changes to the active shop's work orders as server-sent events.
+     * Each "workorder" event carries a WorkOrderChangeEvent (JSON) and its id. On reconnect the
+     * browser sends Last-Event-ID and missed events are replayed; a "reset" event means they are
+     * no longer available and the board should be reloaded once.
+     *
+     * Endpoint: GET /workorders/changes
+     * Query Params:
+     * - lastEventId (optional): resume point for clients that cannot set the Last-Event-ID header
+     *
+     * @return text/event-stream, or 409 (empty body) if no active shop is attached
+     */
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamChanges(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+            @RequestParam(value = "lastEventId", required = false) String lastEventIdParam,
+            HttpServletRequest request) {
+
+        Object activeShop = request.getAttribute("ACTIVE_SHOP");
+        if (!(activeShop instanceof com.finetune.app.model.Shop)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        Long shopId = ((com.finetune.app.model.Shop) activeShop).getId();
+
+        String raw = lastEventIdHeader != null && !lastEventIdHeader.isBlank() ? lastEventIdHeader : lastEventIdParam;
+        Long lastEventId = null;
+        if (raw != null && !raw.isBlank()) {
+            try {
+                lastEventId = Long.parseLong(raw.trim());
+            } catch (NumberFormatException e) {
+                // Unknown id: treat as a fresh connection
+                lastEventId = null;
+            }
+        }
+
+        SseEmitter emitter = changeFeed.subscribe(shopId, lastEventId);
+        return ResponseEntity.ok().header("X-Accel-Buffering", "no").body(emitter);
     }
 
     /**
@@ -121,14 +310,17 @@ public class WorkOrderController {
      */
     @PostMapping
     public ResponseEntity<WorkOrderResponse> createWorkOrder(
-            @Valid @RequestBody CreateWorkOrderRequest request) {
+            @Valid @RequestBody CreateWorkOrderRequest request,
+            HttpServletRequest httpRequest) {
 
         // Delegate to service which handles:
         // - Customer lookup/creation
         // - Open work order detection
         // - Merging items into existing orders
         // - Creating new orders when needed
-        WorkOrder workOrder = workOrderService.createOrMergeWorkOrder(request);
+        Object activeShop = httpRequest.getAttribute("ACTIVE_SHOP");
+        Long shopId = activeShop instanceof com.finetune.app.model.Shop ? ((com.finetune.app.model.Shop) activeShop).getId() : null;
+        WorkOrder workOrder = workOrderService.createOrMergeWorkOrder(request, false, shopId);
 
         return ResponseEntity.status(HttpStatus.CREATED)
             .body(WorkOrderResponse.fromEntity(workOrder));
@@ -231,6 +423,23 @@ public class WorkOrderController {
         return ResponseEntity.ok(WorkOrderResponse.fromEntity(workOrder));
     }
 
+    /**
+     * Update the status of many equipment items, across any number of work orders, in one request.
+     *
+     * Each item follows the same transition rules as the single-item endpoint. Invalid items are
+     * reported in the per-item results and skipped; valid ones are applied together and each
+     * affected work order's status is recalculated once.
+     *
+     * @param request List of (workOrderId, equipmentId, status) changes
+     * @return Per-item results and the resulting work order statuses
+     */
+    @PatchMapping("/equipment/status")
+    public ResponseEntity<BulkEquipmentStatusResponse> updateEquipmentStatuses(
+            @Valid @RequestBody BulkEquipmentStatusRequest request) {
+
+        return ResponseEntity.ok(workOrderService.updateEquipmentStatuses(request.getItems()));
+    }
+
     /**
      * Update the promisedBy (due date) for a work order.
      * 
@@ -243,18 +452,9 @@ public class WorkOrderController {
             @PathVariable Long id,
             @RequestBody java.util.Map<String, Object> request) {
         
-        WorkOrder workOrder = workOrderRepository.findById(id)
-            .orElseThrow(() -> new RuntimeException("Work order not found"));
-        
-        // Handle promisedBy update (can be null to clear the date)
-        Object promisedByValue = request.get("promisedBy");
-        if (promisedByValue == null) {
-            workOrder.setPromisedBy(null);
-        } else {
-            workOrder.setPromisedBy(java.time.LocalDate.parse(promisedByValue.toString()));
-        }
-        
-        workOrderRepository.save(workOrder);
+        // promisedBy is always applied (a missing or null value clears the date)
+        WorkOrder workOrder = workOrderService.updateWorkOrderFields(id,
+            java.util.Collections.singletonMap("promisedBy", request.get("promisedBy")));
         return ResponseEntity.ok(WorkOrderResponse.fromEntity(workOrder));
     }
 
@@ -271,26 +471,7 @@ public class WorkOrderController {
             @PathVariable Long id,
             @RequestBody java.util.Map<String, Object> request) {
         
-        WorkOrder workOrder = workOrderRepository.findById(id)
-            .orElseThrow(() -> new RuntimeException("Work order not found"));
-        
-        // Handle notes update
-        if (request.containsKey("notes")) {
-            Object notesValue = request.get("notes");
-            workOrder.setNotes(notesValue != null ? notesValue.toString() : null);
-        }
-        
-        // Handle promisedBy update (can be null to clear the date)
-        if (request.containsKey("promisedBy")) {
-            Object promisedByValue = request.get("promisedBy");
-            if (promisedByValue == null) {
-                workOrder.setPromisedBy(null);
-            } else {
-                workOrder.setPromisedBy(java.time.LocalDate.parse(promisedByValue.toString()));
-            }
-        }
-        
-        workOrderRepository.save(workOrder);
+        WorkOrder workOrder = workOrderService.updateWorkOrderFields(id, request);
         return ResponseEntity.ok(WorkOrderResponse.fromEntity(workOrder));
     }
 
@@ -312,36 +493,7 @@ public class WorkOrderController {
      */
     @PostMapping("/{id}/confirm-intake")
     public ResponseEntity<WorkOrderResponse> confirmIntake(@PathVariable Long id) {
-        WorkOrder workOrder = workOrderRepository.findById(id)
-            .orElseThrow(() -> new IllegalArgumentException("Work order not found: " + id));
-        
-        // Validate work order is in CUSTOMER_SUBMITTED status
-        if (!"CUSTOMER_SUBMITTED".equals(workOrder.getStatus())) {
-            throw new IllegalArgumentException(
-                "Work order must be in CUSTOMER_SUBMITTED status. Current status: " + workOrder.getStatus()
-            );
-        }
-        
-        // Validate promisedBy date is set
-        if (workOrder.getPromisedBy() == null) {
-            throw new IllegalStateException(
-                "Cannot activate work order without a promised date. Please set a due date first."
-            );
-        }
-        
-        // Update equipment service history
-        java.time.LocalDate today = java.time.LocalDate.now();
-        if (workOrder.getEquipment() != null) {
-            workOrder.getEquipment().forEach(equipment -> {
-                equipment.setLastServicedDate(today);
-                equipment.setLastServiceType(equipment.getServiceType());
-            });
-        }
-        
-        // Transition to RECEIVED status (entering normal workflow)
-        workOrder.setStatus("RECEIVED");
-        workOrderRepository.save(workOrder);
-        
+        WorkOrder workOrder = workOrderService.confirmIntake(id);
         return ResponseEntity.ok(WorkOrderResponse.fromEntity(workOrder));
     }
 
@@ -362,25 +514,113 @@ public class WorkOrderController {
     }
 
     /**
-     * Get all completed work orders, optionally filtered by service type.
-     * Returns work orders with status COMPLETED, sorted by completion date (most recent first).
+     * Get the active shop's completed work orders, optionally filtered by service type.
+     * Returns work orders with status COMPLETED or PICKED_UP, sorted by completion date (most recent first).
+     * 
+     * Kept for older clients: this is the first page of GET /workorders/completed/page, capped at
+     * MAX_LEGACY_LIST_SIZE rows. If more exist, the X-Next-Cursor header carries a cursor for
+     * GET /workorders/completed/page to continue from.
      * 
      * Endpoint: GET /workorders/completed
      * Query Params:
      * - serviceType (optional): Filter by equipment service type (e.g., "TUNE", "WAX", "EDGE", "BASE_REPAIR")
      * 
      * @param serviceType optional service type filter
-     * @return list of completed work orders as WorkOrderResponse DTOs
+     * @return list of completed work orders as WorkOrderResponse DTOs,
+     *         or 409 SHOP_NOT_SELECTED if no active shop is attached to the request
      */
     @GetMapping("/completed")
-    public List<WorkOrderResponse> getCompletedWorkOrders(
-            @RequestParam(value = "serviceType", required = false) String serviceType) {
-        
-        List<WorkOrder> completedWorkOrders = workOrderService.getCompletedWorkOrders(serviceType);
-        
-        return completedWorkOrders.stream()
+    public ResponseEntity<?> getCompletedWorkOrders(
+            @RequestParam(value = "serviceType", required = false) String serviceType,
+            HttpServletRequest request) {
+
+        Object activeShop = request.getAttribute("ACTIVE_SHOP");
+        if (!(activeShop instanceof com.finetune.app.model.Shop)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("SHOP_NOT_SELECTED");
+        }
+        Long shopId = ((com.finetune.app.model.Shop) activeShop).getId();
+
+        // Fetch one extra row to know whether the list was cut off
+        List<WorkOrder> rows = workOrderService.getCompletedHistoryPage(
+            shopId, serviceType, null, null, null, null, null, MAX_LEGACY_LIST_SIZE + 1);
+        boolean truncated = rows.size() > MAX_LEGACY_LIST_SIZE;
+        List<WorkOrder> completedWorkOrders = truncated ? rows.subList(0, MAX_LEGACY_LIST_SIZE) : rows;
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (truncated) {
+            WorkOrder last = completedWorkOrders.get(completedWorkOrders.size() - 1);
+            response.header("X-Next-Cursor", WorkOrderPageResponse.encodeCursor(last.getCompletedDate(), last.getId()));
+        }
+        return response.body(completedWorkOrders.stream()
+            .map(WorkOrderResponse::fromEntity)
+            .collect(Collectors.toList()));
+    }
+
+    /**
+     * Get one page of the active shop's completed history (COMPLETED and PICKED_UP), newest first.
+     * Filters are evaluated in SQL and pages use a keyset cursor on (completedDate, id), so the
+     * cost of a page does not grow with the size of the history.
+     * 
+     * Endpoint: GET /workorders/completed/page
+     * Query Params:
+     * - serviceType (optional): equipment service type (e.g., "TUNE", "WAX", "MOUNT")
+     * - from, to (optional): completion date range, inclusive (yyyy-MM-dd)
+     * - customerId (optional): only these customers' work orders (repeat or comma-separate, at most 200)
+     * - cursor (optional): nextCursor from the previous page
+     * - limit (optional): page size, default 50, capped at 200
+     * 
+     * @return WorkOrderPageResponse with items and nextCursor (null on the last page),
+     *         or 409 SHOP_NOT_SELECTED if no active shop is attached to the request
+     */
+    @GetMapping("/completed/page")
+    public ResponseEntity<?> getCompletedWorkOrderPage(
+            @RequestParam(value = "serviceType", required = false) String serviceType,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "customerId", required = false) List<Long> customerIds,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            HttpServletRequest request) {
+
+        Object activeShop = request.getAttribute("ACTIVE_SHOP");
+        if (!(activeShop instanceof com.finetune.app.model.Shop)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("SHOP_NOT_SELECTED");
+        }
+        Long shopId = ((com.finetune.app.model.Shop) activeShop).getId();
+
+        if (customerIds != null && customerIds.size() > MAX_HISTORY_CUSTOMER_IDS) {
+            return ResponseEntity.badRequest().body("Too many customerId values (max " + MAX_HISTORY_CUSTOMER_IDS + ")");
+        }
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        LocalDateTime beforeCompletedDate = null;
+        Long beforeId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                Object[] position = WorkOrderPageResponse.decodeCursor(cursor);
+                beforeCompletedDate = (LocalDateTime) position[0];
+                beforeId = (Long) position[1];
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
+        }
+
+        // Fetch one extra row to know whether another page exists
+        List<WorkOrder> rows = workOrderService.getCompletedHistoryPage(
+            shopId, serviceType, from, to, customerIds, beforeCompletedDate, beforeId, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        List<WorkOrder> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            WorkOrder last = page.get(page.size() - 1);
+            nextCursor = WorkOrderPageResponse.encodeCursor(last.getCompletedDate(), last.getId());
+        }
+
+        List<WorkOrderResponse> items = page.stream()
             .map(WorkOrderResponse::fromEntity)
             .collect(Collectors.toList());
+        return ResponseEntity.ok(new WorkOrderPageResponse(items, nextCursor));
     }
 
     /**
@@ -407,4 +647,38 @@ public class WorkOrderController {
         
         return ResponseEntity.ok(Map.of("url", signedUrl));
     }
+
+    /**
+     * Get signed agreement URLs for several work orders in one request (e.g. a board or history page).
+     * Agreements are looked up in one query and URLs come from the presigned URL cache.
+     * 
+     * Endpoint: GET /workorders/agreement-urls?ids=1,2,3
+     * 
+     * @param ids Work Order IDs (at most 200)
+     * @return JSON object of work order ID -> signed URL; work orders without an agreement or
+     *         outside the active shop are omitted. 409 SHOP_NOT_SELECTED if no active shop is
+     *         attached to the request
+     */
+    @GetMapping("/agreement-urls")
+    public ResponseEntity<?> getAgreementUrls(@RequestParam("ids") List<Long> ids, HttpServletRequest request) {
+        Object activeShop = request.getAttribute("ACTIVE_SHOP");
+        if (!(activeShop instanceof com.finetune.app.model.Shop)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("SHOP_NOT_SELECTED");
+        }
+        if (ids.size() > MAX_AGREEMENT_URL_IDS) {
+            return ResponseEntity.badRequest().build();
+        }
+        Long shopId = ((com.finetune.app.model.Shop) activeShop).getId();
+        java.util.Set<Long> shopIds = workOrderRepository.findIdsByShopIdIn(shopId, ids);
+        Map<Long, SignedAgreement> agreements = signedAgreementService.findByWorkOrderIds(shopIds);
+
+        Map<Long, String> urls = new java.util.LinkedHashMap<>();
+        for (Long id : ids) {
+            SignedAgreement agreement = agreements.get(id);
+            if (agreement != null && !urls.containsKey(id)) {
+                urls.put(id, objectStorageService.generateSignedUrl(agreement.getStorageKey()));
+            }
+        }
+        return ResponseEntity.ok(urls);
+    }
 }
@@ -20,4 +20,9 @@ public class GlobalExceptionHandler {
         PublicWorkOrderCreationResponse errorResponse = PublicWorkOrderCreationResponse.error(ex.getMessage());
         return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(errorResponse);
     }
+
+    @ExceptionHandler(OptimisticLockConflictException.class)
+    public ResponseEntity<ErrorResponse> handle(OptimisticLockConflictException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(new ErrorResponse(ex.getMessage()));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.finetune.app.exception;
+
+/**
+ * Thrown when a conditional (version-checked) write finds that the row was changed by someone
+ * else since it was read. WorkOrderService retries such operations from fresh reads; if the
+ * conflict persists it is returned to the client as 409 Conflict.
+ */
+public class OptimisticLockConflictException extends RuntimeException {
+
+    public OptimisticLockConflictException(String message) {
+        super(message);
+    }
+
+    public OptimisticLockConflictException(String entity, Long id) {
+        super(entity + " " + id + " was modified by another request. Please reload and try again.");
+    }
+}
@@ -0,0 +1,157 @@
+package com.finetune.app.model;
+
+import com.finetune.app.model.enums.SigningJobStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * A queued request to render, upload and persist a signed agreement for a work order.
+ * Rows live in agreement_signing_jobs so pending work survives a restart.
+ */
+public class AgreementSigningJob {
+
+    private String id;
+
+    private Long workOrderId;
+
+    private Long shopId;
+
+    private String signatureName;
+
+    private String signatureIp;
+
+    private String signatureUserAgent;
+
+    private String signatureImageBase64;
+
+    private SigningJobStatus status;
+
+    private int attempts;
+
+    private LocalDateTime nextAttemptAt;
+
+    private String lastError;
+
+    private String signedAgreementId;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public AgreementSigningJob() {
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public Long getWorkOrderId() {
+        return workOrderId;
+    }
+
+    public void setWorkOrderId(Long workOrderId) {
+        this.workOrderId = workOrderId;
+    }
+
+    public Long getShopId() {
+        return shopId;
+    }
+
+    public void setShopId(Long shopId) {
+        this.shopId = shopId;
+    }
+
+    public String getSignatureName() {
+        return signatureName;
+    }
+
+    public void setSignatureName(String signatureName) {
+        this.signatureName = signatureName;
+    }
+
+    public String getSignatureIp() {
+        return signatureIp;
+    }
+
+    public void setSignatureIp(String signatureIp) {
+        this.signatureIp = signatureIp;
+    }
+
+    public String getSignatureUserAgent() {
+        return signatureUserAgent;
+    }
+
+    public void setSignatureUserAgent(String signatureUserAgent) {
+        this.signatureUserAgent = signatureUserAgent;
+    }
+
+    public String getSignatureImageBase64() {
+        return signatureImageBase64;
+    }
+
+    public void setSignatureImageBase64(String signatureImageBase64) {
+        this.signatureImageBase64 = signatureImageBase64;
+    }
+
+    public SigningJobStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(SigningJobStatus status) {
+        this.status = status;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public String getSignedAgreementId() {
+        return signedAgreementId;
+    }
+
+    public void setSignedAgreementId(String signedAgreementId) {
+        this.signedAgreementId = signedAgreementId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -69,6 +69,13 @@ public class Equipment {
     // Tracks the last work order this equipment was attached to (helps auditing/history)
     private Long lastWorkOrderId;
 
+    // Row version for optimistic concurrency; every update is conditional on it and increments it
+    private long version;
+
+    // Column values as last read from / written to the database; null until persisted.
+    // Used by isDirty() so callers only write rows that actually changed.
+    private java.util.List<Object> persistedState;
+
     // Constructor
     public Equipment() {
         this.status = "PENDING";
@@ -285,6 +292,35 @@ public class Equipment {
         this.lastServiceType = lastServiceType;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    /**
+     * Record the current column values as the persisted state.
+     * Called by EquipmentSqlRepository after a row is loaded, inserted or updated.
+     */
+    public void markPersisted() {
+        this.persistedState = columnState();
+    }
+
+    /**
+     * True if this equipment has never been persisted or any column value changed since markPersisted().
+     */
+    public boolean isDirty() {
+        return id == null || persistedState == null || !persistedState.equals(columnState());
+    }
+
+    private java.util.List<Object> columnState() {
+        return java.util.Arrays.asList(type, brand, model, length, serviceType, condition, bindingBrand, bindingModel,
+            heightInches, weight, age, abilityLevel, getBootId(), status, lastServicedDate, lastServiceType,
+            lastWorkOrderId, getCustomerId());
+    }
+
     /**
      * equals() and hashCode() implementation for collection membership checks.
      * 
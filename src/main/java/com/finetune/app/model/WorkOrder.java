@@ -19,6 +19,8 @@ public class WorkOrder {
 
     private Customer customer;
 
+    private Long shopId;
+
     private String status;
 
     private LocalDateTime createdAt;
@@ -31,6 +33,18 @@ public class WorkOrder {
 
     private String notes;
 
+    // Row version for optimistic concurrency; every update is conditional on it and increments it
+    private long version;
+
+    // Per-status item counters stored on the row, kept in step with item transitions
+    private int pendingCount;
+
+    private int inProgressCount;
+
+    private int doneCount;
+
+    private int pickedUpCount;
+
     private List<Equipment> equipment = new ArrayList<>();
 
     private List<WorkOrderNote> notesList = new ArrayList<>();
@@ -76,16 +90,33 @@ public class WorkOrder {
      * even if item statuses would normally trigger READY_FOR_PICKUP.
      */
     public void updateStatusBasedOnItems() {
-        if (this.equipment.isEmpty()) {
+        int pending = 0, inProgress = 0, done = 0, pickedUp = 0;
+        for (Equipment item : this.equipment) {
+            String itemStatus = item.getStatus();
+            if ("PENDING".equals(itemStatus)) pending++;
+            else if ("IN_PROGRESS".equals(itemStatus)) inProgress++;
+            else if ("DONE".equals(itemStatus)) done++;
+            else if ("PICKED_UP".equals(itemStatus)) pickedUp++;
+        }
+        applyItemStatusRules(this.equipment.size(), inProgress, done, pickedUp);
+    }
+
+    /**
+     * Same rules as updateStatusBasedOnItems, evaluated from the per-status item counters stored on
+     * the work order row, so no equipment has to be loaded.
+     */
+    public void updateStatusFromItemCounts() {
+        applyItemStatusRules(getItemCount(), inProgressCount, doneCount, pickedUpCount);
+    }
+
+    private void applyItemStatusRules(int total, int inProgress, int done, int pickedUp) {
+        if (total == 0) {
             this.status = WorkOrderStatus.RECEIVED.name();
             return;
         }
 
         // Rule: COMPLETED when all items are PICKED_UP
-        boolean allPickedUp = this.equipment.stream()
-            .allMatch(item -> "PICKED_UP".equals(item.getStatus()));
-        
-        if (allPickedUp) {
+        if (pickedUp == total) {
             this.status = WorkOrderStatus.COMPLETED.name();
             return;
         }
@@ -108,19 +139,13 @@ public class WorkOrder {
         }
 
         // Rule: READY_FOR_PICKUP when all items are DONE (and not yet notified)
-        boolean allDone = this.equipment.stream()
-            .allMatch(item -> "DONE".equals(item.getStatus()));
-        
-        if (allDone) {
+        if (done == total) {
             this.status = WorkOrderStatus.READY_FOR_PICKUP.name();
             return;
         }
 
         // Rule: IN_PROGRESS when at least one item is IN_PROGRESS
-        boolean anyInProgress = this.equipment.stream()
-            .anyMatch(item -> "IN_PROGRESS".equals(item.getStatus()));
-        
-        if (anyInProgress) {
+        if (inProgress > 0) {
             this.status = WorkOrderStatus.IN_PROGRESS.name();
             return;
         }
@@ -129,6 +154,13 @@ public class WorkOrder {
         this.status = WorkOrderStatus.RECEIVED.name();
     }
 
+    /**
+     * Number of items on this work order according to the stored counters.
+     */
+    public int getItemCount() {
+        return pendingCount + inProgressCount + doneCount + pickedUpCount;
+    }
+
     public Long getId() {
         return id;
     }
@@ -145,6 +177,14 @@ public class WorkOrder {
         this.customer = customer;
     }
 
+    public Long getShopId() {
+        return shopId;
+    }
+
+    public void setShopId(Long shopId) {
+        this.shopId = shopId;
+    }
+
     public String getStatus() {
         return status;
     }
@@ -197,6 +237,46 @@ public class WorkOrder {
         return notes;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public int getPendingCount() {
+        return pendingCount;
+    }
+
+    public void setPendingCount(int pendingCount) {
+        this.pendingCount = pendingCount;
+    }
+
+    public int getInProgressCount() {
+        return inProgressCount;
+    }
+
+    public void setInProgressCount(int inProgressCount) {
+        this.inProgressCount = inProgressCount;
+    }
+
+    public int getDoneCount() {
+        return doneCount;
+    }
+
+    public void setDoneCount(int doneCount) {
+        this.doneCount = doneCount;
+    }
+
+    public int getPickedUpCount() {
+        return pickedUpCount;
+    }
+
+    public void setPickedUpCount(int pickedUpCount) {
+        this.pickedUpCount = pickedUpCount;
+    }
+
     public void setNotes(String notes) {
         this.notes = notes;
     }
@@ -0,0 +1,110 @@
+package com.finetune.app.model.dto;
+
+import com.finetune.app.model.AgreementSigningJob;
+
+import java.time.LocalDateTime;
+
+/**
+ * Response DTO for an asynchronous agreement signing job.
+ * pdfUrl, agreementId and signedAt are only set once the job has COMPLETED.
+ */
+public class AgreementSigningJobResponse {
+
+    private String jobId;
+    private Long workOrderId;
+    private String status;
+    private int attempts;
+    private String error;
+    private String statusUrl;
+    private String agreementId;
+    private String pdfUrl;
+    private LocalDateTime signedAt;
+
+    public AgreementSigningJobResponse() {
+    }
+
+    public static AgreementSigningJobResponse fromEntity(AgreementSigningJob job) {
+        AgreementSigningJobResponse response = new AgreementSigningJobResponse();
+        response.jobId = job.getId();
+        response.workOrderId = job.getWorkOrderId();
+        response.status = job.getStatus() != null ? job.getStatus().name() : null;
+        response.attempts = job.getAttempts();
+        response.error = job.getLastError();
+        response.agreementId = job.getSignedAgreementId();
+        response.statusUrl = "/api/public/workorders/" + job.getWorkOrderId() + "/sign-agreement/jobs/" + job.getId();
+        return response;
+    }
+
+    // Getters and Setters
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public Long getWorkOrderId() {
+        return workOrderId;
+    }
+
+    public void setWorkOrderId(Long workOrderId) {
+        this.workOrderId = workOrderId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public String getStatusUrl() {
+        return statusUrl;
+    }
+
+    public void setStatusUrl(String statusUrl) {
+        this.statusUrl = statusUrl;
+    }
+
+    public String getAgreementId() {
+        return agreementId;
+    }
+
+    public void setAgreementId(String agreementId) {
+        this.agreementId = agreementId;
+    }
+
+    public String getPdfUrl() {
+        return pdfUrl;
+    }
+
+    public void setPdfUrl(String pdfUrl) {
+        this.pdfUrl = pdfUrl;
+    }
+
+    public LocalDateTime getSignedAt() {
+        return signedAt;
+    }
+
+    public void setSignedAt(LocalDateTime signedAt) {
+        this.signedAt = signedAt;
+    }
+}
@@ -0,0 +1,87 @@
+package com.finetune.app.model.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Request body for changing the status of many equipment items at once.
+ * Used by PATCH /workorders/equipment/status endpoint.
+ *
+ * Same rules as UpdateEquipmentStatusRequest for each item - PICKED_UP cannot be set manually.
+ */
+public class BulkEquipmentStatusRequest {
+
+    @NotEmpty(message = "At least one item is required")
+    @Size(max = 500, message = "At most 500 items per request")
+    @Valid
+    private List<Item> items;
+
+    /**
+     * One (workOrderId, equipmentId, status) change.
+     */
+    public static class Item {
+
+        @NotNull(message = "workOrderId is required")
+        private Long workOrderId;
+
+        @NotNull(message = "equipmentId is required")
+        private Long equipmentId;
+
+        @NotBlank(message = "Status is required")
+        @Pattern(
+            regexp = "PENDING|IN_PROGRESS|DONE",
+            message = "Status must be PENDING, IN_PROGRESS, or DONE. PICKED_UP can only be set via pickup workflow."
+        )
+        private String status;
+
+        public Item() {
+        }
+
+        public Item(Long workOrderId, Long equipmentId, String status) {
+            this.workOrderId = workOrderId;
+            this.equipmentId = equipmentId;
+            this.status = status;
+        }
+
+        public Long getWorkOrderId() {
+            return workOrderId;
+        }
+
+        public void setWorkOrderId(Long workOrderId) {
+            this.workOrderId = workOrderId;
+        }
+
+        public Long getEquipmentId() {
+            return equipmentId;
+        }
+
+        public void setEquipmentId(Long equipmentId) {
+            this.equipmentId = equipmentId;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public void setStatus(String status) {
+            this.status = status;
+        }
+    }
+
+    public BulkEquipmentStatusRequest() {
+    }
+
+    public List<Item> getItems() {
+        return items;
+    }
+
+    public void setItems(List<Item> items) {
+        this.items = items;
+    }
+}
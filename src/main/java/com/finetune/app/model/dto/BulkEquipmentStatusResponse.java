@@ -0,0 +1,125 @@
+package com.finetune.app.model.dto;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Response for PATCH /workorders/equipment/status.
+ * One result per requested item (in request order) plus the resulting status of every work
+ * order that had at least one item changed.
+ */
+public class BulkEquipmentStatusResponse {
+
+    private List<ItemResult> results = new ArrayList<>();
+    private Map<Long, String> workOrderStatuses = new LinkedHashMap<>();
+    private int updatedCount;
+    private int failedCount;
+
+    /**
+     * Outcome for one requested change. error is set when success is false.
+     */
+    public static class ItemResult {
+        private Long workOrderId;
+        private Long equipmentId;
+        private String status;
+        private boolean success;
+        private String error;
+
+        public ItemResult() {
+        }
+
+        public ItemResult(Long workOrderId, Long equipmentId, String status, boolean success, String error) {
+            this.workOrderId = workOrderId;
+            this.equipmentId = equipmentId;
+            this.status = status;
+            this.success = success;
+            this.error = error;
+        }
+
+        public Long getWorkOrderId() {
+            return workOrderId;
+        }
+
+        public void setWorkOrderId(Long workOrderId) {
+            this.workOrderId = workOrderId;
+        }
+
+        public Long getEquipmentId() {
+            return equipmentId;
+        }
+
+        public void setEquipmentId(Long equipmentId) {
+            this.equipmentId = equipmentId;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public void setStatus(String status) {
+            this.status = status;
+        }
+
+        public boolean isSuccess() {
+            return success;
+        }
+
+        public void setSuccess(boolean success) {
+            this.success = success;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public void setError(String error) {
+            this.error = error;
+        }
+    }
+
+    public BulkEquipmentStatusResponse() {
+    }
+
+    public void addResult(ItemResult result) {
+        results.add(result);
+        if (result.isSuccess()) {
+            updatedCount++;
+        } else {
+            failedCount++;
+        }
+    }
+
+    public List<ItemResult> getResults() {
+        return results;
+    }
+
+    public void setResults(List<ItemResult> results) {
+        this.results = results;
+    }
+
+    public Map<Long, String> getWorkOrderStatuses() {
+        return workOrderStatuses;
+    }
+
+    public void setWorkOrderStatuses(Map<Long, String> workOrderStatuses) {
+        this.workOrderStatuses = workOrderStatuses;
+    }
+
+    public int getUpdatedCount() {
+        return updatedCount;
+    }
+
+    public void setUpdatedCount(int updatedCount) {
+        this.updatedCount = updatedCount;
+    }
+
+    public int getFailedCount() {
+        return failedCount;
+    }
+
+    public void setFailedCount(int failedCount) {
+        this.failedCount = failedCount;
+    }
+}
@@ -0,0 +1,90 @@
+package com.finetune.app.model.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Compact change notification pushed to staff dashboards over the work order change feed.
+ * Carries just enough for a client to update or refetch one card (e.g. via GET /workorders/board).
+ *
+ * Types: CREATED, MERGED, EQUIPMENT_STATUS, CUSTOMER_NOTIFIED, PICKED_UP
+ */
+public class WorkOrderChangeEvent {
+
+    private long id;
+    private String type;
+    private Long workOrderId;
+    private String status;
+    private Long equipmentId;
+    private String equipmentStatus;
+    private LocalDateTime at;
+
+    public WorkOrderChangeEvent() {}
+
+    public WorkOrderChangeEvent(long id, String type, Long workOrderId, String status,
+                                Long equipmentId, String equipmentStatus, LocalDateTime at) {
+        this.id = id;
+        this.type = type;
+        this.workOrderId = workOrderId;
+        this.status = status;
+        this.equipmentId = equipmentId;
+        this.equipmentStatus = equipmentStatus;
+        this.at = at;
+    }
+
+    // Getters and Setters
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Long getWorkOrderId() {
+        return workOrderId;
+    }
+
+    public void setWorkOrderId(Long workOrderId) {
+        this.workOrderId = workOrderId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Long getEquipmentId() {
+        return equipmentId;
+    }
+
+    public void setEquipmentId(Long equipmentId) {
+        this.equipmentId = equipmentId;
+    }
+
+    public String getEquipmentStatus() {
+        return equipmentStatus;
+    }
+
+    public void setEquipmentStatus(String equipmentStatus) {
+        this.equipmentStatus = equipmentStatus;
+    }
+
+    public LocalDateTime getAt() {
+        return at;
+    }
+
+    public void setAt(LocalDateTime at) {
+        this.at = at;
+    }
+}
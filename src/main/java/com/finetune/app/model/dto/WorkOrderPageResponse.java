@@ -0,0 +1,86 @@
+package com.finetune.app.model.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * DTO for one keyset page of work orders.
+ *
+ * The cursor is opaque to clients: it encodes the (createdAt, id) of the last
+ * row on the page - or (completedDate, id) for completed history pages - and is
+ * passed back unchanged to fetch the next page.
+ * nextCursor is null when there are no more rows.
+ */
+public class WorkOrderPageResponse {
+
+    private List<WorkOrderResponse> items;
+    private String nextCursor;
+    private boolean hasMore;
+
+    public WorkOrderPageResponse() {}
+
+    public WorkOrderPageResponse(List<WorkOrderResponse> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = nextCursor != null;
+    }
+
+    /**
+     * Encode a (createdAt, id) keyset position as an opaque URL-safe cursor.
+     *
+     * @throws IllegalStateException if either part is null - a null cursor would tell the client
+     *         there are no more rows, so a row without a sort key must fail instead of ending paging
+     */
+    public static String encodeCursor(LocalDateTime createdAt, Long id) {
+        if (createdAt == null || id == null) {
+            throw new IllegalStateException("Cannot build a page cursor for work order " + id + " without a sort timestamp");
+        }
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor produced by encodeCursor.
+     *
+     * @return two-element array {LocalDateTime createdAt, Long id}
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static Object[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.lastIndexOf('|');
+            LocalDateTime createdAt = LocalDateTime.parse(raw.substring(0, sep));
+            Long id = Long.parseLong(raw.substring(sep + 1));
+            return new Object[] { createdAt, id };
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    // Getters and Setters
+    public List<WorkOrderResponse> getItems() {
+        return items;
+    }
+
+    public void setItems(List<WorkOrderResponse> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
@@ -0,0 +1,142 @@
+package com.finetune.app.model.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Compact work order card for the kanban board.
+ * Only what the board renders: status, customer name, promised-by date, equipment counts
+ * per status and open (PENDING/IN_PROGRESS) item counts per service type. Filled directly from a SQL projection (no Equipment/Boot/Note objects are loaded).
+ */
+public class WorkOrderSummaryResponse {
+
+    private Long id;
+    private String status;
+    private LocalDateTime createdAt;
+    private LocalDate promisedBy;
+    private Long customerId;
+    private String customerName;
+    private int equipmentCount;
+    private int pendingCount;
+    private int inProgressCount;
+    private int doneCount;
+    private int pickedUpCount;
+    private int openTuneCount;
+    private int openMountCount;
+    private int openRepairCount;
+
+    public WorkOrderSummaryResponse() {}
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDate getPromisedBy() {
+        return promisedBy;
+    }
+
+    public void setPromisedBy(LocalDate promisedBy) {
+        this.promisedBy = promisedBy;
+    }
+
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(Long customerId) {
+        this.customerId = customerId;
+    }
+
+    public String getCustomerName() {
+        return customerName;
+    }
+
+    public void setCustomerName(String customerName) {
+        this.customerName = customerName;
+    }
+
+    public int getEquipmentCount() {
+        return equipmentCount;
+    }
+
+    public void setEquipmentCount(int equipmentCount) {
+        this.equipmentCount = equipmentCount;
+    }
+
+    public int getPendingCount() {
+        return pendingCount;
+    }
+
+    public void setPendingCount(int pendingCount) {
+        this.pendingCount = pendingCount;
+    }
+
+    public int getInProgressCount() {
+        return inProgressCount;
+    }
+
+    public void setInProgressCount(int inProgressCount) {
+        this.inProgressCount = inProgressCount;
+    }
+
+    public int getDoneCount() {
+        return doneCount;
+    }
+
+    public void setDoneCount(int doneCount) {
+        this.doneCount = doneCount;
+    }
+
+    public int getPickedUpCount() {
+        return pickedUpCount;
+    }
+
+    public void setPickedUpCount(int pickedUpCount) {
+        this.pickedUpCount = pickedUpCount;
+    }
+
+    public int getOpenTuneCount() {
+        return openTuneCount;
+    }
+
+    public void setOpenTuneCount(int openTuneCount) {
+        this.openTuneCount = openTuneCount;
+    }
+
+    public int getOpenMountCount() {
+        return openMountCount;
+    }
+
+    public void setOpenMountCount(int openMountCount) {
+        this.openMountCount = openMountCount;
+    }
+
+    public int getOpenRepairCount() {
+        return openRepairCount;
+    }
+
+    public void setOpenRepairCount(int openRepairCount) {
+        this.openRepairCount = openRepairCount;
+    }
+}
@@ -0,0 +1,31 @@
+package com.finetune.app.model.enums;
+
+/**
+ * Enum defining the lifecycle of an asynchronous agreement signing job.
+ *
+ * Status progression:
+ * PENDING → RUNNING → COMPLETED
+ *                   ↘ PENDING (transient failure, retried with backoff)
+ *                   ↘ FAILED (permanent failure or retries exhausted)
+ */
+public enum SigningJobStatus {
+    /**
+     * Waiting for a worker; also used between retries.
+     */
+    PENDING,
+
+    /**
+     * Claimed by a worker that is rendering/uploading the PDF.
+     */
+    RUNNING,
+
+    /**
+     * Signed agreement persisted; the PDF URL can be presigned.
+     */
+    COMPLETED,
+
+    /**
+     * Gave up; last_error explains why.
+     */
+    FAILED
+}
@@ -0,0 +1,128 @@
+package com.finetune.app.repository.sql;
+
+import com.finetune.app.model.AgreementSigningJob;
+import com.finetune.app.model.enums.SigningJobStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public class AgreementSigningJobSqlRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    public AgreementSigningJobSqlRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    private final RowMapper<AgreementSigningJob> jobRowMapper = (rs, rowNum) -> {
+        AgreementSigningJob job = new AgreementSigningJob();
+        job.setId(rs.getString("id"));
+        job.setWorkOrderId(rs.getLong("work_order_id"));
+        try {
+            Object shopId = rs.getObject("shop_id");
+            job.setShopId(shopId != null ? ((Number) shopId).longValue() : null);
+        } catch (Exception ignore) {}
+        job.setSignatureName(rs.getString("signature_name"));
+        job.setSignatureIp(rs.getString("signature_ip"));
+        job.setSignatureUserAgent(rs.getString("signature_user_agent"));
+        job.setSignatureImageBase64(rs.getString("signature_image_base64"));
+        job.setStatus(SigningJobStatus.valueOf(rs.getString("status")));
+        job.setAttempts(rs.getInt("attempts"));
+        Timestamp next = rs.getTimestamp("next_attempt_at");
+        job.setNextAttemptAt(next != null ? next.toLocalDateTime() : null);
+        job.setLastError(rs.getString("last_error"));
+        job.setSignedAgreementId(rs.getString("signed_agreement_id"));
+        Timestamp created = rs.getTimestamp("created_at");
+        job.setCreatedAt(created != null ? created.toLocalDateTime() : null);
+        Timestamp updated = rs.getTimestamp("updated_at");
+        job.setUpdatedAt(updated != null ? updated.toLocalDateTime() : null);
+        return job;
+    };
+
+    public AgreementSigningJob insert(AgreementSigningJob job) {
+        jdbcTemplate.update(
+            "INSERT INTO agreement_signing_jobs (id, work_order_id, shop_id, signature_name, signature_ip, signature_user_agent, signature_image_base64, status, attempts, next_attempt_at, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+            job.getId(),
+            job.getWorkOrderId(),
+            job.getShopId(),
+            job.getSignatureName(),
+            job.getSignatureIp(),
+            job.getSignatureUserAgent(),
+            job.getSignatureImageBase64(),
+            job.getStatus().name(),
+            job.getAttempts(),
+            job.getNextAttemptAt(),
+            job.getCreatedAt()
+        );
+        return job;
+    }
+
+    public Optional<AgreementSigningJob> findById(String id) {
+        List<AgreementSigningJob> jobs = jdbcTemplate.query("SELECT * FROM agreement_signing_jobs WHERE id = ?", jobRowMapper, id);
+        return jobs.isEmpty() ? Optional.empty() : Optional.of(jobs.get(0));
+    }
+
+    /**
+     * Most recent PENDING or RUNNING job for a work order, if any.
+     */
+    public Optional<AgreementSigningJob> findActiveByWorkOrderId(Long workOrderId) {
+        List<AgreementSigningJob> jobs = jdbcTemplate.query(
+            "SELECT * FROM agreement_signing_jobs WHERE work_order_id = ? AND status IN ('PENDING', 'RUNNING') ORDER BY created_at DESC LIMIT 1",
+            jobRowMapper, workOrderId);
+        return jobs.isEmpty() ? Optional.empty() : Optional.of(jobs.get(0));
+    }
+
+    /**
+     * Ids of PENDING jobs whose next attempt is due, oldest first.
+     */
+    public List<String> findDueIds(LocalDateTime now, int limit) {
+        return jdbcTemplate.queryForList(
+            "SELECT id FROM agreement_signing_jobs WHERE status = 'PENDING' AND next_attempt_at <= ? ORDER BY next_attempt_at ASC LIMIT ?",
+            String.class, now, limit);
+    }
+
+    /**
+     * Atomically move a job from PENDING to RUNNING. Returns false if another worker already claimed it.
+     */
+    public boolean claim(String id) {
+        int updated = jdbcTemplate.update(
+            "UPDATE agreement_signing_jobs SET status = 'RUNNING', attempts = attempts + 1 WHERE id = ? AND status = 'PENDING'",
+            id);
+        return updated == 1;
+    }
+
+    public void markCompleted(String id, String signedAgreementId) {
+        jdbcTemplate.update(
+            "UPDATE agreement_signing_jobs SET status = 'COMPLETED', signed_agreement_id = ?, last_error = NULL, signature_image_base64 = NULL WHERE id = ?",
+            signedAgreementId, id);
+    }
+
+    public void markRetry(String id, LocalDateTime nextAttemptAt, String error) {
+        jdbcTemplate.update(
+            "UPDATE agreement_signing_jobs SET status = 'PENDING', next_attempt_at = ?, last_error = ? WHERE id = ?",
+            nextAttemptAt, truncate(error), id);
+    }
+
+    public void markFailed(String id, String error) {
+        jdbcTemplate.update(
+            "UPDATE agreement_signing_jobs SET status = 'FAILED', last_error = ? WHERE id = ?",
+            truncate(error), id);
+    }
+
+    /**
+     * Return jobs interrupted by a shutdown/crash to the queue. Called once at startup.
+     */
+    public int requeueRunning() {
+        return jdbcTemplate.update("UPDATE agreement_signing_jobs SET status = 'PENDING' WHERE status = 'RUNNING'");
+    }
+
+    private String truncate(String error) {
+        if (error == null) return null;
+        return error.length() > 1000 ? error.substring(0, 1000) : error;
+    }
+}
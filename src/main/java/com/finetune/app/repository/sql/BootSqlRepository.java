@@ -47,6 +47,36 @@ public class BootSqlRepository {
         List<Boot> boots = jdbcTemplate.query("SELECT * FROM boots WHERE id = ?", bootRowMapper, id);
         return boots.stream().findFirst();
     }
+    /**
+     * Loads, in a single query, every boot owned by one of the given customers
+     * plus any boot referenced directly by id (e.g. equipment.boot_id).
+     * Large id sets are split into chunks of SqlInClause.CHUNK_SIZE; the i-th query combines the
+     * i-th chunk of each list, and boots matched by more than one chunk are returned once.
+     */
+    public List<Boot> findByCustomerIdInOrIdIn(java.util.Collection<Long> customerIds, java.util.Collection<Long> ids) {
+        List<List<Long>> customerChunks = SqlInClause.chunks(customerIds);
+        List<List<Long>> idChunks = SqlInClause.chunks(ids);
+        java.util.Map<Long, Boot> byId = new java.util.LinkedHashMap<>();
+        for (int i = 0; i < Math.max(customerChunks.size(), idChunks.size()); i++) {
+            List<Long> customerChunk = i < customerChunks.size() ? customerChunks.get(i) : List.of();
+            List<Long> idChunk = i < idChunks.size() ? idChunks.get(i) : List.of();
+            StringBuilder sql = new StringBuilder("SELECT * FROM boots WHERE ");
+            java.util.List<Object> params = new java.util.ArrayList<>();
+            if (!customerChunk.isEmpty()) {
+                sql.append("customer_id IN (").append(SqlInClause.placeholders(customerChunk.size())).append(")");
+                params.addAll(customerChunk);
+            }
+            if (!idChunk.isEmpty()) {
+                if (!customerChunk.isEmpty()) sql.append(" OR ");
+                sql.append("id IN (").append(SqlInClause.placeholders(idChunk.size())).append(")");
+                params.addAll(idChunk);
+            }
+            for (Boot b : jdbcTemplate.query(sql.toString(), bootRowMapper, params.toArray())) {
+                byId.putIfAbsent(b.getId(), b);
+            }
+        }
+        return new java.util.ArrayList<>(byId.values());
+    }
     public int save(Boot boot) {
             if (boot.getId() == null) {
                 return jdbcTemplate.update(
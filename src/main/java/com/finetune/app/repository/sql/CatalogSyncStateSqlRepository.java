@@ -0,0 +1,41 @@
+package com.finetune.app.repository.sql;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Content hashes of catalog resources already synced into the database (catalog_sync_state).
+ */
+@Repository
+public class CatalogSyncStateSqlRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    public CatalogSyncStateSqlRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Optional<String> findContentHash(String source) {
+        try {
+            List<String> hashes = jdbcTemplate.queryForList(
+                "SELECT content_hash FROM catalog_sync_state WHERE source = ?", String.class, source);
+            return hashes.stream().findFirst();
+        } catch (org.springframework.dao.DataAccessException ex) {
+            // Table might not exist yet; treat as never synced
+            System.err.println("CatalogSyncStateSqlRepository: failed to read catalog_sync_state table: " + ex.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    public void saveContentHash(String source, String contentHash) {
+        try {
+            jdbcTemplate.update(
+                "INSERT INTO catalog_sync_state (source, content_hash) VALUES (?, ?) ON DUPLICATE KEY UPDATE content_hash = VALUES(content_hash)",
+                source, contentHash);
+        } catch (org.springframework.dao.DataAccessException ex) {
+            System.err.println("CatalogSyncStateSqlRepository: failed to write catalog_sync_state table: " + ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package com.finetune.app.repository.sql;
+
+import com.finetune.app.model.Customer;
+import com.finetune.app.util.PhoneNumberUtils;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory search index over customer names, emails and phones, used for typeahead.
+ *
+ * Every searchable value is lowercased (phones are reduced to digits with PhoneNumberUtils) and
+ * indexed two ways:
+ * - trigrams, so any substring of 3+ characters is found by intersecting posting sets
+ * - 1 and 2 character prefixes of each word, for the first keystrokes
+ * Candidates from the postings are then verified against the stored values and ranked:
+ * exact match, then prefix of a word, then substring; ties by last name, first name, id.
+ * Phone searches (Field.PHONE) only match from the start of the number - exact or prefix -
+ * as the SQL lookup they replace did; substrings of a phone only match through Field.ANY.
+ *
+ * The index is loaded once at startup and kept current by CustomerSqlRepository.save, which
+ * applies each change only once its transaction commits (upsertAfterCommit), so a rolled-back
+ * insert never shows up in search results.
+ * Until it is loaded, isReady() is false and callers fall back to SQL.
+ */
+@Component
+public class CustomerSearchIndex {
+
+    public enum Field { NAME, EMAIL, PHONE, ANY }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+    private volatile boolean ready = false;
+
+    /**
+     * Indexed snapshot of one customer row.
+     */
+    private static final class Entry {
+        final Long id;
+        final String firstName;
+        final String lastName;
+        final String email;
+        final String phone;
+        // Normalized searchable values
+        final String name;
+        final String emailKey;
+        final String phoneKey;
+
+        Entry(Long id, String firstName, String lastName, String email, String phone) {
+            this.id = id;
+            this.firstName = firstName;
+            this.lastName = lastName;
+            this.email = email;
+            this.phone = phone;
+            this.name = normalize(((firstName != null ? firstName : "") + " " + (lastName != null ? lastName : "")).trim());
+            this.emailKey = normalize(email);
+            this.phoneKey = phone != null ? normalize(PhoneNumberUtils.normalize(phone)) : "";
+        }
+
+        String valueFor(Field field) {
+            switch (field) {
+                case NAME: return name;
+                case EMAIL: return emailKey;
+                case PHONE: return phoneKey;
+                default: return null;
+            }
+        }
+    }
+
+    private static final class Hit {
+        final Entry entry;
+        final int rank;
+
+        Hit(Entry entry, int rank) {
+            this.entry = entry;
+            this.rank = rank;
+        }
+    }
+
+    public CustomerSearchIndex(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Load all customers into the index.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        try {
+            List<Entry> loaded = jdbcTemplate.query(
+                "SELECT id, firstName, lastName, email, phone FROM customers",
+                (rs, rowNum) -> new Entry(rs.getLong("id"), rs.getString("firstName"), rs.getString("lastName"),
+                        rs.getString("email"), rs.getString("phone")));
+            synchronized (this) {
+                entries.clear();
+                postings.clear();
+                for (Entry e : loaded) {
+                    add(e);
+                }
+                ready = true;
+            }
+            System.out.println("[CustomerSearchIndex] Indexed " + loaded.size() + " customers");
+        } catch (Exception e) {
+            System.err.println("[CustomerSearchIndex] Failed to build index: " + e.getMessage());
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Add or replace a customer in the index. Called after every insert/update.
+     */
+    public synchronized void upsert(Customer customer) {
+        if (customer == null || customer.getId() == null) return;
+        Entry previous = entries.get(customer.getId());
+        if (previous != null) {
+            remove(previous);
+        }
+        add(new Entry(customer.getId(), customer.getFirstName(), customer.getLastName(),
+                customer.getEmail(), customer.getPhone()));
+    }
+
+    /**
+     * Upsert once the current transaction commits, or right away if there is no transaction.
+     * Nothing is indexed if the transaction rolls back.
+     */
+    public void upsertAfterCommit(Customer customer) {
+        if (customer == null || customer.getId() == null) return;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    upsert(customer);
+                }
+            });
+        } else {
+            upsert(customer);
+        }
+    }
+
+    public synchronized void remove(Long customerId) {
+        Entry previous = entries.get(customerId);
+        if (previous != null) {
+            remove(previous);
+        }
+    }
+
+    /**
+     * Ranked ids of customers whose field contains the query.
+     */
+    public List<Long> searchIds(String query, Field field, int limit) {
+        List<Long> ids = new ArrayList<>();
+        for (Hit hit : search(query, field, limit)) {
+            ids.add(hit.entry.id);
+        }
+        return ids;
+    }
+
+    /**
+     * Ranked customers (basic fields only, no boots or work orders) whose field contains the query.
+     */
+    public List<Customer> searchCustomers(String query, Field field, int limit) {
+        List<Customer> customers = new ArrayList<>();
+        for (Hit hit : search(query, field, limit)) {
+            Customer c = new Customer();
+            c.setId(hit.entry.id);
+            c.setFirstName(hit.entry.firstName);
+            c.setLastName(hit.entry.lastName);
+            c.setEmail(hit.entry.email);
+            c.setPhone(hit.entry.phone);
+            customers.add(c);
+        }
+        return customers;
+    }
+
+    private List<Hit> search(String query, Field field, int limit) {
+        String q = field == Field.PHONE ? normalize(PhoneNumberUtils.normalize(query)) : normalize(query);
+        if (q.isEmpty()) return List.of();
+
+        Set<Long> candidates = candidates(q);
+        if (candidates == null || candidates.isEmpty()) return List.of();
+
+        List<Hit> hits = new ArrayList<>();
+        for (Long id : candidates) {
+            Entry e = entries.get(id);
+            if (e == null) continue;
+            int rank;
+            if (field == Field.ANY) {
+                rank = Math.min(rank(e.name, q), Math.min(rank(e.emailKey, q), rank(e.phoneKey, q)));
+            } else if (field == Field.PHONE) {
+                rank = e.phoneKey.startsWith(q) ? rank(e.phoneKey, q) : Integer.MAX_VALUE;
+            } else {
+                rank = rank(e.valueFor(field), q);
+            }
+            if (rank < Integer.MAX_VALUE) {
+                hits.add(new Hit(e, rank));
+            }
+        }
+        hits.sort(Comparator.<Hit>comparingInt(h -> h.rank)
+                .thenComparing(h -> h.entry.lastName != null ? h.entry.lastName.toLowerCase() : "")
+                .thenComparing(h -> h.entry.firstName != null ? h.entry.firstName.toLowerCase() : "")
+                .thenComparing(h -> h.entry.id));
+        return limit > 0 && hits.size() > limit ? hits.subList(0, limit) : hits;
+    }
+
+    /**
+     * Superset of matching ids from the postings; null if some gram has no postings.
+     */
+    private Set<Long> candidates(String q) {
+        if (q.length() < 3) {
+            Set<Long> ids = postings.get("^" + q);
+            return ids != null ? new HashSet<>(ids) : null;
+        }
+        List<Set<Long>> sets = new ArrayList<>();
+        for (String gram : trigrams(q)) {
+            Set<Long> ids = postings.get(gram);
+            if (ids == null) return null;
+            sets.add(ids);
+        }
+        sets.sort(Comparator.comparingInt(Set::size));
+        Set<Long> result = new HashSet<>(sets.get(0));
+        for (int i = 1; i < sets.size() && !result.isEmpty(); i++) {
+            result.retainAll(sets.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * 0 = exact, 1 = prefix of the value or of one of its words, 2 = substring, MAX = no match.
+     */
+    private static int rank(String value, String q) {
+        if (value == null || value.isEmpty()) return Integer.MAX_VALUE;
+        if (value.equals(q)) return 0;
+        int idx = value.indexOf(q);
+        if (idx < 0) return Integer.MAX_VALUE;
+        if (idx == 0 || !Character.isLetterOrDigit(value.charAt(idx - 1))) return 1;
+        return 2;
+    }
+
+    private void add(Entry e) {
+        entries.put(e.id, e);
+        for (String key : keys(e)) {
+            postings.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(e.id);
+        }
+    }
+
+    private void remove(Entry e) {
+        entries.remove(e.id);
+        for (String key : keys(e)) {
+            Set<Long> ids = postings.get(key);
+            if (ids != null) {
+                ids.remove(e.id);
+                if (ids.isEmpty()) postings.remove(key);
+            }
+        }
+    }
+
+    private static Set<String> keys(Entry e) {
+        Set<String> keys = new HashSet<>();
+        for (String value : new String[] { e.name, e.emailKey, e.phoneKey }) {
+            if (value == null || value.isEmpty()) continue;
+            keys.addAll(trigrams(value));
+            // Short prefixes of the value and of each word ("^" marks prefix keys)
+            for (String word : value.split("[^\\p{L}\\p{N}]+")) {
+                if (!word.isEmpty()) addPrefixes(keys, word);
+            }
+            addPrefixes(keys, value);
+        }
+        return keys;
+    }
+
+    private static void addPrefixes(Set<String> keys, String word) {
+        keys.add("^" + word.substring(0, 1));
+        if (word.length() >= 2) keys.add("^" + word.substring(0, 2));
+    }
+
+    private static List<String> trigrams(String value) {
+        List<String> grams = new ArrayList<>();
+        for (int i = 0; i + 3 <= value.length(); i++) {
+            grams.add(value.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase().replaceAll("\\s+", " ");
+    }
+}
@@ -3,6 +3,7 @@ package com.finetune.app.repository.sql;
 
 import com.finetune.app.model.Customer;
 import com.finetune.app.model.Boot;
+import com.finetune.app.model.dto.CustomerResponseDTO;
 import com.finetune.app.repository.sql.BootSqlRepository;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
@@ -14,10 +15,12 @@ import java.util.Optional;
 public class CustomerSqlRepository {
     private final JdbcTemplate jdbcTemplate;
     private final BootSqlRepository bootRepository;
+    private final CustomerSearchIndex searchIndex;
 
-    public CustomerSqlRepository(JdbcTemplate jdbcTemplate, BootSqlRepository bootRepository) {
+    public CustomerSqlRepository(JdbcTemplate jdbcTemplate, BootSqlRepository bootRepository, CustomerSearchIndex searchIndex) {
         this.jdbcTemplate = jdbcTemplate;
         this.bootRepository = bootRepository;
+        this.searchIndex = searchIndex;
     }
 
     private final RowMapper<Customer> customerRowMapper = (rs, rowNum) -> {
@@ -37,6 +40,95 @@ public class CustomerSqlRepository {
         return jdbcTemplate.query("SELECT * FROM customers", customerRowMapper);
     }
 
+    /**
+     * Sortable fields for findPageWithCounts, mapped from API name to SQL expression.
+     */
+    private static final java.util.Map<String, String> SUMMARY_SORT_COLUMNS = java.util.Map.of(
+        "id", "c.id",
+        "firstName", "c.firstName",
+        "lastName", "c.lastName",
+        "email", "c.email",
+        "workOrderCount", "work_order_count",
+        "equipmentCount", "equipment_count",
+        "bootCount", "boot_count"
+    );
+
+    public static boolean isSummarySortField(String sort) {
+        return SUMMARY_SORT_COLUMNS.containsKey(sort);
+    }
+
+    private final RowMapper<CustomerResponseDTO> customerSummaryRowMapper = (rs, rowNum) -> {
+        CustomerResponseDTO dto = new CustomerResponseDTO();
+        dto.setId(rs.getLong("id"));
+        dto.setFirstName(rs.getString("firstName"));
+        dto.setLastName(rs.getString("lastName"));
+        dto.setEmail(rs.getString("email"));
+        dto.setPhone(rs.getString("phone"));
+        dto.setWorkOrderCount(rs.getInt("work_order_count"));
+        dto.setEquipmentCount(rs.getInt("equipment_count"));
+        dto.setBootCount(rs.getInt("boot_count"));
+        return dto;
+    };
+
+    /**
+     * One page of customers with their work order, equipment and boot counts, computed in SQL.
+     * Counts are correlated subqueries on the indexed customer_id columns, so only the rows on
+     * the page are counted when sorting by a customer column.
+     *
+     * @param query optional filter: substring of the full name or phone (null/blank = all customers)
+     * @param sort field name (see SUMMARY_SORT_COLUMNS); unknown values sort by id
+     * @param limit page size
+     * @param offset rows to skip
+     */
+    public List<CustomerResponseDTO> findPageWithCounts(String query, String sort, boolean ascending, int limit, long offset) {
+        String orderColumn = SUMMARY_SORT_COLUMNS.getOrDefault(sort, "c.id");
+        String direction = ascending ? "ASC" : "DESC";
+        java.util.List<Object> params = new java.util.ArrayList<>();
+        StringBuilder sql = new StringBuilder(
+            "SELECT c.id, c.firstName, c.lastName, c.email, c.phone, " +
+            "(SELECT COUNT(*) FROM work_orders wo WHERE wo.customer_id = c.id) AS work_order_count, " +
+            "(SELECT COUNT(*) FROM equipment e WHERE e.customer_id = c.id) AS equipment_count, " +
+            "(SELECT COUNT(*) FROM boots b WHERE b.customer_id = c.id) AS boot_count " +
+            "FROM customers c");
+        appendSummaryFilter(sql, params, query);
+        sql.append(" ORDER BY ").append(orderColumn).append(' ').append(direction);
+        if (!"c.id".equals(orderColumn)) {
+            // Stable order across pages
+            sql.append(", c.id ").append(direction);
+        }
+        sql.append(" LIMIT ? OFFSET ?");
+        params.add(limit);
+        params.add(offset);
+        return jdbcTemplate.query(sql.toString(), customerSummaryRowMapper, params.toArray());
+    }
+
+    /**
+     * Number of customers matching the findPageWithCounts filter.
+     */
+    public long countMatching(String query) {
+        java.util.List<Object> params = new java.util.ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM customers c");
+        appendSummaryFilter(sql, params, query);
+        Long count = jdbcTemplate.queryForObject(sql.toString(), Long.class, params.toArray());
+        return count != null ? count : 0L;
+    }
+
+    private static void appendSummaryFilter(StringBuilder sql, java.util.List<Object> params, String query) {
+        if (query == null || query.trim().isEmpty()) {
+            return;
+        }
+        String term = query.trim().toLowerCase();
+        // Phones are stored normalized to digits, so "(555) 12" should match on "55512"
+        String phoneDigits = term.replaceAll("[^0-9]", "");
+        sql.append(" WHERE LOWER(CONCAT_WS(' ', c.firstName, c.lastName)) LIKE ? OR c.phone LIKE ?");
+        params.add(containsPattern(term));
+        params.add(containsPattern(phoneDigits.isEmpty() ? term : phoneDigits));
+    }
+
+    private static String containsPattern(String term) {
+        return "%" + term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+
     public Customer save(Customer customer) {
         if (customer.getId() == null) {
             // Insert new customer
@@ -52,7 +144,9 @@ public class CustomerSqlRepository {
             );
             // Retrieve inserted customer (assume unique email/phone)
             List<Customer> inserted = findByEmailOrPhone(customer.getEmail(), customer.getPhone());
-            return inserted.isEmpty() ? customer : inserted.get(0);
+            Customer saved = inserted.isEmpty() ? customer : inserted.get(0);
+            searchIndex.upsertAfterCommit(saved);
+            return saved;
         } else {
             // Update existing customer
             jdbcTemplate.update(
@@ -66,6 +160,7 @@ public class CustomerSqlRepository {
                 (customer.getSkiAbilityLevel() != null ? customer.getSkiAbilityLevel().name() : null),
                 customer.getId()
             );
+            searchIndex.upsertAfterCommit(customer);
             return customer;
         }
     }
@@ -83,6 +178,37 @@ public class CustomerSqlRepository {
         return opt;
     }
 
+    /**
+     * Batch lookup by id. Boots are NOT loaded here; callers that need them
+     * should fetch boots for the same id set in one query (see WorkOrderGraphLoader).
+     * Large id sets are queried in chunks of SqlInClause.CHUNK_SIZE.
+     */
+    public List<Customer> findByIdIn(java.util.Collection<Long> ids) {
+        List<Customer> customers = new java.util.ArrayList<>();
+        for (List<Long> chunk : SqlInClause.chunks(ids)) {
+            customers.addAll(jdbcTemplate.query(
+                "SELECT * FROM customers WHERE id IN (" + SqlInClause.placeholders(chunk.size()) + ")",
+                customerRowMapper, chunk.toArray()));
+        }
+        return customers;
+    }
+
+    /**
+     * findByIdIn, returned in the order of the given ids (e.g. search rank).
+     */
+    private List<Customer> findByIdInOrdered(List<Long> ids) {
+        java.util.Map<Long, Customer> byId = new java.util.HashMap<>();
+        for (Customer c : findByIdIn(ids)) {
+            byId.put(c.getId(), c);
+        }
+        List<Customer> ordered = new java.util.ArrayList<>();
+        for (Long id : ids) {
+            Customer c = byId.get(id);
+            if (c != null) ordered.add(c);
+        }
+        return ordered;
+    }
+
     public Optional<Customer> findByEmail(String email) {
         List<Customer> customers = jdbcTemplate.query("SELECT * FROM customers WHERE email = ?", customerRowMapper, email);
         return customers.stream().findFirst();
@@ -93,6 +219,9 @@ public class CustomerSqlRepository {
     }
 
     public List<Customer> findByEmailContainingIgnoreCase(String email) {
+        if (searchIndex.isReady()) {
+            return findByIdInOrdered(searchIndex.searchIds(email, CustomerSearchIndex.Field.EMAIL, 0));
+        }
         return jdbcTemplate.query("SELECT * FROM customers WHERE LOWER(email) LIKE LOWER(?)", customerRowMapper, "%" + email + "%");
     }
 
@@ -101,6 +230,9 @@ public class CustomerSqlRepository {
     }
 
     public List<Customer> findByNameContaining(String name) {
+        if (searchIndex.isReady()) {
+            return findByIdInOrdered(searchIndex.searchIds(name, CustomerSearchIndex.Field.NAME, 0));
+        }
         return jdbcTemplate.query("SELECT * FROM customers WHERE LOWER(firstName) LIKE LOWER(?) OR LOWER(lastName) LIKE LOWER(?)", customerRowMapper, "%" + name + "%", "%" + name + "%");
     }
     public Optional<Customer> findByEmailAndPhone(String email, String phone) {
@@ -1,5 +1,6 @@
 package com.finetune.app.repository.sql;
 
+import com.finetune.app.exception.OptimisticLockConflictException;
 import com.finetune.app.model.Equipment;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
@@ -62,6 +63,8 @@ public class EquipmentSqlRepository {
         e.setLastServicedDate(rs.getDate("last_serviced_date"));
         e.setLastServiceType(rs.getString("last_service_type"));
         e.setCustomerId(rs.getLong("customer_id"));
+        e.setVersion(rs.getLong("version"));
+        e.markPersisted();
         return e;
     };
 
@@ -79,49 +82,283 @@ public class EquipmentSqlRepository {
         String sql = "SELECT e.* FROM equipment e JOIN work_order_items woi ON woi.equipment_id = e.id WHERE woi.work_order_id = ? ORDER BY e.id ASC";
         return jdbcTemplate.query(sql, equipmentRowMapper, workOrderId);
     }
+
+    /**
+     * Batch variant of findByWorkOrderId: loads equipment for many work orders in one
+     * join against work_order_items and groups it by work order id (ordered by e.id).
+     * Large id sets are queried in chunks of SqlInClause.CHUNK_SIZE.
+     */
+    public java.util.Map<Long, List<Equipment>> findByWorkOrderIdIn(java.util.Collection<Long> workOrderIds) {
+        java.util.Map<Long, List<Equipment>> byWorkOrder = new java.util.HashMap<>();
+        for (List<Long> chunk : SqlInClause.chunks(workOrderIds)) {
+            String sql = "SELECT e.*, woi.work_order_id AS woi_work_order_id FROM equipment e JOIN work_order_items woi ON woi.equipment_id = e.id WHERE woi.work_order_id IN (" + SqlInClause.placeholders(chunk.size()) + ") ORDER BY e.id ASC";
+            jdbcTemplate.query(sql, rs -> {
+                Equipment e = equipmentRowMapper.mapRow(rs, 0);
+                byWorkOrder.computeIfAbsent(rs.getLong("woi_work_order_id"), k -> new java.util.ArrayList<>()).add(e);
+            }, chunk.toArray());
+        }
+        return byWorkOrder;
+    }
+    /**
+     * One item status change, from the status the caller validated against to the new status.
+     */
+    public static class StatusTransition {
+        private final Long equipmentId;
+        private final String fromStatus;
+        private final String toStatus;
+
+        public StatusTransition(Long equipmentId, String fromStatus, String toStatus) {
+            this.equipmentId = equipmentId;
+            this.fromStatus = fromStatus;
+            this.toStatus = toStatus;
+        }
+
+        public Long getEquipmentId() { return equipmentId; }
+        public String getFromStatus() { return fromStatus; }
+        public String getToStatus() { return toStatus; }
+    }
+
+    // Changes equipment.status and moves the item between the per-status counters of every work
+    // order it belongs to, in one statement. Guarded on the expected current status; bumps the
+    // versions of the item and of those work orders.
+    private static final String TRANSITION_SQL =
+        "UPDATE equipment e"
+            + " JOIN work_order_items woi ON woi.equipment_id = e.id"
+            + " JOIN work_orders wo ON wo.id = woi.work_order_id"
+            + " SET e.status = ?, e.version = e.version + 1, wo.version = wo.version + 1,"
+            + " wo.pending_count = wo.pending_count + ?,"
+            + " wo.in_progress_count = wo.in_progress_count + ?,"
+            + " wo.done_count = wo.done_count + ?,"
+            + " wo.picked_up_count = wo.picked_up_count + ?"
+            + " WHERE e.id = ? AND e.status = ?";
+
+    /**
+     * Move one item from fromStatus to toStatus, adjusting the work order item counters atomically.
+     *
+     * @return false if the item was not in fromStatus (changed concurrently) or is not on any work order
+     */
+    public boolean transitionStatus(StatusTransition transition) {
+        return jdbcTemplate.update(TRANSITION_SQL, transitionArgs(transition)) > 0;
+    }
+
+    /**
+     * Batch variant of transitionStatus.
+     *
+     * @return per-transition update counts (0 = item was not in its fromStatus)
+     */
+    public int[] transitionStatusBatch(List<StatusTransition> transitions) {
+        if (transitions == null || transitions.isEmpty()) {
+            return new int[0];
+        }
+        List<Object[]> args = new java.util.ArrayList<>();
+        for (StatusTransition transition : transitions) {
+            args.add(transitionArgs(transition));
+        }
+        return jdbcTemplate.batchUpdate(TRANSITION_SQL, args);
+    }
+
+    private Object[] transitionArgs(StatusTransition t) {
+        return new Object[] {
+            t.getToStatus(),
+            counterDelta("PENDING", t),
+            counterDelta("IN_PROGRESS", t),
+            counterDelta("DONE", t),
+            counterDelta("PICKED_UP", t),
+            t.getEquipmentId(),
+            t.getFromStatus()
+        };
+    }
+
+    private static int counterDelta(String status, StatusTransition t) {
+        return (status.equals(t.getToStatus()) ? 1 : 0) - (status.equals(t.getFromStatus()) ? 1 : 0);
+    }
+
+    /**
+     * Current status of the given items, for the items that belong to the given work orders.
+     * Loads only (work order id, equipment id, status) - no equipment rows or boots.
+     *
+     * @return work order id -> (equipment id -> status)
+     */
+    public java.util.Map<Long, java.util.Map<Long, String>> findStatusesByWorkOrderIdInAndIdIn(
+            java.util.Collection<Long> workOrderIds, java.util.Collection<Long> equipmentIds) {
+        java.util.Map<Long, java.util.Map<Long, String>> result = new java.util.HashMap<>();
+        if (workOrderIds == null || workOrderIds.isEmpty() || equipmentIds == null || equipmentIds.isEmpty()) {
+            return result;
+        }
+        String woInSql = String.join(",", java.util.Collections.nCopies(workOrderIds.size(), "?"));
+        String eInSql = String.join(",", java.util.Collections.nCopies(equipmentIds.size(), "?"));
+        List<Object> params = new java.util.ArrayList<>(workOrderIds);
+        params.addAll(equipmentIds);
+        jdbcTemplate.query(
+            "SELECT woi.work_order_id, e.id, e.status FROM work_order_items woi JOIN equipment e ON e.id = woi.equipment_id"
+                + " WHERE woi.work_order_id IN (" + woInSql + ") AND e.id IN (" + eInSql + ")",
+            rs -> {
+                result.computeIfAbsent(rs.getLong("work_order_id"), k -> new java.util.HashMap<>())
+                    .put(rs.getLong("id"), rs.getString("status"));
+            }, params.toArray());
+        return result;
+    }
+
+    /**
+     * Set every DONE item of a work order to PICKED_UP in one statement.
+     *
+     * @return number of rows updated
+     */
+    public int markPickedUpByWorkOrderId(Long workOrderId) {
+        return jdbcTemplate.update(
+            "UPDATE equipment SET status = 'PICKED_UP', version = version + 1 WHERE status = 'DONE'"
+                + " AND id IN (SELECT woi.equipment_id FROM work_order_items woi WHERE woi.work_order_id = ?)",
+            workOrderId);
+    }
+
+    /**
+     * Batch lookup by id, keyed by id. Boots are not loaded.
+     */
+    public java.util.Map<Long, Equipment> findByIdIn(java.util.Collection<Long> ids) {
+        java.util.Map<Long, Equipment> byId = new java.util.HashMap<>();
+        if (ids == null || ids.isEmpty()) {
+            return byId;
+        }
+        String inSql = String.join(",", java.util.Collections.nCopies(ids.size(), "?"));
+        for (Equipment e : jdbcTemplate.query("SELECT * FROM equipment WHERE id IN (" + inSql + ")", equipmentRowMapper, ids.toArray())) {
+            byId.put(e.getId(), e);
+        }
+        return byId;
+    }
+
+    private static final String INSERT_SQL = "INSERT INTO equipment (shop_id, type, brand, model, length, serviceType, `condition`, bindingBrand, bindingModel, heightInches, weight, age, abilityLevel, boot_id, status, last_serviced_date, last_service_type, last_work_order_id, customer_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_SQL = "UPDATE equipment SET shop_id = ?, type = ?, brand = ?, model = ?, length = ?, serviceType = ?, `condition` = ?, bindingBrand = ?, bindingModel = ?, heightInches = ?, weight = ?, age = ?, abilityLevel = ?, boot_id = ?, status = ?, last_serviced_date = ?, last_service_type = ?, last_work_order_id = ?, customer_id = ?, version = version + 1 WHERE id = ? AND version = ?";
+
+    /**
+     * Insert new equipment, or update it conditionally on the version it was read with.
+     *
+     * @throws OptimisticLockConflictException if the row was changed since it was read
+     */
     public int save(Equipment equipment) {
-        String conditionValue = equipment.getCondition() != null ? equipment.getCondition().toString() : null;
         if (equipment.getId() == null) {
-            java.sql.Date lastServiced = equipment.getLastServicedDate() != null ? java.sql.Date.valueOf(equipment.getLastServicedDate()) : null;
             org.springframework.jdbc.support.KeyHolder keyHolder = new org.springframework.jdbc.support.GeneratedKeyHolder();
             int rows = jdbcTemplate.update(connection -> {
-                java.sql.PreparedStatement ps = connection.prepareStatement(
-                    "INSERT INTO equipment (shop_id, type, brand, model, length, serviceType, `condition`, bindingBrand, bindingModel, heightInches, weight, age, abilityLevel, boot_id, status, last_serviced_date, last_service_type, last_work_order_id, customer_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
-                    java.sql.Statement.RETURN_GENERATED_KEYS
-                );
-                ps.setObject(1, 1);
-                ps.setString(2, equipment.getType().toString());
-                ps.setString(3, equipment.getBrand());
-                ps.setString(4, equipment.getModel());
-                ps.setObject(5, equipment.getLength());
-                ps.setString(6, equipment.getServiceType());
-                ps.setString(7, conditionValue);
-                ps.setString(8, equipment.getBindingBrand());
-                ps.setString(9, equipment.getBindingModel());
-                if (equipment.getHeightInches() != null) ps.setInt(10, equipment.getHeightInches()); else ps.setNull(10, java.sql.Types.INTEGER);
-                if (equipment.getWeight() != null) ps.setInt(11, equipment.getWeight()); else ps.setNull(11, java.sql.Types.INTEGER);
-                if (equipment.getAge() != null) ps.setInt(12, equipment.getAge()); else ps.setNull(12, java.sql.Types.INTEGER);
-                ps.setString(13, (equipment.getAbilityLevel() != null ? equipment.getAbilityLevel().name() : null));
-                ps.setObject(14, equipment.getBootId());
-                ps.setString(15, equipment.getStatus());
-                if (lastServiced != null) ps.setDate(16, lastServiced); else ps.setDate(16, null);
-                ps.setString(17, equipment.getLastServiceType());
-                ps.setObject(18, equipment.getLastWorkOrderId());
-                ps.setObject(19, equipment.getCustomerId());
+                java.sql.PreparedStatement ps = connection.prepareStatement(INSERT_SQL, java.sql.Statement.RETURN_GENERATED_KEYS);
+                bindColumns(ps, equipment);
                 return ps;
             }, keyHolder);
             Number key = keyHolder.getKey();
             if (key != null) {
                 equipment.setId(key.longValue());
             }
+            equipment.markPersisted();
             return rows;
         } else {
-            java.sql.Date lastServiced = equipment.getLastServicedDate() != null ? java.sql.Date.valueOf(equipment.getLastServicedDate()) : null;
-            return jdbcTemplate.update(
-                "UPDATE equipment SET shop_id = ?, type = ?, brand = ?, model = ?, length = ?, serviceType = ?, `condition` = ?, bindingBrand = ?, bindingModel = ?, heightInches = ?, weight = ?, age = ?, abilityLevel = ?, boot_id = ?, status = ?, last_serviced_date = ?, last_service_type = ?, last_work_order_id = ?, customer_id = ? WHERE id = ?",
-                1, equipment.getType().toString(), equipment.getBrand(), equipment.getModel(), equipment.getLength(), equipment.getServiceType(), conditionValue, equipment.getBindingBrand(), equipment.getBindingModel(), equipment.getHeightInches(), equipment.getWeight(), equipment.getAge(),
-                (equipment.getAbilityLevel() != null ? equipment.getAbilityLevel().name() : null), equipment.getBootId(), equipment.getStatus(), lastServiced, equipment.getLastServiceType(), equipment.getLastWorkOrderId(), equipment.getCustomerId(), equipment.getId()
-            );
+            int rows = jdbcTemplate.update(connection -> {
+                java.sql.PreparedStatement ps = connection.prepareStatement(UPDATE_SQL);
+                bindColumns(ps, equipment);
+                ps.setLong(20, equipment.getId());
+                ps.setLong(21, equipment.getVersion());
+                return ps;
+            });
+            if (rows == 0) {
+                throw new OptimisticLockConflictException("Equipment", equipment.getId());
+            }
+            equipment.setVersion(equipment.getVersion() + 1);
+            equipment.markPersisted();
+            return rows;
+        }
+    }
+
+    /**
+     * Persist only what changed: new equipment is inserted in one JDBC batch (generated ids are
+     * set back on the objects), existing equipment is updated in one batch and only if isDirty().
+     * Unchanged rows are skipped entirely. Updates are version-checked like save().
+     *
+     * @return number of rows written
+     */
+    public int saveAll(java.util.Collection<Equipment> equipment) {
+        List<Equipment> toInsert = new java.util.ArrayList<>();
+        List<Equipment> toUpdate = new java.util.ArrayList<>();
+        for (Equipment e : equipment) {
+            if (e.getId() == null) {
+                toInsert.add(e);
+            } else if (e.isDirty()) {
+                toUpdate.add(e);
+            }
+        }
+
+        if (!toInsert.isEmpty()) {
+            org.springframework.jdbc.support.GeneratedKeyHolder keyHolder = new org.springframework.jdbc.support.GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_SQL, java.sql.Statement.RETURN_GENERATED_KEYS),
+                new org.springframework.jdbc.core.BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(java.sql.PreparedStatement ps, int i) throws java.sql.SQLException {
+                        bindColumns(ps, toInsert.get(i));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return toInsert.size();
+                    }
+                },
+                keyHolder);
+            List<java.util.Map<String, Object>> keys = keyHolder.getKeyList();
+            for (int i = 0; i < toInsert.size() && i < keys.size(); i++) {
+                Object key = keys.get(i).values().stream().findFirst().orElse(null);
+                if (key instanceof Number) {
+                    toInsert.get(i).setId(((Number) key).longValue());
+                    toInsert.get(i).markPersisted();
+                }
+            }
         }
+
+        if (!toUpdate.isEmpty()) {
+            int[] updated = jdbcTemplate.batchUpdate(UPDATE_SQL, new org.springframework.jdbc.core.BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(java.sql.PreparedStatement ps, int i) throws java.sql.SQLException {
+                    bindColumns(ps, toUpdate.get(i));
+                    ps.setLong(20, toUpdate.get(i).getId());
+                    ps.setLong(21, toUpdate.get(i).getVersion());
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return toUpdate.size();
+                }
+            });
+            for (int i = 0; i < updated.length; i++) {
+                if (updated[i] == 0) {
+                    throw new OptimisticLockConflictException("Equipment", toUpdate.get(i).getId());
+                }
+            }
+            for (Equipment e : toUpdate) {
+                e.setVersion(e.getVersion() + 1);
+                e.markPersisted();
+            }
+        }
+
+        return toInsert.size() + toUpdate.size();
+    }
+
+    // Binds the 19 column parameters shared by INSERT_SQL and UPDATE_SQL
+    private void bindColumns(java.sql.PreparedStatement ps, Equipment equipment) throws java.sql.SQLException {
+        java.sql.Date lastServiced = equipment.getLastServicedDate() != null ? java.sql.Date.valueOf(equipment.getLastServicedDate()) : null;
+        ps.setObject(1, 1);
+        ps.setString(2, equipment.getType().toString());
+        ps.setString(3, equipment.getBrand());
+        ps.setString(4, equipment.getModel());
+        ps.setObject(5, equipment.getLength());
+        ps.setString(6, equipment.getServiceType());
+        ps.setString(7, equipment.getCondition() != null ? equipment.getCondition().toString() : null);
+        ps.setString(8, equipment.getBindingBrand());
+        ps.setString(9, equipment.getBindingModel());
+        if (equipment.getHeightInches() != null) ps.setInt(10, equipment.getHeightInches()); else ps.setNull(10, java.sql.Types.INTEGER);
+        if (equipment.getWeight() != null) ps.setInt(11, equipment.getWeight()); else ps.setNull(11, java.sql.Types.INTEGER);
+        if (equipment.getAge() != null) ps.setInt(12, equipment.getAge()); else ps.setNull(12, java.sql.Types.INTEGER);
+        ps.setString(13, (equipment.getAbilityLevel() != null ? equipment.getAbilityLevel().name() : null));
+        ps.setObject(14, equipment.getBootId());
+        ps.setString(15, equipment.getStatus());
+        ps.setDate(16, lastServiced);
+        ps.setString(17, equipment.getLastServiceType());
+        ps.setObject(18, equipment.getLastWorkOrderId());
+        ps.setObject(19, equipment.getCustomerId());
     }
 }
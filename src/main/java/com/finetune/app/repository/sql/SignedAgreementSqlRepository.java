@@ -49,6 +49,25 @@ public class SignedAgreementSqlRepository {
                 return agreements.isEmpty() ? java.util.Optional.empty() : java.util.Optional.of(agreements.get(0));
             }
 
+            /**
+             * Batch variant of findFirstByWorkOrderId: the latest agreement per work order, keyed by work order id.
+             */
+            public java.util.Map<Long, SignedAgreement> findLatestByWorkOrderIdIn(java.util.Collection<Long> workOrderIds) {
+                java.util.Map<Long, SignedAgreement> byWorkOrder = new java.util.HashMap<>();
+                if (workOrderIds == null || workOrderIds.isEmpty()) {
+                    return byWorkOrder;
+                }
+                String inSql = String.join(",", java.util.Collections.nCopies(workOrderIds.size(), "?"));
+                List<SignedAgreement> agreements = jdbcTemplate.query(
+                    "SELECT * FROM signed_agreements WHERE work_order_id IN (" + inSql + ") ORDER BY signed_at ASC",
+                    signedAgreementRowMapper, workOrderIds.toArray());
+                // Ascending order, so the latest agreement for each work order wins
+                for (SignedAgreement agreement : agreements) {
+                    byWorkOrder.put(agreement.getWorkOrderId(), agreement);
+                }
+                return byWorkOrder;
+            }
+
             public List<SignedAgreement> findAll() {
                 return jdbcTemplate.query("SELECT * FROM signed_agreements ORDER BY id ASC", signedAgreementRowMapper);
             }
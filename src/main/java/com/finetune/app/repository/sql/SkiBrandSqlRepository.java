@@ -11,9 +11,11 @@ import java.util.List;
 @Repository
 public class SkiBrandSqlRepository {
     private final JdbcTemplate jdbcTemplate;
+    private final SkiCatalog catalog;
 
-    public SkiBrandSqlRepository(JdbcTemplate jdbcTemplate) {
+    public SkiBrandSqlRepository(JdbcTemplate jdbcTemplate, SkiCatalog catalog) {
         this.jdbcTemplate = jdbcTemplate;
+        this.catalog = catalog;
     }
 
     private final RowMapper<SkiBrand> skiBrandRowMapper = (rs, rowNum) -> {
@@ -60,8 +62,47 @@ public class SkiBrandSqlRepository {
             return new java.util.ArrayList<>(map.values());
         });
     }
+    /**
+     * Insert a brand without models and return its generated id.
+     */
+    public Long insertBrand(String name) {
+        org.springframework.jdbc.support.KeyHolder keyHolder = new org.springframework.jdbc.support.GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            java.sql.PreparedStatement ps = connection.prepareStatement(
+                "INSERT INTO ski_brands (name) VALUES (?)", java.sql.Statement.RETURN_GENERATED_KEYS);
+            ps.setString(1, name);
+            return ps;
+        }, keyHolder);
+        catalog.invalidate();
+        Number key = keyHolder.getKey();
+        return key != null ? key.longValue() : null;
+    }
+
+    /**
+     * Insert models in one JDBC batch; each entry is {brandId, name}.
+     */
+    public void insertModelsBatch(List<Object[]> brandIdAndName) {
+        if (brandIdAndName == null || brandIdAndName.isEmpty()) return;
+        jdbcTemplate.batchUpdate("INSERT INTO ski_models (brand_id, name) VALUES (?, ?)", brandIdAndName);
+        catalog.invalidate();
+    }
+
+    /**
+     * Delete models by id in one JDBC batch.
+     */
+    public void deleteModelsBatch(List<Long> modelIds) {
+        if (modelIds == null || modelIds.isEmpty()) return;
+        List<Object[]> args = new java.util.ArrayList<>();
+        for (Long id : modelIds) {
+            args.add(new Object[] { id });
+        }
+        jdbcTemplate.batchUpdate("DELETE FROM ski_models WHERE id = ?", args);
+        catalog.invalidate();
+    }
+
     public void deleteById(Long id) {
         jdbcTemplate.update("DELETE FROM ski_brands WHERE id = ?", id);
+        catalog.invalidate();
     }
 
     public void delete(SkiBrand brand) {
@@ -82,6 +123,7 @@ public class SkiBrandSqlRepository {
                     jdbcTemplate.update("INSERT INTO ski_models (brand_id, name) VALUES (?, ?)", saved.getId(), m.getName());
                 }
             }
+            catalog.invalidate();
             return saved;
         } else {
             // Update existing brand
@@ -93,6 +135,7 @@ public class SkiBrandSqlRepository {
                     jdbcTemplate.update("INSERT INTO ski_models (brand_id, name) VALUES (?, ?)", brand.getId(), m.getName());
                 }
             }
+            catalog.invalidate();
             return brand;
         }
     }
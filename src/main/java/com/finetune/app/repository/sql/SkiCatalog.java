@@ -0,0 +1,215 @@
+package com.finetune.app.repository.sql;
+
+import com.finetune.app.model.SkiBrand;
+import com.finetune.app.model.SkiModel;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Read-through, in-memory copy of the ski brand/model catalog served by BrandController.
+ *
+ * The catalog only changes when DataInitializer syncs SkiModels.json (or a brand is saved or
+ * deleted through SkiBrandSqlRepository), so reads are served from an immutable Snapshot:
+ * - brands in id order
+ * - models grouped by brand id, in id order
+ * - case-insensitive prefix indexes over brand names and each brand's model names
+ * - a content hash used as the HTTP ETag
+ * Writers call invalidate(); the next read rebuilds the snapshot with two queries and swaps it
+ * in atomically, so readers always see either the old or the new catalog as a whole.
+ *
+ * invalidate() bumps a generation counter rather than clearing the snapshot. Each snapshot
+ * records the generation it was loaded under and is only published if no invalidation happened
+ * while it was loading, so a load that raced with a write cannot store the pre-write catalog.
+ */
+@Component
+public class SkiCatalog {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Snapshot snapshot;
+
+    /**
+     * Immutable view of the catalog at one point in time.
+     */
+    public static final class Snapshot {
+        private final List<SkiBrand> brands;
+        private final Map<Long, List<SkiModel>> modelsByBrand;
+        private final PrefixIndex<SkiBrand> brandIndex;
+        private final Map<Long, PrefixIndex<SkiModel>> modelIndexByBrand;
+        private final String etag;
+        private final long generation;
+
+        Snapshot(List<SkiBrand> brands, Map<Long, List<SkiModel>> modelsByBrand, String etag, long generation) {
+            this.brands = Collections.unmodifiableList(brands);
+            Map<Long, List<SkiModel>> models = new HashMap<>();
+            Map<Long, PrefixIndex<SkiModel>> modelIndexes = new HashMap<>();
+            for (Map.Entry<Long, List<SkiModel>> entry : modelsByBrand.entrySet()) {
+                models.put(entry.getKey(), Collections.unmodifiableList(entry.getValue()));
+                modelIndexes.put(entry.getKey(), new PrefixIndex<>(entry.getValue(), SkiModel::getName));
+            }
+            this.modelsByBrand = Collections.unmodifiableMap(models);
+            this.modelIndexByBrand = Collections.unmodifiableMap(modelIndexes);
+            this.brandIndex = new PrefixIndex<>(brands, SkiBrand::getName);
+            this.etag = etag;
+            this.generation = generation;
+        }
+
+        public List<SkiBrand> getBrands() {
+            return brands;
+        }
+
+        public List<SkiModel> getModels(Long brandId) {
+            return modelsByBrand.getOrDefault(brandId, List.of());
+        }
+
+        public List<SkiBrand> findBrandsByPrefix(String prefix, int limit) {
+            return brandIndex.find(prefix, limit);
+        }
+
+        public List<SkiModel> findModelsByPrefix(Long brandId, String prefix, int limit) {
+            PrefixIndex<SkiModel> index = modelIndexByBrand.get(brandId);
+            return index != null ? index.find(prefix, limit) : List.of();
+        }
+
+        /** Strong ETag (quoted) identifying this catalog content. */
+        public String getEtag() {
+            return etag;
+        }
+    }
+
+    /**
+     * Names sorted case-insensitively; a prefix lookup is a binary search plus a forward scan.
+     */
+    private static final class PrefixIndex<T> {
+        private final String[] keys;
+        private final List<T> values;
+
+        PrefixIndex(List<T> items, Function<T, String> name) {
+            List<T> sorted = new ArrayList<>(items);
+            sorted.sort(Comparator.comparing(item -> key(name.apply(item))));
+            this.keys = new String[sorted.size()];
+            for (int i = 0; i < sorted.size(); i++) {
+                keys[i] = key(name.apply(sorted.get(i)));
+            }
+            this.values = Collections.unmodifiableList(sorted);
+        }
+
+        List<T> find(String prefix, int limit) {
+            String p = key(prefix);
+            int lo = 0, hi = keys.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (keys[mid].compareTo(p) < 0) lo = mid + 1; else hi = mid;
+            }
+            List<T> result = new ArrayList<>();
+            for (int i = lo; i < keys.length && keys[i].startsWith(p); i++) {
+                if (limit > 0 && result.size() >= limit) break;
+                result.add(values.get(i));
+            }
+            return result;
+        }
+
+        private static String key(String name) {
+            return name == null ? "" : name.trim().toLowerCase();
+        }
+    }
+
+    public SkiCatalog(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Current snapshot, loading it on first use or after invalidate().
+     */
+    public Snapshot get() {
+        Snapshot current = snapshot;
+        if (current != null && current.generation == generation.get()) {
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot;
+            if (current != null && current.generation == generation.get()) {
+                return current;
+            }
+            return loadAndPublish();
+        }
+    }
+
+    /**
+     * Mark the snapshot stale; the next read rebuilds it from the database.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+    }
+
+    /**
+     * Rebuild the snapshot now (e.g. after the startup sync) instead of on the next read.
+     */
+    public synchronized void refresh() {
+        loadAndPublish();
+    }
+
+    /**
+     * Load a snapshot and publish it unless an invalidate() ran during the load. The loaded
+     * snapshot is still returned to the caller - its read was concurrent with the write - but
+     * the next get() reloads.
+     */
+    private Snapshot loadAndPublish() {
+        long loadedGeneration = generation.get();
+        Snapshot loaded = load(loadedGeneration);
+        if (generation.get() == loadedGeneration) {
+            snapshot = loaded;
+        }
+        return loaded;
+    }
+
+    private Snapshot load(long loadedGeneration) {
+        List<SkiBrand> brands = jdbcTemplate.query("SELECT id, name FROM ski_brands ORDER BY id ASC", (rs, rowNum) -> {
+            SkiBrand b = new SkiBrand();
+            b.setId(rs.getLong("id"));
+            b.setName(rs.getString("name"));
+            return b;
+        });
+        Map<Long, List<SkiModel>> modelsByBrand = new HashMap<>();
+        List<SkiModel> models = jdbcTemplate.query("SELECT id, name, brand_id FROM ski_models ORDER BY id ASC", (rs, rowNum) -> {
+            SkiModel m = new SkiModel();
+            m.setId(rs.getLong("id"));
+            m.setName(rs.getString("name"));
+            m.setBrandId(rs.getLong("brand_id"));
+            return m;
+        });
+        for (SkiModel m : models) {
+            modelsByBrand.computeIfAbsent(m.getBrandId(), k -> new ArrayList<>()).add(m);
+        }
+        return new Snapshot(brands, modelsByBrand, etag(brands, models), loadedGeneration);
+    }
+
+    private String etag(List<SkiBrand> brands, List<SkiModel> models) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (SkiBrand b : brands) {
+                digest.update(("b" + b.getId() + "\u0000" + b.getName() + "\u0000").getBytes(StandardCharsets.UTF_8));
+            }
+            for (SkiModel m : models) {
+                digest.update(("m" + m.getId() + "\u0000" + m.getBrandId() + "\u0000" + m.getName() + "\u0000").getBytes(StandardCharsets.UTF_8));
+            }
+            return "\"" + HexFormat.of().formatHex(digest.digest(), 0, 16) + "\"";
+        } catch (Exception e) {
+            // SHA-256 is always available; fall back to a load timestamp just in case
+            return "\"" + Long.toHexString(System.nanoTime()) + "\"";
+        }
+    }
+}
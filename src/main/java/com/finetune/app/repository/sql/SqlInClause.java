@@ -0,0 +1,43 @@
+package com.finetune.app.repository.sql;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Helpers for batched {@code IN (...)} lookups.
+ *
+ * Id lists are split into chunks of {@link #CHUNK_SIZE} so a single statement never carries an
+ * unbounded number of bind parameters (driver/packet limits, plan cache churn). For lists up to
+ * CHUNK_SIZE ids this is still exactly one query.
+ */
+final class SqlInClause {
+
+    static final int CHUNK_SIZE = 500;
+
+    private SqlInClause() {
+    }
+
+    /**
+     * The given values split into consecutive lists of at most CHUNK_SIZE elements.
+     */
+    static <T> List<List<T>> chunks(Collection<T> values) {
+        List<List<T>> chunks = new ArrayList<>();
+        if (values == null || values.isEmpty()) {
+            return chunks;
+        }
+        List<T> all = new ArrayList<>(values);
+        for (int from = 0; from < all.size(); from += CHUNK_SIZE) {
+            chunks.add(all.subList(from, Math.min(from + CHUNK_SIZE, all.size())));
+        }
+        return chunks;
+    }
+
+    /**
+     * "?,?,...,?" with n placeholders.
+     */
+    static String placeholders(int n) {
+        return String.join(",", Collections.nCopies(n, "?"));
+    }
+}
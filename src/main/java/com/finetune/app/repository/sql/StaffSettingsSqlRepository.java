@@ -39,4 +39,25 @@ public class StaffSettingsSqlRepository {
         List<StaffSettings> settings = jdbcTemplate.query("SELECT * FROM staff_settings WHERE id = ?", staffSettingsRowMapper, id);
         return settings.stream().findFirst();
     }
+
+    public int save(StaffSettings settings) {
+        if (settings.getId() == null) {
+            org.springframework.jdbc.support.KeyHolder keyHolder = new org.springframework.jdbc.support.GeneratedKeyHolder();
+            int rows = jdbcTemplate.update(connection -> {
+                java.sql.PreparedStatement ps = connection.prepareStatement(
+                    "INSERT INTO staff_settings (max_customer_work_orders_per_day) VALUES (?)",
+                    java.sql.Statement.RETURN_GENERATED_KEYS
+                );
+                ps.setInt(1, settings.getMaxCustomerWorkOrdersPerDay());
+                return ps;
+            }, keyHolder);
+            Number key = keyHolder.getKey();
+            if (key != null) {
+                settings.setId(key.longValue());
+            }
+            return rows;
+        }
+        return jdbcTemplate.update("UPDATE staff_settings SET max_customer_work_orders_per_day = ? WHERE id = ?",
+            settings.getMaxCustomerWorkOrdersPerDay(), settings.getId());
+    }
 }
@@ -0,0 +1,120 @@
+package com.finetune.app.repository.sql;
+
+import com.finetune.app.model.Boot;
+import com.finetune.app.model.Customer;
+import com.finetune.app.model.Equipment;
+import com.finetune.app.model.WorkOrder;
+import com.finetune.app.model.WorkOrderNote;
+import org.springframework.stereotype.Repository;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Set-based loader for the work order graph (customer + boots, equipment + boot, notes).
+ *
+ * Replaces the old per-row enrichment which issued 3 + N queries per work order.
+ * For up to SqlInClause.CHUNK_SIZE work orders (and customers/boots) this runs at most four queries,
+ * independent of the list size; larger lists add one query per extra chunk:
+ * 1. customers WHERE id IN (...)
+ * 2. equipment JOIN work_order_items WHERE work_order_id IN (...)
+ * 3. boots WHERE customer_id IN (...) OR id IN (...)
+ * 4. work_order_notes WHERE work_order_id IN (...)
+ * and stitches the results together in memory.
+ */
+@Repository
+public class WorkOrderGraphLoader {
+    private final CustomerSqlRepository customerRepository;
+    private final EquipmentSqlRepository equipmentRepository;
+    private final BootSqlRepository bootRepository;
+    private final WorkOrderNoteSqlRepository workOrderNoteRepository;
+
+    public WorkOrderGraphLoader(CustomerSqlRepository customerRepository, EquipmentSqlRepository equipmentRepository, BootSqlRepository bootRepository, WorkOrderNoteSqlRepository workOrderNoteRepository) {
+        this.customerRepository = customerRepository;
+        this.equipmentRepository = equipmentRepository;
+        this.bootRepository = bootRepository;
+        this.workOrderNoteRepository = workOrderNoteRepository;
+    }
+
+    public void load(List<WorkOrder> workOrders) {
+        if (workOrders == null || workOrders.isEmpty()) return;
+
+        Set<Long> workOrderIds = new LinkedHashSet<>();
+        Set<Long> customerIds = new LinkedHashSet<>();
+        for (WorkOrder wo : workOrders) {
+            if (wo.getId() != null) workOrderIds.add(wo.getId());
+            if (wo.getCustomerId() != null) customerIds.add(wo.getCustomerId());
+        }
+
+        // 1) Customers
+        Map<Long, Customer> customersById = new HashMap<>();
+        try {
+            for (Customer c : customerRepository.findByIdIn(customerIds)) {
+                customersById.put(c.getId(), c);
+            }
+        } catch (Exception e) {
+            // ignore if customer repo not available
+        }
+
+        // 2) Equipment via work_order_items
+        Map<Long, List<Equipment>> equipmentByWorkOrder = new HashMap<>();
+        try {
+            equipmentByWorkOrder = equipmentRepository.findByWorkOrderIdIn(workOrderIds);
+        } catch (Exception e) {
+            // ignore if equipment repo not available
+        }
+
+        // 3) Boots: owned by the loaded customers, or referenced by the loaded equipment
+        Set<Long> bootIds = new LinkedHashSet<>();
+        for (List<Equipment> items : equipmentByWorkOrder.values()) {
+            for (Equipment eq : items) {
+                if (eq.getBootId() != null) bootIds.add(eq.getBootId());
+            }
+        }
+        Map<Long, Boot> bootsById = new HashMap<>();
+        Map<Long, List<Boot>> bootsByCustomer = new HashMap<>();
+        try {
+            for (Boot b : bootRepository.findByCustomerIdInOrIdIn(customersById.keySet(), bootIds)) {
+                bootsById.put(b.getId(), b);
+                if (b.getCustomerId() != null && customersById.containsKey(b.getCustomerId())) {
+                    bootsByCustomer.computeIfAbsent(b.getCustomerId(), k -> new ArrayList<>()).add(b);
+                }
+            }
+        } catch (Exception e) {
+            // ignore boot load failures, same as the single-row path
+        }
+
+        // 4) Notes
+        Map<Long, List<WorkOrderNote>> notesByWorkOrder = null;
+        try {
+            notesByWorkOrder = workOrderNoteRepository.findByWorkOrderIdInOrderByCreatedAtDesc(workOrderIds);
+        } catch (Exception e) {
+            // ignore if notes repo not available
+        }
+
+        // Stitch
+        for (Customer c : customersById.values()) {
+            c.setBoots(bootsByCustomer.getOrDefault(c.getId(), new ArrayList<>()));
+        }
+        for (WorkOrder wo : workOrders) {
+            Customer customer = customersById.get(wo.getCustomerId());
+            if (customer != null) {
+                wo.setCustomer(customer);
+            }
+            List<Equipment> equipmentList = equipmentByWorkOrder.getOrDefault(wo.getId(), new ArrayList<>());
+            for (Equipment eq : equipmentList) {
+                Boot boot = eq.getBootId() != null ? bootsById.get(eq.getBootId()) : null;
+                if (boot != null) {
+                    eq.setBoot(boot);
+                }
+            }
+            wo.setEquipment(equipmentList);
+            if (notesByWorkOrder != null) {
+                wo.setNotesList(notesByWorkOrder.getOrDefault(wo.getId(), new ArrayList<>()));
+            }
+        }
+    }
+}
@@ -25,6 +25,20 @@ public class WorkOrderItemSqlRepository {
         return addAssociation(workOrderId, equipmentId);
     }
 
+    /**
+     * Add several equipment rows to a work order with a single JDBC batch.
+     */
+    public int[] addEquipmentToWorkOrderBatch(Long workOrderId, List<Long> equipmentIds) {
+        if (equipmentIds == null || equipmentIds.isEmpty()) {
+            return new int[0];
+        }
+        List<Object[]> args = new java.util.ArrayList<>();
+        for (Long equipmentId : equipmentIds) {
+            args.add(new Object[] { workOrderId, equipmentId });
+        }
+        return jdbcTemplate.batchUpdate("INSERT INTO work_order_items (work_order_id, equipment_id) VALUES (?, ?)", args);
+    }
+
     public int deleteByWorkOrderId(Long workOrderId) {
         return jdbcTemplate.update("DELETE FROM work_order_items WHERE work_order_id = ?", workOrderId);
     }
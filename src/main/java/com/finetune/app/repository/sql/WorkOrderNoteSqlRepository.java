@@ -27,6 +27,24 @@ public class WorkOrderNoteSqlRepository {
     public List<WorkOrderNote> findByWorkOrderIdOrderByCreatedAtDesc(Long workOrderId) {
         return jdbcTemplate.query("SELECT * FROM work_order_notes WHERE work_order_id = ? ORDER BY created_at DESC", workOrderNoteRowMapper, workOrderId);
     }
+
+    /**
+     * Batch variant of findByWorkOrderIdOrderByCreatedAtDesc, grouped by work order id.
+     * Large id sets are queried in chunks of SqlInClause.CHUNK_SIZE; a work order's notes always
+     * come from a single chunk, so their order is preserved.
+     */
+    public java.util.Map<Long, List<WorkOrderNote>> findByWorkOrderIdInOrderByCreatedAtDesc(java.util.Collection<Long> workOrderIds) {
+        java.util.Map<Long, List<WorkOrderNote>> byWorkOrder = new java.util.HashMap<>();
+        for (List<Long> chunk : SqlInClause.chunks(workOrderIds)) {
+            List<WorkOrderNote> notes = jdbcTemplate.query(
+                "SELECT * FROM work_order_notes WHERE work_order_id IN (" + SqlInClause.placeholders(chunk.size()) + ") ORDER BY created_at DESC",
+                workOrderNoteRowMapper, chunk.toArray());
+            for (WorkOrderNote n : notes) {
+                byWorkOrder.computeIfAbsent(n.getWorkOrderId(), k -> new java.util.ArrayList<>()).add(n);
+            }
+        }
+        return byWorkOrder;
+    }
     public WorkOrderNote insert(Long workOrderId, String noteText, String createdBy) {
         String sql = "INSERT INTO work_order_notes (work_order_id, note_text, created_by, created_at) VALUES (?, ?, ?, ?)";
         org.springframework.jdbc.support.GeneratedKeyHolder keyHolder = new org.springframework.jdbc.support.GeneratedKeyHolder();
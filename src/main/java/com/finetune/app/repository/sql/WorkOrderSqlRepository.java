@@ -1,5 +1,6 @@
 package com.finetune.app.repository.sql;
 
+import com.finetune.app.exception.OptimisticLockConflictException;
 import com.finetune.app.model.WorkOrder;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
@@ -10,17 +11,11 @@ import java.util.Optional;
 @Repository
 public class WorkOrderSqlRepository {
     private final JdbcTemplate jdbcTemplate;
-    private final CustomerSqlRepository customerRepository;
-    private final EquipmentSqlRepository equipmentRepository;
-    private final BootSqlRepository bootRepository;
-    private final WorkOrderNoteSqlRepository workOrderNoteRepository;
+    private final WorkOrderGraphLoader graphLoader;
 
-    public WorkOrderSqlRepository(JdbcTemplate jdbcTemplate, CustomerSqlRepository customerRepository, EquipmentSqlRepository equipmentRepository, BootSqlRepository bootRepository, WorkOrderNoteSqlRepository workOrderNoteRepository) {
+    public WorkOrderSqlRepository(JdbcTemplate jdbcTemplate, WorkOrderGraphLoader graphLoader) {
         this.jdbcTemplate = jdbcTemplate;
-        this.customerRepository = customerRepository;
-        this.equipmentRepository = equipmentRepository;
-        this.bootRepository = bootRepository;
-        this.workOrderNoteRepository = workOrderNoteRepository;
+        this.graphLoader = graphLoader;
     }
 
     private final RowMapper<WorkOrder> workOrderRowMapper = (rs, rowNum) -> {
@@ -36,6 +31,21 @@ public class WorkOrderSqlRepository {
         w.setCompletedDate(completedDateTs != null ? completedDateTs.toLocalDateTime() : null);
         w.setCustomerCreated(rs.getBoolean("customer_created"));
         w.setNotes(rs.getString("notes"));
+        w.setPendingCount(rs.getInt("pending_count"));
+        w.setInProgressCount(rs.getInt("in_progress_count"));
+        w.setDoneCount(rs.getInt("done_count"));
+        w.setPickedUpCount(rs.getInt("picked_up_count"));
+        w.setVersion(rs.getLong("version"));
+        // shop_id may be NULL for legacy rows; use getObject to preserve nullability
+        Object shopIdObj = null;
+        try {
+            shopIdObj = rs.getObject("shop_id");
+        } catch (Exception ignore) {
+            shopIdObj = null;
+        }
+        if (shopIdObj != null) {
+            w.setShopId(rs.getLong("shop_id"));
+        }
         return w;
     };
 
@@ -47,6 +57,146 @@ public class WorkOrderSqlRepository {
         return java.util.Optional.of(wo);
     }
 
+    /**
+     * Batch variant of findById: loads many work orders (with equipment and boots) in one pass.
+     */
+    public List<WorkOrder> findByIdIn(java.util.Collection<Long> ids) {
+        List<WorkOrder> list = findByIdInWithoutItems(ids);
+        enrichWorkOrders(list);
+        return list;
+    }
+
+    /**
+     * Work order row only (including the per-status item counters); no equipment, boots or notes.
+     */
+    public Optional<WorkOrder> findByIdWithoutItems(Long id) {
+        return jdbcTemplate.query("SELECT * FROM work_orders WHERE id = ?", workOrderRowMapper, id).stream().findFirst();
+    }
+
+    /**
+     * Batch variant of findByIdWithoutItems.
+     */
+    public List<WorkOrder> findByIdInWithoutItems(java.util.Collection<Long> ids) {
+        List<WorkOrder> list = new java.util.ArrayList<>();
+        for (List<Long> chunk : SqlInClause.chunks(ids)) {
+            list.addAll(jdbcTemplate.query(
+                "SELECT * FROM work_orders WHERE id IN (" + SqlInClause.placeholders(chunk.size()) + ")",
+                workOrderRowMapper, chunk.toArray()));
+        }
+        return list;
+    }
+
+    /**
+     * The subset of the given work order ids that belong to the shop.
+     */
+    public java.util.Set<Long> findIdsByShopIdIn(Long shopId, java.util.Collection<Long> ids) {
+        java.util.Set<Long> owned = new java.util.HashSet<>();
+        for (List<Long> chunk : SqlInClause.chunks(ids)) {
+            java.util.List<Object> params = new java.util.ArrayList<>();
+            params.add(shopId);
+            params.addAll(chunk);
+            owned.addAll(jdbcTemplate.queryForList(
+                "SELECT id FROM work_orders WHERE shop_id = ? AND id IN (" + SqlInClause.placeholders(chunk.size()) + ")",
+                Long.class, params.toArray()));
+        }
+        return owned;
+    }
+
+    // Per-status item counts computed from work_order_items/equipment, per work order
+    private static final String ITEM_COUNTS_SQL =
+        "SELECT woi.work_order_id,"
+            + " SUM(e.status = 'PENDING') AS pending,"
+            + " SUM(e.status = 'IN_PROGRESS') AS in_progress,"
+            + " SUM(e.status = 'DONE') AS done,"
+            + " SUM(e.status = 'PICKED_UP') AS picked_up"
+            + " FROM work_order_items woi JOIN equipment e ON e.id = woi.equipment_id";
+
+    /**
+     * Recompute the item counters of the given work orders from their items, in one statement.
+     * Used where items are attached or changed in sets (create/merge, pickup) and by reconciliation.
+     */
+    public int refreshItemCounts(java.util.Collection<Long> workOrderIds) {
+        if (workOrderIds == null || workOrderIds.isEmpty()) {
+            return 0;
+        }
+        String inSql = String.join(",", java.util.Collections.nCopies(workOrderIds.size(), "?"));
+        return refreshItemCountsWhere(inSql, workOrderIds.toArray());
+    }
+
+    /**
+     * Recompute the item counters of every work order that contains any of the given items.
+     * Equipment rows can be linked to several work orders, and all of them count the row's status.
+     */
+    public int refreshItemCountsForEquipment(java.util.Collection<Long> equipmentIds) {
+        if (equipmentIds == null || equipmentIds.isEmpty()) {
+            return 0;
+        }
+        String inSql = String.join(",", java.util.Collections.nCopies(equipmentIds.size(), "?"));
+        return refreshItemCountsWhere(
+            "SELECT woi2.work_order_id FROM work_order_items woi2 WHERE woi2.equipment_id IN (" + inSql + ")",
+            equipmentIds.toArray());
+    }
+
+    /**
+     * Recompute the item counters of the given work order and of every other work order sharing an item with it.
+     */
+    public int refreshItemCountsSharingItemsWith(Long workOrderId) {
+        return refreshItemCountsWhere(
+            "SELECT woi2.work_order_id FROM work_order_items woi2 WHERE woi2.equipment_id IN"
+                + " (SELECT woi3.equipment_id FROM work_order_items woi3 WHERE woi3.work_order_id = ?)"
+                + " UNION SELECT ?",
+            new Object[] { workOrderId, workOrderId });
+    }
+
+    // idsSql is either a list of placeholders or a subquery selecting work order ids; it is used
+    // twice (aggregate and target rows), so its parameters are bound twice
+    private int refreshItemCountsWhere(String idsSql, Object[] idParams) {
+        String sql = "UPDATE work_orders wo"
+            + " LEFT JOIN (" + ITEM_COUNTS_SQL + " WHERE woi.work_order_id IN (" + idsSql + ") GROUP BY woi.work_order_id) c"
+            + " ON c.work_order_id = wo.id"
+            + " SET wo.pending_count = COALESCE(c.pending, 0),"
+            + " wo.in_progress_count = COALESCE(c.in_progress, 0),"
+            + " wo.done_count = COALESCE(c.done, 0),"
+            + " wo.picked_up_count = COALESCE(c.picked_up, 0),"
+            + " wo.version = wo.version + 1"
+            + " WHERE wo.id IN (" + idsSql + ")";
+        Object[] params = new Object[idParams.length * 2];
+        System.arraycopy(idParams, 0, params, 0, idParams.length);
+        System.arraycopy(idParams, 0, params, idParams.length, idParams.length);
+        return jdbcTemplate.update(sql, params);
+    }
+
+    /**
+     * Ids of work orders whose stored item counters differ from their actual items, lowest id first.
+     * Scans all work orders; meant for the periodic reconciliation job, not for request paths.
+     *
+     * @param afterId only work orders with a greater id (0 to start from the beginning)
+     * @param limit maximum number of work orders to examine
+     */
+    public List<Long> findItemCountDrift(long afterId, int limit) {
+        return jdbcTemplate.queryForList(
+            "SELECT wo.id FROM (SELECT * FROM work_orders WHERE id > ? ORDER BY id ASC LIMIT ?) wo"
+                + " LEFT JOIN (" + ITEM_COUNTS_SQL + " WHERE woi.work_order_id IN"
+                + " (SELECT id FROM (SELECT id FROM work_orders WHERE id > ? ORDER BY id ASC LIMIT ?) ids)"
+                + " GROUP BY woi.work_order_id) c ON c.work_order_id = wo.id"
+                + " WHERE wo.pending_count <> COALESCE(c.pending, 0)"
+                + " OR wo.in_progress_count <> COALESCE(c.in_progress, 0)"
+                + " OR wo.done_count <> COALESCE(c.done, 0)"
+                + " OR wo.picked_up_count <> COALESCE(c.picked_up, 0)"
+                + " ORDER BY wo.id ASC",
+            Long.class, afterId, limit, afterId, limit);
+    }
+
+    /**
+     * Highest id among the next batch of work orders after afterId (null when there are none).
+     * Lets the reconciliation job walk the table in id order.
+     */
+    public Long findBatchEndId(long afterId, int limit) {
+        return jdbcTemplate.queryForObject(
+            "SELECT MAX(id) FROM (SELECT id FROM work_orders WHERE id > ? ORDER BY id ASC LIMIT ?) ids",
+            Long.class, afterId, limit);
+    }
+
     public List<WorkOrder> findOpenWorkOrdersByCustomer(Long customerId) {
         return jdbcTemplate.query("SELECT * FROM work_orders WHERE customer_id = ? AND status != 'PICKED_UP' ORDER BY createdAt DESC", workOrderRowMapper, customerId);
     }
@@ -70,22 +220,89 @@ public class WorkOrderSqlRepository {
         return list;
     }
 
+    /**
+     * Minimal projection of one equipment row on a customer's active work order,
+     * used for duplicate detection without loading the full work order graph.
+     */
+    public static class ActiveItemFingerprint {
+        private final Long workOrderId;
+        private final String serviceType;
+        private final String brand;
+        private final String model;
+        private final Long bootId;
+        private final String status;
+
+        public ActiveItemFingerprint(Long workOrderId, String serviceType, String brand, String model, Long bootId, String status) {
+            this.workOrderId = workOrderId;
+            this.serviceType = serviceType;
+            this.brand = brand;
+            this.model = model;
+            this.bootId = bootId;
+            this.status = status;
+        }
+
+        public Long getWorkOrderId() { return workOrderId; }
+        public String getServiceType() { return serviceType; }
+        public String getBrand() { return brand; }
+        public String getModel() { return model; }
+        public Long getBootId() { return bootId; }
+        public String getStatus() { return status; }
+    }
+
+    /**
+     * Equipment fingerprints (service type, brand, model, boot, status) for all of a customer's
+     * work orders in the given statuses, in one join. Ordered by work order id, then equipment id.
+     */
+    public List<ActiveItemFingerprint> findItemFingerprintsByCustomerIdAndStatusIn(Long customerId, List<String> statuses) {
+        if (statuses == null || statuses.isEmpty()) {
+            return List.of();
+        }
+        String inSql = String.join(",", java.util.Collections.nCopies(statuses.size(), "?"));
+        String sql = "SELECT wo.id AS work_order_id, e.serviceType, e.brand, e.model, e.boot_id, e.status"
+            + " FROM work_orders wo"
+            + " JOIN work_order_items woi ON woi.work_order_id = wo.id"
+            + " JOIN equipment e ON e.id = woi.equipment_id"
+            + " WHERE wo.customer_id = ? AND wo.status IN (" + inSql + ")"
+            + " ORDER BY wo.id ASC, e.id ASC";
+        java.util.List<Object> params = new java.util.ArrayList<>();
+        params.add(customerId);
+        params.addAll(statuses);
+        return jdbcTemplate.query(sql, (rs, rowNum) -> {
+            Object bootIdObj = rs.getObject("boot_id");
+            return new ActiveItemFingerprint(
+                rs.getLong("work_order_id"),
+                rs.getString("serviceType"),
+                rs.getString("brand"),
+                rs.getString("model"),
+                bootIdObj != null ? rs.getLong("boot_id") : null,
+                rs.getString("status"));
+        }, params.toArray());
+    }
+
+    /**
+     * Insert a new work order, or update it conditionally on the version it was read with.
+     *
+     * @throws OptimisticLockConflictException if the row was changed since it was read
+     */
     public int save(WorkOrder workOrder) {
         if (workOrder.getId() == null) {
             // Insert and capture generated key
             org.springframework.jdbc.support.KeyHolder keyHolder = new org.springframework.jdbc.support.GeneratedKeyHolder();
             jdbcTemplate.update(connection -> {
                 java.sql.PreparedStatement ps = connection.prepareStatement(
-                    "INSERT INTO work_orders (customer_id, status, createdAt, promised_by, completed_date, customer_created, notes) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                    "INSERT INTO work_orders (customer_id, status, createdAt, promised_by, completed_date, customer_created, notes, shop_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
                     java.sql.Statement.RETURN_GENERATED_KEYS
                 );
                 ps.setObject(1, workOrder.getCustomerId());
                 ps.setString(2, workOrder.getStatus());
-                if (workOrder.getCreatedAt() != null) ps.setTimestamp(3, java.sql.Timestamp.valueOf(workOrder.getCreatedAt())); else ps.setTimestamp(3, null);
+                // createdAt is the keyset pagination column; never insert it as NULL
+                if (workOrder.getCreatedAt() == null) workOrder.setCreatedAt(java.time.LocalDateTime.now());
+                ps.setTimestamp(3, java.sql.Timestamp.valueOf(workOrder.getCreatedAt()));
                 if (workOrder.getPromisedBy() != null) ps.setDate(4, java.sql.Date.valueOf(workOrder.getPromisedBy())); else ps.setDate(4, null);
                 if (workOrder.getCompletedDate() != null) ps.setTimestamp(5, java.sql.Timestamp.valueOf(workOrder.getCompletedDate())); else ps.setTimestamp(5, null);
                 ps.setObject(6, workOrder.getCustomerCreated());
                 ps.setString(7, workOrder.getNotes());
+                ps.setObject(8, workOrder.getShopId());
                 return ps;
             }, keyHolder);
             Number key = keyHolder.getKey();
@@ -95,16 +312,110 @@ public class WorkOrderSqlRepository {
             }
             return 0;
         } else {
-            return jdbcTemplate.update(
-                "UPDATE work_orders SET customer_id = ?, status = ?, createdAt = ?, promised_by = ?, completed_date = ?, customer_created = ?, notes = ? WHERE id = ?",
-                workOrder.getCustomerId(), workOrder.getStatus(), workOrder.getCreatedAt(), workOrder.getPromisedBy(), workOrder.getCompletedDate(), workOrder.getCustomerCreated(), workOrder.getNotes(), workOrder.getId()
+            int rows = jdbcTemplate.update(
+                "UPDATE work_orders SET customer_id = ?, status = ?, createdAt = ?, promised_by = ?, completed_date = ?, customer_created = ?, notes = ?, shop_id = COALESCE(?, shop_id), version = version + 1 WHERE id = ? AND version = ?",
+                workOrder.getCustomerId(), workOrder.getStatus(), workOrder.getCreatedAt(), workOrder.getPromisedBy(), workOrder.getCompletedDate(), workOrder.getCustomerCreated(), workOrder.getNotes(), workOrder.getShopId(), workOrder.getId(), workOrder.getVersion()
             );
+            if (rows == 0) {
+                throw new OptimisticLockConflictException("Work order", workOrder.getId());
+            }
+            workOrder.setVersion(workOrder.getVersion() + 1);
+            return rows;
+        }
+    }
+
+    /**
+     * Write status and completed_date of many work orders in one JDBC batch.
+     * Used after item-driven status recalculation, where nothing else on the row changes.
+     * Version-checked like save().
+     *
+     * @throws OptimisticLockConflictException if any of the rows was changed since it was read
+     */
+    public int[] updateStatusBatch(List<WorkOrder> workOrders) {
+        if (workOrders == null || workOrders.isEmpty()) {
+            return new int[0];
+        }
+        int[] updated = jdbcTemplate.batchUpdate(
+            "UPDATE work_orders SET status = ?, completed_date = ?, version = version + 1 WHERE id = ? AND version = ?",
+            new org.springframework.jdbc.core.BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(java.sql.PreparedStatement ps, int i) throws java.sql.SQLException {
+                    WorkOrder wo = workOrders.get(i);
+                    ps.setString(1, wo.getStatus());
+                    if (wo.getCompletedDate() != null) ps.setTimestamp(2, java.sql.Timestamp.valueOf(wo.getCompletedDate())); else ps.setTimestamp(2, null);
+                    ps.setLong(3, wo.getId());
+                    ps.setLong(4, wo.getVersion());
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return workOrders.size();
+                }
+            });
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                throw new OptimisticLockConflictException("Work order", workOrders.get(i).getId());
+            }
         }
+        for (WorkOrder wo : workOrders) {
+            wo.setVersion(wo.getVersion() + 1);
+        }
+        return updated;
     }
 
-    public List<WorkOrder> findCompletedWorkOrdersOrderByCompletedDateDesc() {
-        // Include both COMPLETED and PICKED_UP statuses as "completed" history
-        List<WorkOrder> list = jdbcTemplate.query("SELECT * FROM work_orders WHERE status IN ('COMPLETED', 'PICKED_UP') ORDER BY completed_date DESC", workOrderRowMapper);
+    /**
+     * Completed history (COMPLETED and PICKED_UP), newest completion first, with every filter
+     * evaluated in SQL. The service type filter is an EXISTS probe against work_order_items/equipment,
+     * so no equipment is loaded to decide whether a work order matches. Keyset pagination on
+     * (completed_date, id) descending; only the returned rows are enriched.
+     *
+     * @param shopId optional shop scope (null = all shops)
+     * @param serviceType optional equipment service type; matches work orders with at least one such item
+     * @param completedFrom optional inclusive lower bound on completed_date
+     * @param completedBefore optional exclusive upper bound on completed_date
+     * @param customerIds optional customer filter (null/empty = all customers)
+     * @param beforeCompletedDate completed_date of the last row of the previous page (null for first page)
+     * @param beforeId id of the last row of the previous page (null for first page)
+     * @param limit maximum rows to return
+     */
+    public List<WorkOrder> findCompletedHistory(Long shopId, String serviceType,
+                                                java.time.LocalDateTime completedFrom, java.time.LocalDateTime completedBefore,
+                                                java.util.Collection<Long> customerIds,
+                                                java.time.LocalDateTime beforeCompletedDate, Long beforeId, int limit) {
+        StringBuilder sql = new StringBuilder(
+            "SELECT wo.* FROM work_orders wo WHERE wo.status IN ('COMPLETED', 'PICKED_UP') AND wo.completed_date IS NOT NULL");
+        java.util.List<Object> params = new java.util.ArrayList<>();
+        if (shopId != null) {
+            sql.append(" AND wo.shop_id = ?");
+            params.add(shopId);
+        }
+        if (customerIds != null && !customerIds.isEmpty()) {
+            sql.append(" AND wo.customer_id IN (").append(SqlInClause.placeholders(customerIds.size())).append(")");
+            params.addAll(customerIds);
+        }
+        if (completedFrom != null) {
+            sql.append(" AND wo.completed_date >= ?");
+            params.add(java.sql.Timestamp.valueOf(completedFrom));
+        }
+        if (completedBefore != null) {
+            sql.append(" AND wo.completed_date < ?");
+            params.add(java.sql.Timestamp.valueOf(completedBefore));
+        }
+        if (serviceType != null && !serviceType.isBlank()) {
+            sql.append(" AND EXISTS (SELECT 1 FROM work_order_items woi JOIN equipment e ON e.id = woi.equipment_id")
+               .append(" WHERE woi.work_order_id = wo.id AND e.serviceType = ?)");
+            params.add(serviceType.trim().toUpperCase());
+        }
+        if (beforeCompletedDate != null && beforeId != null) {
+            java.sql.Timestamp beforeTs = java.sql.Timestamp.valueOf(beforeCompletedDate);
+            sql.append(" AND (wo.completed_date < ? OR (wo.completed_date = ? AND wo.id < ?))");
+            params.add(beforeTs);
+            params.add(beforeTs);
+            params.add(beforeId);
+        }
+        sql.append(" ORDER BY wo.completed_date DESC, wo.id DESC LIMIT ?");
+        params.add(limit);
+        List<WorkOrder> list = jdbcTemplate.query(sql.toString(), workOrderRowMapper, params.toArray());
         enrichWorkOrders(list);
         return list;
     }
@@ -135,6 +446,126 @@ public class WorkOrderSqlRepository {
         return list;
     }
 
+    /**
+     * Set shop_id on a work order that has none yet (legacy rows from before shop scoping).
+     * Leaves orders already owned by a shop untouched and does not bump the version - the owning
+     * shop is not an editable field.
+     *
+     * @return 1 if the shop was assigned, 0 if the work order already had one
+     */
+    public int assignShopIfMissing(Long workOrderId, Long shopId) {
+        return jdbcTemplate.update("UPDATE work_orders SET shop_id = ? WHERE id = ? AND shop_id IS NULL", shopId, workOrderId);
+    }
+
+    /**
+     * Keyset page of a shop's work orders ordered by (createdAt, id) ascending.
+     * Only the returned page is enriched, so cost is bounded by the page size rather
+     * than by the amount of history in the table.
+     *
+     * @param shopId active shop
+     * @param statuses optional status filter (null/empty = all statuses)
+     * @param serviceType optional equipment service type; matches work orders with at least one such item
+     * @param afterCreatedAt createdAt of the last row of the previous page (null for first page)
+     * @param afterId id of the last row of the previous page (null for first page)
+     * @param limit maximum rows to return
+     */
+    public List<WorkOrder> findPageByShopId(Long shopId, List<String> statuses, String serviceType,
+                                            java.time.LocalDateTime afterCreatedAt, Long afterId, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT wo.* FROM work_orders wo WHERE wo.shop_id = ?");
+        java.util.List<Object> params = new java.util.ArrayList<>();
+        params.add(shopId);
+        if (statuses != null && !statuses.isEmpty()) {
+            sql.append(" AND wo.status IN (").append(String.join(",", java.util.Collections.nCopies(statuses.size(), "?"))).append(")");
+            params.addAll(statuses);
+        }
+        if (serviceType != null && !serviceType.isBlank()) {
+            sql.append(" AND EXISTS (SELECT 1 FROM work_order_items woi JOIN equipment e ON e.id = woi.equipment_id")
+               .append(" WHERE woi.work_order_id = wo.id AND e.serviceType = ?)");
+            params.add(serviceType.trim().toUpperCase());
+        }
+        if (afterCreatedAt != null && afterId != null) {
+            java.sql.Timestamp afterTs = java.sql.Timestamp.valueOf(afterCreatedAt);
+            sql.append(" AND (wo.createdAt > ? OR (wo.createdAt = ? AND wo.id > ?))");
+            params.add(afterTs);
+            params.add(afterTs);
+            params.add(afterId);
+        }
+        sql.append(" ORDER BY wo.createdAt ASC, wo.id ASC LIMIT ?");
+        params.add(limit);
+        List<WorkOrder> list = jdbcTemplate.query(sql.toString(), workOrderRowMapper, params.toArray());
+        enrichWorkOrders(list);
+        return list;
+    }
+
+    private final RowMapper<com.finetune.app.model.dto.WorkOrderSummaryResponse> workOrderSummaryRowMapper = (rs, rowNum) -> {
+        com.finetune.app.model.dto.WorkOrderSummaryResponse dto = new com.finetune.app.model.dto.WorkOrderSummaryResponse();
+        dto.setId(rs.getLong("id"));
+        dto.setStatus(rs.getString("status"));
+        java.sql.Timestamp createdAtTs = rs.getTimestamp("createdAt");
+        dto.setCreatedAt(createdAtTs != null ? createdAtTs.toLocalDateTime() : null);
+        java.sql.Date promisedByDate = rs.getDate("promised_by");
+        dto.setPromisedBy(promisedByDate != null ? promisedByDate.toLocalDate() : null);
+        Object customerIdObj = rs.getObject("customer_id");
+        dto.setCustomerId(customerIdObj != null ? rs.getLong("customer_id") : null);
+        String firstName = rs.getString("firstName");
+        String lastName = rs.getString("lastName");
+        if (firstName != null || lastName != null) {
+            dto.setCustomerName(((firstName != null ? firstName : "") + " " + (lastName != null ? lastName : "")).trim());
+        }
+        dto.setEquipmentCount(rs.getInt("equipment_count"));
+        dto.setPendingCount(rs.getInt("pending_count"));
+        dto.setInProgressCount(rs.getInt("in_progress_count"));
+        dto.setDoneCount(rs.getInt("done_count"));
+        dto.setPickedUpCount(rs.getInt("picked_up_count"));
+        dto.setOpenTuneCount(rs.getInt("open_tune_count"));
+        dto.setOpenMountCount(rs.getInt("open_mount_count"));
+        dto.setOpenRepairCount(rs.getInt("open_repair_count"));
+        return dto;
+    };
+
+    /**
+     * Board cards for a shop: one query returning the work order columns the board shows, the
+     * customer name, the stored per-status item counters and the number of open (PENDING or
+     * IN_PROGRESS) items per service type. No equipment, boots or notes are loaded. Ordered by
+     * createdAt, then id.
+     *
+     * Without a status filter only active work orders are returned (not COMPLETED or PICKED_UP),
+     * so the result grows with the board, not with the shop's history; completed work orders are
+     * listed page by page through findPageByShopId.
+     *
+     * @param shopId active shop
+     * @param statuses optional status filter (null/empty = all active statuses)
+     */
+    public List<com.finetune.app.model.dto.WorkOrderSummaryResponse> findBoardSummariesByShopId(Long shopId, List<String> statuses) {
+        StringBuilder sql = new StringBuilder(
+            "SELECT wo.id, wo.status, wo.createdAt, wo.promised_by, wo.customer_id, c.firstName, c.lastName,"
+            + " wo.pending_count + wo.in_progress_count + wo.done_count + wo.picked_up_count AS equipment_count,"
+            + " wo.pending_count, wo.in_progress_count, wo.done_count, wo.picked_up_count,"
+            + openItemCount("TUNE") + " AS open_tune_count,"
+            + openItemCount("MOUNT") + " AS open_mount_count,"
+            + openItemCount("REPAIR") + " AS open_repair_count"
+            + " FROM work_orders wo"
+            + " LEFT JOIN customers c ON c.id = wo.customer_id"
+            + " WHERE wo.shop_id = ?");
+        java.util.List<Object> params = new java.util.ArrayList<>();
+        params.add(shopId);
+        if (statuses != null && !statuses.isEmpty()) {
+            sql.append(" AND wo.status IN (").append(String.join(",", java.util.Collections.nCopies(statuses.size(), "?"))).append(")");
+            params.addAll(statuses);
+        } else {
+            sql.append(" AND wo.status NOT IN ('COMPLETED', 'PICKED_UP')");
+        }
+        sql.append(" ORDER BY wo.createdAt ASC, wo.id ASC");
+        return jdbcTemplate.query(sql.toString(), workOrderSummaryRowMapper, params.toArray());
+    }
+
+    // Open items of one service type on the current work order row (uses the work_order_id index)
+    private static String openItemCount(String serviceType) {
+        return " (SELECT COUNT(*) FROM work_order_items woi JOIN equipment e ON e.id = woi.equipment_id"
+            + " WHERE woi.work_order_id = wo.id AND e.serviceType = '" + serviceType + "'"
+            + " AND e.status IN ('PENDING', 'IN_PROGRESS'))";
+    }
+
     /**
      * Find all work orders for a specific customer, ordered by createdAt desc.
      * Each work order is enriched with equipment and boots.
@@ -148,43 +579,24 @@ public class WorkOrderSqlRepository {
     // Helper to enrich a single work order with customer, equipment, and notes
     private void enrichWorkOrder(WorkOrder wo) {
         if (wo == null) return;
-        Long cid = wo.getCustomerId();
-        if (cid != null) {
-            customerRepository.findById(cid).ifPresent(wo::setCustomer);
-        }
-        // Load equipment list
-        try {
-            java.util.List<com.finetune.app.model.Equipment> equipmentList = equipmentRepository.findByWorkOrderId(wo.getId());
-            // For mount service types, load the boot details for each equipment that has a boot_id
-            if (equipmentList != null) {
-                for (com.finetune.app.model.Equipment eq : equipmentList) {
-                    Long bid = eq.getBootId();
-                    if (bid != null) {
-                        try {
-                            bootRepository.findById(bid).ifPresent(eq::setBoot);
-                        } catch (Exception ex) {
-                            // ignore individual boot load failures
-                        }
-                    }
-                }
-            }
-            wo.setEquipment(equipmentList);
-        } catch (Exception e) {
-            // ignore if equipment repo not available
-        }
-        // Load notes list
-        try {
-            wo.setNotesList(workOrderNoteRepository.findByWorkOrderIdOrderByCreatedAtDesc(wo.getId()));
-        } catch (Exception e) {
-            // ignore if notes repo not available
-        }
+        graphLoader.load(List.of(wo));
     }
 
+    // Enrich a whole list in a fixed number of queries (see WorkOrderGraphLoader)
     private void enrichWorkOrders(List<WorkOrder> list) {
         if (list == null || list.isEmpty()) return;
-        for (WorkOrder wo : list) {
-            enrichWorkOrder(wo);
-        }
+        graphLoader.load(list);
+    }
+
+    /**
+     * Creation times of the customer's customer-created work orders since the given time, oldest first.
+     * Seeds the per-customer sliding window in DailyWorkOrderLimiter.
+     */
+    public List<java.time.LocalDateTime> findCustomerCreatedTimesSince(Long customerId, java.time.LocalDateTime since) {
+        return jdbcTemplate.query(
+            "SELECT createdAt FROM work_orders WHERE customer_id = ? AND customer_created = 1 AND createdAt >= ? ORDER BY createdAt ASC",
+            (rs, rowNum) -> rs.getTimestamp("createdAt").toLocalDateTime(),
+            customerId, java.sql.Timestamp.valueOf(since));
     }
 
     public boolean existsById(Long id) {
@@ -10,29 +10,58 @@ import org.thymeleaf.context.Context;
 import org.xhtmlrenderer.pdf.ITextRenderer;
 
 
-import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
 import java.time.LocalDateTime;
+import java.util.HexFormat;
 import java.util.UUID;
 
 /**
  * Service for generating agreement PDF documents and uploading to R2 storage.
  * Uses Thymeleaf for HTML templating and Flying Saucer for PDF generation.
- * PDFs are generated in memory and uploaded directly to Cloudflare R2.
+ * PDFs are streamed to Cloudflare R2 as they are rendered, without disk writes.
  */
 @Service
 public class AgreementPdfService {
 
     private final TemplateEngine templateEngine;
     private final ObjectStorageService objectStorageService;
+    private final AgreementTemplateCache agreementTemplateCache;
 
-    public AgreementPdfService(TemplateEngine templateEngine, ObjectStorageService objectStorageService) {
+    public AgreementPdfService(TemplateEngine templateEngine, ObjectStorageService objectStorageService,
+                               AgreementTemplateCache agreementTemplateCache) {
         this.templateEngine = templateEngine;
         this.objectStorageService = objectStorageService;
+        this.agreementTemplateCache = agreementTemplateCache;
     }
 
     /**
-     * Generate a PDF agreement document, upload to R2, and return storage key.
-     * PDF is generated in memory and uploaded directly without writing to disk.
+     * Result of a single render + upload: where the PDF was stored and the SHA-256 of its bytes.
+     */
+    public static final class UploadedPdf {
+        private final String storageKey;
+        private final String documentHash;
+
+        public UploadedPdf(String storageKey, String documentHash) {
+            this.storageKey = storageKey;
+            this.documentHash = documentHash;
+        }
+
+        public String getStorageKey() {
+            return storageKey;
+        }
+
+        public String getDocumentHash() {
+            return documentHash;
+        }
+    }
+
+    /**
+     * Generate a PDF agreement document, upload to R2, and return storage key and document hash.
+     * The PDF is rendered once and streamed to R2 while it is written (see ObjectUploadStream), so
+     * at most a few upload parts are held in memory; the SHA-256 is computed on the same bytes
+     * (via a DigestOutputStream), so no second render is needed.
      *
      * @param agreementTemplate The agreement template to use
      * @param workOrder The work order associated with this agreement
@@ -40,10 +69,10 @@ public class AgreementPdfService {
      * @param signatureName The name used for the signature
      * @param ipAddress The IP address of the person signing
      * @param userAgent The user agent string of the browser
-     * @return Storage key for the uploaded PDF (e.g., "agreements/{shopId}/{workOrderId}/{uuid}.pdf")
+     * @return Storage key (e.g., "agreements/{shopId}/{workOrderId}/{uuid}.pdf") and hex SHA-256 hash
      * @throws Exception if PDF generation or upload fails
      */
-        public String generateAndUploadAgreementPdf(
+        public UploadedPdf generateAndUploadAgreementPdf(
             AgreementTemplate agreementTemplate,
             WorkOrder workOrder,
             Customer customer,
@@ -52,49 +81,33 @@ public class AgreementPdfService {
             String userAgent,
             String signatureImageBase64) throws Exception {
 
-        // Generate PDF in memory
-        ByteArrayOutputStream pdfStream = generatePdfStream(
-            agreementTemplate, workOrder, customer, signatureName, ipAddress, userAgent, signatureImageBase64);
-        
-        byte[] pdfBytes = pdfStream.toByteArray();
-        
         // Generate storage key: agreements/{shopId}/{workOrderId}/{uuid}.pdf
         Shop shop = agreementTemplate.getShop();
         String storageKey = String.format("agreements/%s/%s/%s.pdf", 
                 shop != null ? shop.getId() : "unknown",
                 workOrder.getId(),
                 UUID.randomUUID().toString());
-        
-        // Upload to R2 (directly from memory, no disk writes)
-        objectStorageService.uploadPdf(pdfBytes, storageKey);
 
-        // Also save to user's Desktop (Windows only, safe for your dev environment)
-        try {
-            String userHome = System.getProperty("user.home");
-            System.out.println("[AgreementPdfService] user.home=" + userHome);
-            String desktopPath = userHome + java.io.File.separator + "Desktop";
-            System.out.println("[AgreementPdfService] desktopPath=" + desktopPath);
-            String fileName = String.format("Agreement_%s_%s.pdf",
-                    shop != null ? shop.getId() : "unknown",
-                    workOrder.getId());
-            System.out.println("[AgreementPdfService] fileName=" + fileName);
-            java.nio.file.Path outputPath = java.nio.file.Paths.get(desktopPath, fileName);
-            System.out.println("[AgreementPdfService] outputPath=" + outputPath.toString());
-            java.nio.file.Files.write(outputPath, pdfBytes);
-            System.out.println("[AgreementPdfService] PDF successfully written to Desktop: " + outputPath);
+        // Render straight into the upload, hashing as it is written; closing the stream
+        // completes the upload
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        ObjectUploadStream upload = objectStorageService.openUploadStream(storageKey, "application/pdf");
+        try (DigestOutputStream digestStream = new DigestOutputStream(upload, digest)) {
+            generatePdf(agreementTemplate, workOrder, customer, signatureName, ipAddress, userAgent,
+                    signatureImageBase64, digestStream);
         } catch (Exception e) {
-            // Log but do not fail the upload if desktop write fails
-            System.err.println("[AgreementPdfService] Failed to write PDF to Desktop: " + e.getMessage());
-            e.printStackTrace();
+            // Never store a truncated agreement (no-op if the upload itself is what failed)
+            upload.abort();
+            throw e;
         }
+        String documentHash = HexFormat.of().formatHex(digest.digest());
 
-        return storageKey;
+        return new UploadedPdf(storageKey, documentHash);
     }
 
     /**
-     * Generate a PDF agreement document and return as byte array.
-     * This method is used when you need the PDF bytes (e.g., for hash generation).
-     * Does NOT upload to storage.
+     * Render the PDF into the given stream. Package-private so AgreementPdfRenderBenchmark can
+     * measure rendering without an upload.
      *
      * @param agreementTemplate The agreement template to use
      * @param workOrder The work order associated with this agreement
@@ -102,76 +115,25 @@ public class AgreementPdfService {
      * @param signatureName The name used for the signature
      * @param ipAddress The IP address of the person signing
      * @param userAgent The user agent string of the browser
-     * @return PDF bytes
+     * @param out Stream the PDF document is written to
      * @throws Exception if PDF generation fails
      */
-        public byte[] generateAgreementPdfBytes(
+        void generatePdf(
             AgreementTemplate agreementTemplate,
             WorkOrder workOrder,
             Customer customer,
             String signatureName,
             String ipAddress,
             String userAgent,
-            String signatureImageBase64) throws Exception {
-
-        ByteArrayOutputStream pdfStream = generatePdfStream(
-            agreementTemplate, workOrder, customer, signatureName, ipAddress, userAgent, signatureImageBase64);
-        return pdfStream.toByteArray();
-        }
+            String signatureImageBase64,
+            OutputStream out) throws Exception {
 
-    /**
-     * Internal method to generate PDF stream.
-     *
-     * @param agreementTemplate The agreement template to use
-     * @param workOrder The work order associated with this agreement
-     * @param customer The customer signing the agreement
-     * @param signatureName The name used for the signature
-     * @param ipAddress The IP address of the person signing
-     * @param userAgent The user agent string of the browser
-     * @return ByteArrayOutputStream containing the PDF document
-     * @throws Exception if PDF generation fails
-     */
-        private ByteArrayOutputStream generatePdfStream(
-            AgreementTemplate agreementTemplate,
-            WorkOrder workOrder,
-            Customer customer,
-            String signatureName,
-            String ipAddress,
-            String userAgent,
-            String signatureImageBase64) throws Exception {
-
-        // Create Thymeleaf context with all required variables
+        // Create Thymeleaf context: the shop header and agreement terms (incl. embedded logo)
+        // come pre-rendered from the cache, only the per-signature variables are set here
         Context context = new Context();
+        context.setVariable("termsHtml", agreementTemplateCache.get(agreementTemplate).getTermsHtml());
         // Signature image (base64 PNG)
         context.setVariable("signatureImageBase64", signatureImageBase64);
-        // Template information
-        context.setVariable("title", agreementTemplate.getTitle());
-        context.setVariable("agreementText", agreementTemplate.getAgreementText());
-        context.setVariable("jurisdictionState", agreementTemplate.getJurisdictionState());
-        
-        // Shop information
-        Shop shop = agreementTemplate.getShop();
-        context.setVariable("shopName", shop != null ? shop.getName() : "");
-        
-        // Logo URL: Use template's logoUrl if set, otherwise fall back to shop's logoUrl
-        String logoUrl = agreementTemplate.getLogoUrl();
-        if ((logoUrl == null || logoUrl.trim().isEmpty()) && shop != null) {
-            logoUrl = shop.getLogoUrl();
-        }
-        context.setVariable("logoUrl", logoUrl);
-        
-        // Shop address from Location
-        if (shop != null && shop.getLocation() != null) {
-            context.setVariable("shopAddress", shop.getLocation().getAddress());
-            context.setVariable("shopCity", shop.getLocation().getCity());
-            context.setVariable("shopState", shop.getLocation().getState());
-            context.setVariable("shopZipCode", shop.getLocation().getZipCode());
-        } else {
-            context.setVariable("shopAddress", "");
-            context.setVariable("shopCity", "");
-            context.setVariable("shopState", "");
-            context.setVariable("shopZipCode", "");
-        }
         
         // Customer information
         context.setVariable("customerName", customer.getFirstName() + " " + customer.getLastName());
@@ -195,19 +157,17 @@ public class AgreementPdfService {
         String htmlContent = templateEngine.process("agreement-pdf", context);
 
         // Convert HTML to PDF
-        return convertHtmlToPdf(htmlContent);
+        convertHtmlToPdf(htmlContent, out);
     }
 
     /**
      * Convert HTML content to PDF using Flying Saucer.
      *
      * @param htmlContent The HTML content to convert
-     * @return ByteArrayOutputStream containing the PDF document
+     * @param outputStream Stream the PDF document is written to
      * @throws Exception if conversion fails
      */
-    private ByteArrayOutputStream convertHtmlToPdf(String htmlContent) throws Exception {
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        
+    private void convertHtmlToPdf(String htmlContent, OutputStream outputStream) throws Exception {
         try {
             // Create ITextRenderer instance
             ITextRenderer renderer = new ITextRenderer();
@@ -220,8 +180,6 @@ public class AgreementPdfService {
             
             // Create PDF
             renderer.createPDF(outputStream);
-            
-            return outputStream;
         } catch (Exception e) {
             throw new Exception("Failed to generate PDF: " + e.getMessage(), e);
         }
@@ -0,0 +1,273 @@
+package com.finetune.app.service;
+
+import com.finetune.app.model.AgreementSigningJob;
+import com.finetune.app.model.Shop;
+import com.finetune.app.model.SignedAgreement;
+import com.finetune.app.model.WorkOrder;
+import com.finetune.app.model.enums.SigningJobStatus;
+import com.finetune.app.repository.sql.AgreementSigningJobSqlRepository;
+import com.finetune.app.repository.sql.ShopSqlRepository;
+import com.finetune.app.repository.sql.WorkOrderSqlRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.exception.SdkClientException;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs agreement signing (render PDF, upload to R2, persist SignedAgreement) off the request thread.
+ *
+ * Jobs are stored in agreement_signing_jobs before they are handed to a bounded worker pool, so
+ * the table - not the in-memory queue - is the source of truth:
+ * - a poller re-dispatches due PENDING jobs (retries, jobs rejected by a full queue)
+ * - jobs left RUNNING by a shutdown/crash are put back to PENDING at startup
+ * - transient storage/DB failures are retried with exponential backoff up to max-attempts;
+ *   anything else (e.g. no active agreement template) fails the job immediately
+ */
+@Service
+public class AgreementSigningJobService {
+
+    private final AgreementSigningJobSqlRepository jobRepository;
+    private final WorkOrderSqlRepository workOrderRepository;
+    private final ShopSqlRepository shopRepository;
+    private final SignedAgreementService signedAgreementService;
+
+    private final int maxAttempts;
+    private final long retryBaseMillis;
+    private final long retryMaxMillis;
+    private final long pollIntervalMillis;
+
+    private final ThreadPoolExecutor workers;
+    private final ScheduledExecutorService poller;
+
+    // Job ids currently queued or running in this JVM, so the poller does not enqueue them twice
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    public AgreementSigningJobService(
+            AgreementSigningJobSqlRepository jobRepository,
+            WorkOrderSqlRepository workOrderRepository,
+            ShopSqlRepository shopRepository,
+            SignedAgreementService signedAgreementService,
+            @Value("${app.signing.workers:4}") int workerCount,
+            @Value("${app.signing.queue-capacity:100}") int queueCapacity,
+            @Value("${app.signing.max-attempts:5}") int maxAttempts,
+            @Value("${app.signing.retry-base-seconds:5}") long retryBaseSeconds,
+            @Value("${app.signing.retry-max-seconds:300}") long retryMaxSeconds,
+            @Value("${app.signing.poll-interval-seconds:5}") long pollIntervalSeconds) {
+        this.jobRepository = jobRepository;
+        this.workOrderRepository = workOrderRepository;
+        this.shopRepository = shopRepository;
+        this.signedAgreementService = signedAgreementService;
+        this.maxAttempts = maxAttempts;
+        this.retryBaseMillis = retryBaseSeconds * 1000L;
+        this.retryMaxMillis = retryMaxSeconds * 1000L;
+        this.pollIntervalMillis = pollIntervalSeconds * 1000L;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(
+                workerCount, workerCount, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "agreement-signing-" + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.poller = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "agreement-signing-poller");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Requeue jobs interrupted by the last shutdown and start polling for due jobs.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        try {
+            int requeued = jobRepository.requeueRunning();
+            if (requeued > 0) {
+                System.out.println("[AgreementSigningJobService] Requeued " + requeued + " interrupted signing job(s)");
+            }
+        } catch (Exception e) {
+            System.err.println("[AgreementSigningJobService] Could not requeue interrupted jobs: " + e.getMessage());
+        }
+        poller.scheduleWithFixedDelay(this::dispatchDueJobs, 0, pollIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        poller.shutdownNow();
+        workers.shutdown();
+        try {
+            workers.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Record a signing job and hand it to the worker pool.
+     * If the work order already has a pending/running job, that job is returned instead.
+     */
+    public AgreementSigningJob submit(
+            WorkOrder workOrder,
+            Shop shop,
+            String signatureName,
+            String signatureIp,
+            String signatureUserAgent,
+            String signatureImageBase64) {
+
+        Optional<AgreementSigningJob> active = jobRepository.findActiveByWorkOrderId(workOrder.getId());
+        if (active.isPresent()) {
+            return active.get();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        AgreementSigningJob job = new AgreementSigningJob();
+        job.setId(UUID.randomUUID().toString());
+        job.setWorkOrderId(workOrder.getId());
+        job.setShopId(shop != null ? shop.getId() : null);
+        job.setSignatureName(signatureName);
+        job.setSignatureIp(signatureIp);
+        job.setSignatureUserAgent(signatureUserAgent);
+        job.setSignatureImageBase64(signatureImageBase64);
+        job.setStatus(SigningJobStatus.PENDING);
+        job.setAttempts(0);
+        job.setNextAttemptAt(now);
+        job.setCreatedAt(now);
+        jobRepository.insert(job);
+
+        dispatch(job.getId());
+        return job;
+    }
+
+    public Optional<AgreementSigningJob> getJob(String jobId) {
+        return jobRepository.findById(jobId);
+    }
+
+    private void dispatchDueJobs() {
+        try {
+            int capacity = workers.getQueue().remainingCapacity();
+            if (capacity <= 0) return;
+            List<String> dueIds = jobRepository.findDueIds(LocalDateTime.now(), capacity);
+            for (String id : dueIds) {
+                dispatch(id);
+            }
+        } catch (Exception e) {
+            // Keep the poller alive; it will try again on the next tick
+            System.err.println("[AgreementSigningJobService] Poll failed: " + e.getMessage());
+        }
+    }
+
+    private void dispatch(String jobId) {
+        if (!inFlight.add(jobId)) return;
+        try {
+            workers.execute(() -> {
+                try {
+                    process(jobId);
+                } finally {
+                    inFlight.remove(jobId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Queue full (or shutting down): the job stays PENDING and the poller picks it up later
+            inFlight.remove(jobId);
+        }
+    }
+
+    private void process(String jobId) {
+        if (!jobRepository.claim(jobId)) return;
+        AgreementSigningJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null) return;
+
+        try {
+            WorkOrder workOrder = workOrderRepository.findById(job.getWorkOrderId())
+                    .orElseThrow(() -> new IllegalArgumentException("Work order not found with id: " + job.getWorkOrderId()));
+
+            // A previous attempt may have persisted the agreement before the job row was updated
+            SignedAgreement existing = signedAgreementService.findByWorkOrderId(workOrder.getId());
+            if (existing != null) {
+                jobRepository.markCompleted(jobId, existing.getId());
+                return;
+            }
+
+            Shop shop = job.getShopId() != null ? shopRepository.findById(job.getShopId()).orElse(null) : null;
+            if (shop == null) {
+                throw new IllegalArgumentException("Shop not found for signing job " + jobId);
+            }
+
+            SignedAgreement signedAgreement = signedAgreementService.createSignedAgreementWorkflow(
+                    workOrder,
+                    shop,
+                    job.getSignatureName(),
+                    job.getSignatureIp(),
+                    job.getSignatureUserAgent(),
+                    job.getSignatureImageBase64());
+            jobRepository.markCompleted(jobId, signedAgreement.getId());
+            System.out.println("[AgreementSigningJobService] Job " + jobId + " completed for workOrderId=" + workOrder.getId());
+
+        } catch (Exception e) {
+            String error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            try {
+                if (isTransient(e) && job.getAttempts() < maxAttempts) {
+                    LocalDateTime next = LocalDateTime.now().plusNanos(backoffMillis(job.getAttempts()) * 1_000_000L);
+                    jobRepository.markRetry(jobId, next, error);
+                    System.err.println("[AgreementSigningJobService] Job " + jobId + " attempt " + job.getAttempts() + " failed, retrying at " + next + ": " + error);
+                } else {
+                    jobRepository.markFailed(jobId, error);
+                    System.err.println("[AgreementSigningJobService] Job " + jobId + " failed: " + error);
+                }
+            } catch (Exception updateError) {
+                // Row stays RUNNING; it is requeued on the next startup
+                System.err.println("[AgreementSigningJobService] Could not record failure for job " + jobId + ": " + updateError.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Exponential backoff (base * 2^(attempt-1), capped) with up to 20% jitter.
+     */
+    private long backoffMillis(int attempt) {
+        long delay = retryBaseMillis << Math.min(Math.max(attempt - 1, 0), 20);
+        delay = Math.min(delay, retryMaxMillis);
+        return delay + ThreadLocalRandom.current().nextLong(delay / 5 + 1);
+    }
+
+    /**
+     * Storage/network errors and transient DB errors are worth retrying; validation errors are not.
+     */
+    private boolean isTransient(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SdkClientException || t instanceof IOException || t instanceof TransientDataAccessException) {
+                return true;
+            }
+            if (t instanceof AwsServiceException) {
+                int status = ((AwsServiceException) t).statusCode();
+                return status >= 500 || status == 429;
+            }
+            if (t.getCause() == t) break;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,223 @@
+package com.finetune.app.service;
+
+import com.finetune.app.model.AgreementTemplate;
+import com.finetune.app.model.Shop;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-template cache of everything in an agreement PDF that does not depend on the signer.
+ *
+ * For each AgreementTemplate id it keeps the agreement-pdf-terms fragment (shop header, title,
+ * jurisdiction and agreement text) already rendered to HTML, with the logo preloaded once and
+ * embedded as a data: URI so Flying Saucer does not fetch it on every render. AgreementPdfService
+ * passes that HTML to agreement-pdf as termsHtml, so per signature Thymeleaf only processes the
+ * signer section.
+ *
+ * AgreementTemplateService invalidates entries when templates are created, updated, activated,
+ * deactivated or deleted. Each entry also remembers the inputs it was built from and is rebuilt
+ * if they differ (e.g. the shop's logo changed), so a missed invalidation cannot serve stale data.
+ * An entry whose logo could not be loaded falls back to the plain URL and expires after
+ * app.agreements.logo-retry-seconds, so a slow or unavailable logo host is retried rather than
+ * left out of every PDF until the template changes.
+ */
+@Component
+public class AgreementTemplateCache {
+
+    private static final int MAX_LOGO_BYTES = 2 * 1024 * 1024;
+    private static final int LOGO_TIMEOUT_MILLIS = 5000;
+
+    private final Map<Long, CompiledAgreementTemplate> compiledById = new ConcurrentHashMap<>();
+
+    private final ObjectStore objectStore;
+    private final TemplateEngine templateEngine;
+    private final long logoRetryMillis;
+
+    public AgreementTemplateCache(ObjectStore objectStore, TemplateEngine templateEngine,
+                                  @Value("${app.agreements.logo-retry-seconds:60}") long logoRetrySeconds) {
+        this.objectStore = objectStore;
+        this.templateEngine = templateEngine;
+        this.logoRetryMillis = logoRetrySeconds * 1000;
+    }
+
+    /**
+     * Signer-independent part of an agreement, rendered once.
+     */
+    public static final class CompiledAgreementTemplate {
+        private final String sourceKey;
+        private final String termsHtml;
+        private final long expiresAtMillis;
+
+        CompiledAgreementTemplate(String sourceKey, String termsHtml, long expiresAtMillis) {
+            this.sourceKey = sourceKey;
+            this.termsHtml = termsHtml;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        /**
+         * The rendered agreement-pdf-terms fragment.
+         */
+        public String getTermsHtml() {
+            return termsHtml;
+        }
+
+        boolean isUsableFor(String key) {
+            return sourceKey.equals(key) && System.currentTimeMillis() < expiresAtMillis;
+        }
+    }
+
+    /**
+     * Return the compiled form of the template, building it on first use or when its inputs changed.
+     */
+    public CompiledAgreementTemplate get(AgreementTemplate template) {
+        String sourceKey = sourceKey(template);
+        if (template.getId() == null) {
+            return compile(template, sourceKey);
+        }
+        CompiledAgreementTemplate cached = compiledById.get(template.getId());
+        if (cached != null && cached.isUsableFor(sourceKey)) {
+            return cached;
+        }
+        CompiledAgreementTemplate compiled = compile(template, sourceKey);
+        compiledById.put(template.getId(), compiled);
+        return compiled;
+    }
+
+    public void invalidate(Long templateId) {
+        if (templateId != null) {
+            compiledById.remove(templateId);
+        }
+    }
+
+    public void invalidateAll() {
+        compiledById.clear();
+    }
+
+    private CompiledAgreementTemplate compile(AgreementTemplate template, String sourceKey) {
+        Map<String, Object> variables = new HashMap<>();
+
+        // Template information
+        variables.put("title", template.getTitle());
+        variables.put("agreementText", template.getAgreementText());
+        variables.put("jurisdictionState", template.getJurisdictionState());
+
+        // Shop information
+        Shop shop = template.getShop();
+        variables.put("shopName", shop != null && shop.getName() != null ? shop.getName() : "");
+
+        // Logo: preload once and embed, falling back to the plain URL if it cannot be read
+        String logoUrl = resolveLogoUrl(template);
+        String embeddedLogo = logoUrl != null ? embedLogo(logoUrl) : null;
+        variables.put("logoUrl", embeddedLogo != null ? embeddedLogo : logoUrl);
+
+        // Shop address from Location
+        if (shop != null && shop.getLocation() != null) {
+            variables.put("shopAddress", shop.getLocation().getAddress());
+            variables.put("shopCity", shop.getLocation().getCity());
+            variables.put("shopState", shop.getLocation().getState());
+            variables.put("shopZipCode", shop.getLocation().getZipCode());
+        } else {
+            variables.put("shopAddress", "");
+            variables.put("shopCity", "");
+            variables.put("shopState", "");
+            variables.put("shopZipCode", "");
+        }
+
+        String termsHtml = templateEngine.process("agreement-pdf-terms", new Context(null, variables));
+
+        // A failed logo load is only kept briefly; everything else lives until invalidated
+        long expiresAtMillis = logoUrl != null && embeddedLogo == null
+                ? System.currentTimeMillis() + logoRetryMillis
+                : Long.MAX_VALUE;
+        return new CompiledAgreementTemplate(sourceKey, termsHtml, expiresAtMillis);
+    }
+
+    /**
+     * Template's logoUrl if set, otherwise the shop's logoUrl.
+     */
+    private String resolveLogoUrl(AgreementTemplate template) {
+        String logoUrl = template.getLogoUrl();
+        Shop shop = template.getShop();
+        if ((logoUrl == null || logoUrl.trim().isEmpty()) && shop != null) {
+            logoUrl = shop.getLogoUrl();
+        }
+        return logoUrl == null || logoUrl.trim().isEmpty() ? null : logoUrl.trim();
+    }
+
+    /**
+     * The logo as a data: URI, the URL itself if it is not something that can be preloaded
+     * (already a data: URI, a relative path, or larger than MAX_LOGO_BYTES), or null if loading
+     * it failed.
+     */
+    private String embedLogo(String logoUrl) {
+        if (logoUrl.startsWith("data:")) return logoUrl;
+        try {
+            byte[] bytes;
+            String contentType = null;
+            if (logoUrl.startsWith("/uploads/")) {
+                // Served by ShopAssetController from the asset ObjectStore
+                String key = logoUrl.substring("/uploads/".length());
+                long size = objectStore.size(key);
+                if (size < 0) return null;
+                if (size > MAX_LOGO_BYTES) return logoUrl;
+                try (InputStream in = objectStore.open(key)) {
+                    bytes = in.readAllBytes();
+                }
+            } else if (logoUrl.startsWith("http://") || logoUrl.startsWith("https://")) {
+                URLConnection connection = new URL(logoUrl).openConnection();
+                connection.setConnectTimeout(LOGO_TIMEOUT_MILLIS);
+                connection.setReadTimeout(LOGO_TIMEOUT_MILLIS);
+                contentType = connection.getContentType();
+                try (InputStream in = connection.getInputStream()) {
+                    bytes = in.readNBytes(MAX_LOGO_BYTES + 1);
+                }
+                if (bytes.length > MAX_LOGO_BYTES) return logoUrl;
+            } else {
+                return logoUrl;
+            }
+            if (contentType == null || !contentType.startsWith("image/")) {
+                contentType = guessContentType(logoUrl);
+            }
+            return "data:" + contentType + ";base64," + Base64.getEncoder().encodeToString(bytes);
+        } catch (Exception e) {
+            System.err.println("[AgreementTemplateCache] Could not preload logo " + logoUrl + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private String guessContentType(String url) {
+        String lower = url.toLowerCase();
+        if (lower.endsWith(".jpg") || lower.endsWith(".jpeg")) return "image/jpeg";
+        if (lower.endsWith(".gif")) return "image/gif";
+        if (lower.endsWith(".svg")) return "image/svg+xml";
+        return "image/png";
+    }
+
+    /**
+     * Fingerprint of the inputs a compiled entry depends on.
+     */
+    private String sourceKey(AgreementTemplate template) {
+        Shop shop = template.getShop();
+        return String.valueOf(Objects.hash(
+                template.getTitle(),
+                template.getAgreementText(),
+                template.getJurisdictionState(),
+                resolveLogoUrl(template),
+                shop != null ? shop.getName() : null,
+                shop != null && shop.getLocation() != null ? shop.getLocation().getAddress() : null,
+                shop != null && shop.getLocation() != null ? shop.getLocation().getCity() : null,
+                shop != null && shop.getLocation() != null ? shop.getLocation().getState() : null,
+                shop != null && shop.getLocation() != null ? shop.getLocation().getZipCode() : null));
+    }
+}
@@ -17,9 +17,12 @@ import java.util.Optional;
 public class AgreementTemplateService {
 
     private final AgreementTemplateSqlRepository agreementTemplateRepository;
+    private final AgreementTemplateCache agreementTemplateCache;
 
-    public AgreementTemplateService(AgreementTemplateSqlRepository agreementTemplateRepository) {
+    public AgreementTemplateService(AgreementTemplateSqlRepository agreementTemplateRepository,
+                                    AgreementTemplateCache agreementTemplateCache) {
         this.agreementTemplateRepository = agreementTemplateRepository;
+        this.agreementTemplateCache = agreementTemplateCache;
     }
 
     /**
@@ -64,7 +67,9 @@ public class AgreementTemplateService {
         if (template.getIsActive()) {
             deactivateExistingTemplates(template.getShop());
         }
-        return agreementTemplateRepository.save(template);
+        AgreementTemplate saved = agreementTemplateRepository.save(template);
+        agreementTemplateCache.invalidate(saved.getId());
+        return saved;
     }
 
     /**
@@ -90,6 +95,7 @@ public class AgreementTemplateService {
             
             existing.setIsActive(updatedTemplate.getIsActive());
             
+            agreementTemplateCache.invalidate(existing.getId());
             return agreementTemplateRepository.save(existing);
         });
     }
@@ -106,6 +112,7 @@ public class AgreementTemplateService {
         return agreementTemplateRepository.findById(Long.valueOf(id)).map(template -> {
             deactivateExistingTemplates(template.getShop());
             template.setIsActive(true);
+            agreementTemplateCache.invalidate(template.getId());
             return agreementTemplateRepository.save(template);
         });
     }
@@ -120,6 +127,7 @@ public class AgreementTemplateService {
     public Optional<AgreementTemplate> deactivateTemplate(String id) {
         return agreementTemplateRepository.findById(Long.valueOf(id)).map(template -> {
             template.setIsActive(false);
+            agreementTemplateCache.invalidate(template.getId());
             return agreementTemplateRepository.save(template);
         });
     }
@@ -135,6 +143,7 @@ public class AgreementTemplateService {
         Long longId = Long.valueOf(id);
         if (agreementTemplateRepository.existsById(longId)) {
             agreementTemplateRepository.deleteById(longId);
+            agreementTemplateCache.invalidate(longId);
             return true;
         }
         return false;
@@ -152,6 +161,7 @@ public class AgreementTemplateService {
         List<AgreementTemplate> activeTemplates = agreementTemplateRepository.findByShopAndIsActive(shop.getId(), true);
         activeTemplates.forEach(template -> {
             template.setIsActive(false);
+            agreementTemplateCache.invalidate(template.getId());
             agreementTemplateRepository.save(template);
         });
     }
@@ -13,6 +13,7 @@ import com.finetune.app.util.PhoneNumberUtils;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -31,25 +32,24 @@ public class CustomerService {
         this.bootRepository = bootRepository;
     }
 
-    public List<CustomerResponseDTO> getAllCustomers() {
-        return customerRepository.findAll().stream()
-            .map(c -> {
-                CustomerResponseDTO dto = CustomerResponseDTO.fromEntity(c);
-                try {
-                    int woCount = workOrderRepository.findByCustomerId(c.getId()).size();
-                    dto.setWorkOrderCount(woCount);
-                } catch (Exception ignore) {}
-                try {
-                    int eqCount = equipmentRepository.findByCustomerId(c.getId()).size();
-                    dto.setEquipmentCount(eqCount);
-                } catch (Exception ignore) {}
-                try {
-                    int bCount = bootRepository.findByCustomerId(c.getId()).size();
-                    dto.setBootCount(bCount);
-                } catch (Exception ignore) {}
-                return dto;
-            })
-            .collect(Collectors.toList());
+    /**
+     * One page of customers with counts.
+     *
+     * @param query optional name/phone filter (null = all customers)
+     * @param page zero-based page number
+     * @param size page size
+     * @param sort id, firstName, lastName, email, workOrderCount, equipmentCount or bootCount
+     * @param ascending sort direction
+     */
+    public List<CustomerResponseDTO> getCustomersPage(String query, int page, int size, String sort, boolean ascending) {
+        return customerRepository.findPageWithCounts(query, sort, ascending, size, (long) page * size);
+    }
+
+    /**
+     * Number of customers matching the getCustomersPage filter.
+     */
+    public long countCustomers(String query) {
+        return customerRepository.countMatching(query);
     }
 
     public Customer findOrCreateCustomer(
@@ -72,6 +72,10 @@ public class CustomerService {
                 .filter(c -> email.equals(c.getEmail()))
                 .findFirst()
                 .orElse(existingCustomers.get(0));
+            // Nothing to write when the name is unchanged
+            if (Objects.equals(firstName, customer.getFirstName()) && Objects.equals(lastName, customer.getLastName())) {
+                return customer;
+            }
         }
 
         customer.setFirstName(firstName);
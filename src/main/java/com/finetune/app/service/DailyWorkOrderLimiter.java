@@ -0,0 +1,147 @@
+package com.finetune.app.service;
+
+import com.finetune.app.exception.DailyLimitExceededException;
+import com.finetune.app.repository.sql.WorkOrderSqlRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Rolling 24h limit on customer-created work orders, per customer.
+ *
+ * Each customer has a sliding window of creation times. The window is seeded once from the
+ * work_orders table (the durable record of customer-created orders) and then kept in memory,
+ * so an intake does not run a count query. Checking the window and recording the new order
+ * happen under one lock, taken from a fixed array of lock stripes by customer id, so concurrent
+ * submissions for the same customer cannot both pass the last free slot while different
+ * customers rarely contend.
+ *
+ * A slot taken inside a transaction is given back if that transaction rolls back.
+ */
+@Component
+public class DailyWorkOrderLimiter {
+
+    private static final long WINDOW_MILLIS = 24L * 60 * 60 * 1000;
+    private static final int STRIPES = 64;
+
+    private final WorkOrderSqlRepository workOrderRepository;
+    private final int maxWindows;
+
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+    private final Map<Long, ArrayDeque<Long>> windows = new ConcurrentHashMap<>();
+
+    public DailyWorkOrderLimiter(WorkOrderSqlRepository workOrderRepository,
+                                 @Value("${app.daily-limit.max-windows:10000}") int maxWindows) {
+        this.workOrderRepository = workOrderRepository;
+        this.maxWindows = maxWindows;
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Take one slot in the customer's window, or throw if the window already holds limit orders.
+     *
+     * @throws DailyLimitExceededException if the customer has reached the limit
+     */
+    public void acquire(Long customerId, int limit) {
+        long now = System.currentTimeMillis();
+        ReentrantLock lock = lockFor(customerId);
+        lock.lock();
+        try {
+            ArrayDeque<Long> window = windows.get(customerId);
+            if (window == null) {
+                window = load(customerId, now);
+                windows.put(customerId, window);
+            }
+            prune(window, now);
+            if (window.size() >= limit) {
+                throw new DailyLimitExceededException(limit);
+            }
+            window.addLast(now);
+        } finally {
+            lock.unlock();
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        release(customerId, now);
+                    }
+                }
+            });
+        }
+
+        if (windows.size() > maxWindows) {
+            evictIdle(now);
+        }
+    }
+
+    /**
+     * Give back a slot taken by acquire (the order was not created after all).
+     */
+    public void release(Long customerId, long acquiredAt) {
+        ReentrantLock lock = lockFor(customerId);
+        lock.lock();
+        try {
+            ArrayDeque<Long> window = windows.get(customerId);
+            if (window != null) {
+                window.removeLastOccurrence(acquiredAt);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ArrayDeque<Long> load(Long customerId, long now) {
+        LocalDateTime since = LocalDateTime.now().minusHours(24);
+        ArrayDeque<Long> window = new ArrayDeque<>();
+        for (LocalDateTime createdAt : workOrderRepository.findCustomerCreatedTimesSince(customerId, since)) {
+            window.addLast(createdAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+        return window;
+    }
+
+    private void prune(ArrayDeque<Long> window, long now) {
+        while (!window.isEmpty() && window.peekFirst() <= now - WINDOW_MILLIS) {
+            window.pollFirst();
+        }
+    }
+
+    /**
+     * Drop windows with no orders in the last 24h; they are reseeded from the table if needed.
+     */
+    private void evictIdle(long now) {
+        Iterator<Map.Entry<Long, ArrayDeque<Long>>> it = windows.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Long, ArrayDeque<Long>> entry = it.next();
+            ReentrantLock lock = lockFor(entry.getKey());
+            lock.lock();
+            try {
+                prune(entry.getValue(), now);
+                if (entry.getValue().isEmpty()) {
+                    it.remove();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private ReentrantLock lockFor(Long customerId) {
+        int h = customerId != null ? customerId.hashCode() : 0;
+        h ^= (h >>> 16);
+        return locks[h & (STRIPES - 1)];
+    }
+}
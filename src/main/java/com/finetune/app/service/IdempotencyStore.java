@@ -0,0 +1,133 @@
+package com.finetune.app.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded in-process store for Idempotency-Key handling on public POST endpoints.
+ *
+ * A request claims its key before doing any work. The first claim runs the request and then
+ * either completes the key (status + response body are kept until the TTL expires) or releases
+ * it on failure so the client can retry. Later claims with the same key get:
+ * - REPLAY with the stored response, if the request fingerprint matches
+ * - MISMATCH, if the key was reused for a different request
+ * - IN_PROGRESS, while the first request is still running
+ *
+ * Entries expire after a TTL; the least recently used entry is evicted once the size limit is
+ * reached. Keys are only remembered by this instance, which matches a single-node deployment.
+ */
+@Component
+public class IdempotencyStore {
+
+    public enum Outcome { NEW, REPLAY, IN_PROGRESS, MISMATCH }
+
+    /**
+     * Result of claiming a key. status/body are set for REPLAY only.
+     */
+    public static final class Claim {
+        private final Outcome outcome;
+        private final int status;
+        private final Object body;
+
+        Claim(Outcome outcome, int status, Object body) {
+            this.outcome = outcome;
+            this.status = status;
+            this.body = body;
+        }
+
+        public Outcome getOutcome() { return outcome; }
+        public int getStatus() { return status; }
+        public Object getBody() { return body; }
+    }
+
+    private static final class Entry {
+        final String fingerprint;
+        final long expiresAt;
+        final boolean completed;
+        final int status;
+        final Object body;
+
+        Entry(String fingerprint, long expiresAt, boolean completed, int status, Object body) {
+            this.fingerprint = fingerprint;
+            this.expiresAt = expiresAt;
+            this.completed = completed;
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    private final long ttlMillis;
+    private final int maxSize;
+    private final Map<String, Entry> entries;
+
+    public IdempotencyStore(@Value("${app.idempotency.ttl-seconds:86400}") long ttlSeconds,
+                            @Value("${app.idempotency.max-size:10000}") int maxSize) {
+        this.ttlMillis = ttlSeconds * 1000L;
+        this.maxSize = maxSize;
+        // Access-ordered map gives LRU eviction via removeEldestEntry
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > IdempotencyStore.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Claim a key for a request with the given fingerprint (a digest of the request payload).
+     */
+    public synchronized Claim claim(String key, String fingerprint) {
+        long now = System.currentTimeMillis();
+        Entry existing = entries.get(key);
+        if (existing != null && existing.expiresAt <= now) {
+            entries.remove(key);
+            existing = null;
+        }
+        if (existing == null) {
+            if (entries.size() >= maxSize) {
+                purgeExpired(now);
+            }
+            entries.put(key, new Entry(fingerprint, now + ttlMillis, false, 0, null));
+            return new Claim(Outcome.NEW, 0, null);
+        }
+        if (!existing.fingerprint.equals(fingerprint)) {
+            return new Claim(Outcome.MISMATCH, 0, null);
+        }
+        if (!existing.completed) {
+            return new Claim(Outcome.IN_PROGRESS, 0, null);
+        }
+        return new Claim(Outcome.REPLAY, existing.status, existing.body);
+    }
+
+    /**
+     * Store the response for a claimed key; replays return it until the TTL expires.
+     */
+    public synchronized void complete(String key, int status, Object body) {
+        Entry existing = entries.get(key);
+        String fingerprint = existing != null ? existing.fingerprint : "";
+        entries.put(key, new Entry(fingerprint, System.currentTimeMillis() + ttlMillis, true, status, body));
+    }
+
+    /**
+     * Forget a claimed key after a failed request so the client can retry it.
+     */
+    public synchronized void release(String key) {
+        Entry existing = entries.get(key);
+        if (existing != null && !existing.completed) {
+            entries.remove(key);
+        }
+    }
+
+    private void purgeExpired(long now) {
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().expiresAt <= now) {
+                it.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.finetune.app.service;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * ObjectStore backed by a directory on local disk (on-prem installs, development without network).
+ *
+ * Writes go to a temporary file in {root}/.tmp through a FileChannel, are forced to disk, and are
+ * then moved into place with an atomic rename, so readers never see a partially written object.
+ * Because keys are content hashes, an existing file with the same key is already the right content
+ * and the new copy is simply discarded. Reads use FileChannel.transferTo, which lets the OS copy
+ * file pages straight to the target channel.
+ */
+public class LocalObjectStore implements ObjectStore {
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final Path root;
+    private final Path tmpDir;
+
+    public LocalObjectStore(Path root) throws IOException {
+        this.root = root.toAbsolutePath().normalize();
+        this.tmpDir = this.root.resolve(".tmp");
+        Files.createDirectories(tmpDir);
+    }
+
+    @Override
+    public String putContentAddressed(InputStream in, String prefix, String extension, String contentType) throws IOException {
+        MessageDigest digest = sha256();
+        Path tmp = tmpDir.resolve(UUID.randomUUID() + ".part");
+        try {
+            try (ReadableByteChannel source = Channels.newChannel(new DigestInputStream(in, digest));
+                 FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+                while (source.read(buffer) != -1) {
+                    buffer.flip();
+                    while (buffer.hasRemaining()) {
+                        out.write(buffer);
+                    }
+                    buffer.clear();
+                }
+                out.force(true);
+            }
+
+            String key = prefix + "/" + HexFormat.of().formatHex(digest.digest()) + extension;
+            Path target = resolve(key);
+            if (Files.exists(target)) {
+                // Same content already stored
+                return key;
+            }
+            Files.createDirectories(target.getParent());
+            try {
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // Stored concurrently by another request
+            }
+            return key;
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    @Override
+    public long size(String key) throws IOException {
+        Path path = resolve(key);
+        return Files.isRegularFile(path) ? Files.size(path) : -1;
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        return Files.newInputStream(existing(key));
+    }
+
+    @Override
+    public long transferTo(String key, WritableByteChannel target) throws IOException {
+        try (FileChannel in = FileChannel.open(existing(key), StandardOpenOption.READ)) {
+            long size = in.size();
+            long position = 0;
+            while (position < size) {
+                position += in.transferTo(position, size - position, target);
+            }
+            return size;
+        }
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(resolve(key));
+    }
+
+    @Override
+    public Path localPath(String key) {
+        Path path = resolve(key);
+        return Files.isRegularFile(path) ? path : null;
+    }
+
+    private Path existing(String key) throws FileNotFoundException {
+        Path path = resolve(key);
+        if (!Files.isRegularFile(path)) {
+            throw new FileNotFoundException("No object with key: " + key);
+        }
+        return path;
+    }
+
+    /**
+     * Map a key to a path under the root, rejecting keys that would escape it.
+     */
+    private Path resolve(String key) {
+        Path path = root.resolve(key).normalize();
+        if (!path.startsWith(root) || path.startsWith(tmpDir)) {
+            throw new IllegalArgumentException("Invalid object key: " + key);
+        }
+        return path;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
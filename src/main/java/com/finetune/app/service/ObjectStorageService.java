@@ -2,14 +2,23 @@ package com.finetune.app.service;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.*;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
 import software.amazon.awssdk.services.s3.presigner.model.PresignedGetObjectRequest;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Service for managing object storage with Cloudflare R2.
@@ -18,51 +27,137 @@ import java.time.Duration;
  * DO NOT confuse this with AWS S3 - this is Cloudflare R2.
  * 
  * Configuration is handled by R2Config - this service only contains business logic.
+ * 
+ * Pre-signed URLs are cached per (key, expiration) and handed out again until half of their
+ * lifetime has passed, so every URL returned still has at least half its validity left and
+ * repeated requests for the same object skip the signing pass.
+ * 
+ * Uploads go through the S3AsyncClient (Netty, with a bounded number of concurrent requests -
+ * see R2Config) and are streamed: openUploadStream returns an ObjectUploadStream that sends an
+ * object with one PUT if it fits in a part and as a multipart upload otherwise, holding at most a
+ * few parts in memory per upload. Reads, HEAD and DELETE use the blocking S3Client.
  */
 @Service
 public class ObjectStorageService {
 
-    @Value("${r2.bucket-name}")
-    private String bucketName;
+    private final String bucketName;
+    private final int presignedUrlCacheMaxSize;
 
     private final S3Client s3Client;
+    private final S3AsyncClient s3AsyncClient;
     private final S3Presigner s3Presigner;
 
+    // R2 (like S3) requires every multipart part except the last to be at least 5 MiB
+    private static final int MIN_PART_SIZE = 5 * 1024 * 1024;
+
+    private final long multipartThreshold;
+    private final int partSize;
+    private final int partsInFlight;
+
+    // LRU cache of pre-signed URLs keyed by "key|expirationSeconds"
+    private final Map<String, CachedUrl> presignedUrls = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedUrl> eldest) {
+            return size() > presignedUrlCacheMaxSize;
+        }
+    };
+
+    private static final class CachedUrl {
+        final String url;
+        final long reuseUntil;
+
+        CachedUrl(String url, long reuseUntil) {
+            this.url = url;
+            this.reuseUntil = reuseUntil;
+        }
+    }
+
     /**
      * Constructor with dependency injection of R2 clients.
-     * Both S3Client and S3Presigner are configured in R2Config.
+     * S3Client, S3AsyncClient and S3Presigner are configured in R2Config.
      *
      * @param s3Client S3Client configured for Cloudflare R2 (injected from R2Config)
+     * @param s3AsyncClient S3AsyncClient configured for Cloudflare R2, used for uploads (injected from R2Config)
      * @param s3Presigner S3Presigner configured for Cloudflare R2 (injected from R2Config)
      */
-    public ObjectStorageService(S3Client s3Client, S3Presigner s3Presigner) {
+    public ObjectStorageService(
+            S3Client s3Client,
+            S3AsyncClient s3AsyncClient,
+            S3Presigner s3Presigner,
+            @Value("${r2.bucket-name}") String bucketName,
+            @Value("${app.storage.presigned-url-cache.max-size:5000}") int presignedUrlCacheMaxSize,
+            @Value("${app.storage.multipart-threshold-bytes:16777216}") long multipartThreshold,
+            @Value("${app.storage.part-size-bytes:8388608}") int partSize,
+            @Value("${app.storage.upload-parts-in-flight:2}") int partsInFlight) {
         this.s3Client = s3Client;
+        this.s3AsyncClient = s3AsyncClient;
         this.s3Presigner = s3Presigner;
+        this.bucketName = bucketName;
+        this.presignedUrlCacheMaxSize = presignedUrlCacheMaxSize;
+        this.multipartThreshold = multipartThreshold;
+        this.partSize = Math.max(partSize, MIN_PART_SIZE);
+        this.partsInFlight = partsInFlight;
+    }
+
+    /**
+     * Open a stream that uploads everything written to it as one object.
+     * Close it to complete the upload (or call finish() to complete it asynchronously); if
+     * producing the content fails, call abort() so no truncated object is stored.
+     *
+     * @param key The object key (path) in the bucket
+     * @param contentType MIME type stored with the object
+     * @return Upload stream for the object
+     */
+    public ObjectUploadStream openUploadStream(String key, String contentType) {
+        return new ObjectUploadStream(s3AsyncClient, bucketName, key, contentType, partSize, partsInFlight);
     }
 
     /**
-     * Upload a PDF file to R2 storage.
-     * R2 does NOT support ACLs - they are ignored.
+     * Upload an object (PDF, damage photo, scanned document, ...) from a stream.
+     * The stream is read on the calling thread; parts are sent while it is being read.
      *
-     * @param fileBytes The PDF file content as byte array
+     * @param in The content; read to the end but not closed
      * @param key The object key (path) in the bucket
-     * @return The object key of the uploaded file
-     * @throws S3Exception if upload fails
+     * @param contentType MIME type stored with the object
+     * @return Future completed with the object key, or exceptionally if reading or the upload fails
      */
-    public String uploadPdf(byte[] fileBytes, String key) {
+    public CompletableFuture<String> uploadAsync(InputStream in, String key, String contentType) {
+        ObjectUploadStream upload = openUploadStream(key, contentType);
         try {
-            PutObjectRequest putObjectRequest = PutObjectRequest.builder()
-                    .bucket(bucketName)
-                    .key(key)
-                    .contentType("application/pdf")
-                    // NOTE: R2 ignores ACL settings, no need to set them
-                    .build();
+            in.transferTo(upload);
+        } catch (IOException e) {
+            upload.abort();
+            return CompletableFuture.failedFuture(e);
+        }
+        return upload.finish();
+    }
 
-            s3Client.putObject(putObjectRequest, RequestBody.fromBytes(fileBytes));
-            
-            return key;
-        } catch (S3Exception e) {
-            throw new RuntimeException("Failed to upload PDF to R2: " + e.getMessage(), e);
+    /**
+     * Upload a local file. Files up to the multipart threshold are sent with one PUT straight from
+     * disk; larger files are streamed as a multipart upload.
+     *
+     * @param file The file to upload; must not change until the returned future completes
+     * @param key The object key (path) in the bucket
+     * @param contentType MIME type stored with the object
+     * @return Future completed with the object key, or exceptionally if the upload fails
+     */
+    public CompletableFuture<String> uploadFileAsync(Path file, String key, String contentType) {
+        try {
+            long size = Files.size(file);
+            if (size <= multipartThreshold) {
+                return s3AsyncClient.putObject(PutObjectRequest.builder()
+                                .bucket(bucketName)
+                                .key(key)
+                                .contentType(contentType)
+                                .contentLength(size)
+                                .build(), AsyncRequestBody.fromFile(file))
+                        .thenApply(response -> key);
+            }
+            try (InputStream in = Files.newInputStream(file)) {
+                return uploadAsync(in, key, contentType);
+            }
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
         }
     }
 
@@ -70,6 +165,8 @@ public class ObjectStorageService {
      * Generate a pre-signed URL for secure access to an object.
      * The URL allows temporary access without authentication.
      * Uses S3Presigner configured for Cloudflare R2.
+     * A cached URL for the same key and expiration is returned while it still has at least
+     * half of its lifetime left.
      *
      * @param key The object key (path) in the bucket
      * @param expiration Duration until the URL expires
@@ -77,6 +174,23 @@ public class ObjectStorageService {
      * @throws RuntimeException if URL generation fails
      */
     public String generateSignedUrl(String key, Duration expiration) {
+        String cacheKey = key + "|" + expiration.getSeconds();
+        long now = System.currentTimeMillis();
+        synchronized (presignedUrls) {
+            CachedUrl cached = presignedUrls.get(cacheKey);
+            if (cached != null && cached.reuseUntil > now) {
+                return cached.url;
+            }
+        }
+
+        String url = presign(key, expiration);
+        synchronized (presignedUrls) {
+            presignedUrls.put(cacheKey, new CachedUrl(url, now + expiration.toMillis() / 2));
+        }
+        return url;
+    }
+
+    private String presign(String key, Duration expiration) {
         try {
             GetObjectRequest getObjectRequest = GetObjectRequest.builder()
                     .bucket(bucketName)
@@ -122,11 +236,70 @@ public class ObjectStorageService {
                     .build();
 
             s3Client.deleteObject(deleteObjectRequest);
+            evictSignedUrls(key);
         } catch (S3Exception e) {
             throw new RuntimeException("Failed to delete object from R2: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Drop cached pre-signed URLs for a key (e.g. after the object was deleted).
+     */
+    public void evictSignedUrls(String key) {
+        String prefix = key + "|";
+        synchronized (presignedUrls) {
+            Iterator<String> it = presignedUrls.keySet().iterator();
+            while (it.hasNext()) {
+                if (it.next().startsWith(prefix)) {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Open an object in R2 storage for reading.
+     *
+     * @param key The object key (path) to read
+     * @return Stream of the object content; the caller must close it
+     * @throws java.io.FileNotFoundException if the object does not exist
+     */
+    public InputStream openObject(String key) throws java.io.FileNotFoundException {
+        try {
+            GetObjectRequest getObjectRequest = GetObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .build();
+
+            return s3Client.getObject(getObjectRequest);
+        } catch (NoSuchKeyException e) {
+            throw new java.io.FileNotFoundException("No object with key: " + key);
+        } catch (S3Exception e) {
+            throw new RuntimeException("Failed to read object from R2: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Size of an object in R2 storage.
+     *
+     * @param key The object key to check
+     * @return Content length in bytes, or -1 if the object does not exist
+     */
+    public long objectSize(String key) {
+        try {
+            HeadObjectRequest headObjectRequest = HeadObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .build();
+
+            return s3Client.headObject(headObjectRequest).contentLength();
+        } catch (NoSuchKeyException e) {
+            return -1;
+        } catch (S3Exception e) {
+            throw new RuntimeException("Failed to check object size: " + e.getMessage(), e);
+        }
+    }
+
     /**
      * Check if an object exists in R2 storage.
      *
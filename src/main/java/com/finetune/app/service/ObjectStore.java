@@ -0,0 +1,61 @@
+package com.finetune.app.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+
+/**
+ * Blob storage for shop assets (logos and other uploaded files), independent of where the bytes live.
+ *
+ * Objects are content-addressed: the key is derived from the SHA-256 of the content, so storing
+ * the same file twice (e.g. a shop re-uploading its logo) writes it once and returns the same key.
+ * Keys look like "{prefix}/{sha256}{extension}" and never change meaning, so anything served
+ * under a key can be cached indefinitely.
+ *
+ * Implementations: LocalObjectStore (files on disk) and R2ObjectStore (Cloudflare R2).
+ * The backend is chosen in ObjectStoreConfig.
+ */
+public interface ObjectStore {
+
+    /**
+     * Store content under its SHA-256 and return the key.
+     * If an object with the same content already exists, nothing is written.
+     *
+     * @param in The content; read to the end but not closed
+     * @param prefix Key prefix, e.g. "shops"
+     * @param extension File extension including the dot (e.g. ".png"), or "" for none
+     * @param contentType MIME type of the content
+     * @return The object key
+     */
+    String putContentAddressed(InputStream in, String prefix, String extension, String contentType) throws IOException;
+
+    /**
+     * Size of the object in bytes, or -1 if it does not exist.
+     */
+    long size(String key) throws IOException;
+
+    /**
+     * Open the object for reading; the caller must close the stream.
+     *
+     * @throws java.io.FileNotFoundException if the object does not exist
+     */
+    InputStream open(String key) throws IOException;
+
+    /**
+     * Write the whole object to the channel and return the number of bytes written.
+     *
+     * @throws java.io.FileNotFoundException if the object does not exist
+     */
+    long transferTo(String key, WritableByteChannel target) throws IOException;
+
+    void delete(String key) throws IOException;
+
+    /**
+     * The file holding the object if this backend keeps objects on local disk, otherwise null.
+     * Lets the web layer hand the file to the container's sendfile support.
+     */
+    default Path localPath(String key) {
+        return null;
+    }
+}
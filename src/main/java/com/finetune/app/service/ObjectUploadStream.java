@@ -0,0 +1,265 @@
+package com.finetune.app.service;
+
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * OutputStream that uploads what is written to it as one R2 object, through the S3AsyncClient.
+ *
+ * Bytes are buffered up to one part. If the stream is finished before the first part fills, the
+ * object is sent with a single PUT. Otherwise a multipart upload is started and every full part
+ * is sent as soon as it is complete, while the writer keeps producing the next one; at most
+ * partsInFlight parts of one upload are outstanding (the writer blocks for a free slot), so memory
+ * stays bounded by partsInFlight + 1 parts whatever the object size.
+ *
+ * close() finishes the upload and waits for it; finish() does the same without waiting. A writer
+ * that fails part-way must call abort() instead, so a truncated object is never completed and the
+ * uploaded parts are discarded. Not thread-safe: one writer per stream.
+ */
+public final class ObjectUploadStream extends OutputStream {
+
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+
+    private final S3AsyncClient s3AsyncClient;
+    private final String bucketName;
+    private final String key;
+    private final String contentType;
+    private final int partSize;
+    private final Semaphore partSlots;
+
+    private byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+    private int count;
+
+    // Set once the first full part is sent
+    private CompletableFuture<String> uploadId;
+    private final List<CompletableFuture<CompletedPart>> parts = new ArrayList<>();
+
+    private CompletableFuture<String> result;
+
+    ObjectUploadStream(S3AsyncClient s3AsyncClient, String bucketName, String key, String contentType,
+                       int partSize, int partsInFlight) {
+        this.s3AsyncClient = s3AsyncClient;
+        this.bucketName = bucketName;
+        this.key = key;
+        this.contentType = contentType;
+        this.partSize = partSize;
+        this.partSlots = new Semaphore(Math.max(1, partsInFlight));
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        if (count == buffer.length) {
+            makeRoom();
+        }
+        buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        while (len > 0) {
+            if (count == buffer.length) {
+                makeRoom();
+            }
+            int n = Math.min(len, buffer.length - count);
+            System.arraycopy(b, off, buffer, count, n);
+            count += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    /**
+     * Finish the upload without waiting for it.
+     *
+     * @return future completed with the object key once the object exists, or exceptionally if
+     *         the upload failed (a multipart upload is aborted in that case)
+     */
+    public CompletableFuture<String> finish() {
+        if (result != null) {
+            return result;
+        }
+        if (uploadId == null) {
+            PutObjectRequest request = PutObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .contentType(contentType)
+                    .contentLength((long) count)
+                    // NOTE: R2 ignores ACL settings, no need to set them
+                    .build();
+            result = s3AsyncClient.putObject(request, AsyncRequestBody.fromBytes(Arrays.copyOf(buffer, count)))
+                    .thenApply(response -> key);
+        } else {
+            if (count > 0) {
+                try {
+                    sendPart();
+                } catch (IOException e) {
+                    buffer = null;
+                    abortMultipart();
+                    return result = CompletableFuture.failedFuture(e);
+                }
+            }
+            result = CompletableFuture.allOf(parts.toArray(new CompletableFuture[0]))
+                    .thenCompose(done -> uploadId)
+                    .thenCompose(id -> s3AsyncClient.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                            .bucket(bucketName)
+                            .key(key)
+                            .uploadId(id)
+                            .multipartUpload(CompletedMultipartUpload.builder().parts(completedParts()).build())
+                            .build()))
+                    .handle((response, error) -> {
+                        if (error != null) {
+                            abortMultipart();
+                            throw error instanceof CompletionException
+                                    ? (CompletionException) error : new CompletionException(error);
+                        }
+                        return key;
+                    });
+        }
+        buffer = null;
+        return result;
+    }
+
+    /**
+     * Finish the upload and wait for it.
+     *
+     * @throws IOException if the upload failed
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            finish().join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Failed to upload object to R2: " + key + " - " + cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Discard the upload: nothing is stored under the key and uploaded parts are released.
+     * A no-op once the upload was finished - a failed finish aborts by itself.
+     */
+    public void abort() {
+        if (result != null) {
+            return;
+        }
+        result = CompletableFuture.failedFuture(new IOException("Upload aborted: " + key));
+        buffer = null;
+        abortMultipart();
+    }
+
+    /**
+     * Grow the buffer up to one part; once it holds a full part, send it.
+     */
+    private void makeRoom() throws IOException {
+        if (buffer.length < partSize) {
+            buffer = Arrays.copyOf(buffer, Math.min(partSize, buffer.length * 2));
+        } else {
+            sendPart();
+        }
+    }
+
+    private void sendPart() throws IOException {
+        for (CompletableFuture<CompletedPart> part : parts) {
+            if (part.isCompletedExceptionally()) {
+                // Stop the writer early instead of producing parts that can never be completed
+                try {
+                    part.join();
+                } catch (CompletionException e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    throw new IOException("Failed to upload part of " + key + " - " + cause.getMessage(), cause);
+                }
+            }
+        }
+        if (uploadId == null) {
+            uploadId = s3AsyncClient.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .contentType(contentType)
+                    .build()).thenApply(response -> response.uploadId());
+        }
+        try {
+            partSlots.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting to upload part of " + key, e);
+        }
+
+        byte[] part = count == buffer.length ? buffer : Arrays.copyOf(buffer, count);
+        int partNumber = parts.size() + 1;
+        buffer = new byte[partSize];
+        count = 0;
+
+        parts.add(uploadId.thenCompose(id -> s3AsyncClient.uploadPart(UploadPartRequest.builder()
+                        .bucket(bucketName)
+                        .key(key)
+                        .uploadId(id)
+                        .partNumber(partNumber)
+                        .contentLength((long) part.length)
+                        .build(), AsyncRequestBody.fromBytes(part)))
+                .thenApply(response -> CompletedPart.builder().partNumber(partNumber).eTag(response.eTag()).build())
+                .whenComplete((completed, error) -> partSlots.release()));
+    }
+
+    private List<CompletedPart> completedParts() {
+        List<CompletedPart> completed = new ArrayList<>();
+        for (CompletableFuture<CompletedPart> part : parts) {
+            completed.add(part.join());
+        }
+        return completed;
+    }
+
+    /**
+     * Abort the multipart upload (if one was started) once its in-flight parts have settled, so
+     * no part lands after the abort.
+     */
+    private void abortMultipart() {
+        if (uploadId == null) {
+            return;
+        }
+        CompletableFuture.allOf(parts.toArray(new CompletableFuture[0]))
+                .handle((done, error) -> null)
+                .thenCompose(settled -> uploadId)
+                .thenCompose(id -> s3AsyncClient.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                        .bucket(bucketName)
+                        .key(key)
+                        .uploadId(id)
+                        .build()))
+                .whenComplete((response, error) -> {
+                    if (error != null) {
+                        System.err.println("[ObjectUploadStream] Failed to abort multipart upload for key: " + key
+                                + " - " + error.getMessage());
+                    }
+                });
+    }
+
+    private void ensureOpen() throws IOException {
+        if (result != null) {
+            throw new IOException("Upload stream already finished: " + key);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.finetune.app.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.CompletionException;
+
+/**
+ * ObjectStore backed by Cloudflare R2, through ObjectStorageService.
+ *
+ * The key depends on the content hash, which is only known after the whole stream was read, so
+ * the content is spooled to a temporary file while hashing. If R2 already has the key the upload
+ * is skipped; otherwise the file is sent through the async client (one PUT straight from disk,
+ * multipart for large objects).
+ */
+public class R2ObjectStore implements ObjectStore {
+
+    private final ObjectStorageService objectStorageService;
+
+    public R2ObjectStore(ObjectStorageService objectStorageService) {
+        this.objectStorageService = objectStorageService;
+    }
+
+    @Override
+    public String putContentAddressed(InputStream in, String prefix, String extension, String contentType) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+
+        Path spool = Files.createTempFile("r2-upload-", ".part");
+        try {
+            try (OutputStream out = Files.newOutputStream(spool)) {
+                new DigestInputStream(in, digest).transferTo(out);
+            }
+            String key = prefix + "/" + HexFormat.of().formatHex(digest.digest()) + extension;
+            if (objectStorageService.objectExists(key)) {
+                return key;
+            }
+            try {
+                objectStorageService.uploadFileAsync(spool, key, contentType).join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                throw new IOException("Failed to upload object to R2: " + key + " - " + cause.getMessage(), cause);
+            }
+            return key;
+        } finally {
+            Files.deleteIfExists(spool);
+        }
+    }
+
+    @Override
+    public long size(String key) {
+        return objectStorageService.objectSize(key);
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        return objectStorageService.openObject(key);
+    }
+
+    @Override
+    public long transferTo(String key, WritableByteChannel target) throws IOException {
+        try (InputStream in = objectStorageService.openObject(key)) {
+            return in.transferTo(Channels.newOutputStream(target));
+        }
+    }
+
+    @Override
+    public void delete(String key) {
+        objectStorageService.deleteObject(key);
+    }
+}
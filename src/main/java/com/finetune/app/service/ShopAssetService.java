@@ -0,0 +1,243 @@
+package com.finetune.app.service;
+
+import com.finetune.app.config.ShopHostResolver;
+import com.finetune.app.config.StaffPrincipalCache;
+import com.finetune.app.model.Shop;
+import com.finetune.app.repository.sql.ShopSqlRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Metadata and hot-file cache for shop assets served by ShopAssetController.
+ *
+ * For each asset key it computes once: size, last-modified time and a strong ETag. For
+ * content-addressed keys ("shops/{sha256}.ext") the ETag is the hash in the name; for older
+ * files the content is hashed once. Small assets are kept in memory - memory-mapped when they
+ * live on local disk, read into a heap buffer otherwise - so repeated logo requests do not touch
+ * the disk or R2. At most app.assets.hot-max-files assets are held (LRU).
+ *
+ * Fingerprinted assets never change (the key is the content hash), so they are cached until
+ * evicted. Other keys can be overwritten in place, so their entries are reloaded after
+ * app.assets.mutable-ttl-seconds.
+ *
+ * At startup, shop logo URLs that still point at a non-fingerprinted file are re-stored
+ * content-addressed and the shop row is updated, so every logo URL can be cached permanently.
+ */
+@Service
+public class ShopAssetService {
+
+    private static final Pattern FINGERPRINTED_NAME = Pattern.compile("[0-9a-f]{64}(\\.[a-z0-9]{1,5})?");
+
+    private final ObjectStore objectStore;
+    private final ShopSqlRepository shopRepository;
+    private final ShopHostResolver shopHostResolver;
+    private final StaffPrincipalCache principalCache;
+    private final long hotMaxBytes;
+    private final int hotMaxFiles;
+    private final long mutableTtlMillis;
+
+    // Access-ordered map gives LRU eviction via removeEldestEntry
+    private final Map<String, Asset> assets;
+
+    /**
+     * Cached description of one asset. content is null for assets too large to keep in memory.
+     */
+    public static final class Asset {
+        private final String key;
+        private final long size;
+        private final long lastModified;
+        private final String etag;
+        private final boolean fingerprinted;
+        private final ByteBuffer content;
+        // Entry is reloaded after this time (Long.MAX_VALUE for fingerprinted assets)
+        private final long expiresAtMillis;
+
+        Asset(String key, long size, long lastModified, String etag, boolean fingerprinted, ByteBuffer content,
+              long expiresAtMillis) {
+            this.key = key;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.etag = etag;
+            this.fingerprinted = fingerprinted;
+            this.content = content;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        public String getKey() { return key; }
+        public long getSize() { return size; }
+        /** Epoch millis, truncated to whole seconds (HTTP date precision). */
+        public long getLastModified() { return lastModified; }
+        /** Strong ETag, quoted. */
+        public String getEtag() { return etag; }
+        /** True if the name is a content hash, i.e. the URL can be cached forever. */
+        public boolean isFingerprinted() { return fingerprinted; }
+
+        /** In-memory content (read-only view positioned at 0), or null if not cached. */
+        public ByteBuffer getContent() {
+            return content != null ? content.duplicate() : null;
+        }
+    }
+
+    public ShopAssetService(ObjectStore objectStore,
+                            ShopSqlRepository shopRepository,
+                            ShopHostResolver shopHostResolver,
+                            StaffPrincipalCache principalCache,
+                            @Value("${app.assets.hot-max-bytes:262144}") long hotMaxBytes,
+                            @Value("${app.assets.hot-max-files:64}") int hotMaxFiles,
+                            @Value("${app.assets.mutable-ttl-seconds:60}") long mutableTtlSeconds) {
+        this.objectStore = objectStore;
+        this.shopRepository = shopRepository;
+        this.shopHostResolver = shopHostResolver;
+        this.principalCache = principalCache;
+        this.hotMaxBytes = hotMaxBytes;
+        this.hotMaxFiles = hotMaxFiles;
+        this.mutableTtlMillis = mutableTtlSeconds * 1000;
+        this.assets = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Asset> eldest) {
+                return size() > ShopAssetService.this.hotMaxFiles;
+            }
+        };
+    }
+
+    /**
+     * Asset for a key, or null if no such object exists.
+     */
+    public Asset get(String key) throws IOException {
+        synchronized (assets) {
+            Asset cached = assets.get(key);
+            if (cached != null && System.currentTimeMillis() < cached.expiresAtMillis) {
+                return cached;
+            }
+        }
+        Asset asset = load(key);
+        if (asset != null) {
+            synchronized (assets) {
+                assets.put(key, asset);
+            }
+        }
+        return asset;
+    }
+
+    /**
+     * True if the file name (last key segment) is a content hash.
+     */
+    public static boolean isFingerprinted(String filename) {
+        return FINGERPRINTED_NAME.matcher(filename).matches();
+    }
+
+    private Asset load(String key) throws IOException {
+        long size = objectStore.size(key);
+        if (size < 0) {
+            return null;
+        }
+        String filename = key.substring(key.lastIndexOf('/') + 1);
+        boolean fingerprinted = isFingerprinted(filename);
+        Path file = objectStore.localPath(key);
+
+        long lastModified = file != null
+                ? Files.getLastModifiedTime(file).toMillis()
+                : System.currentTimeMillis();
+        lastModified -= lastModified % 1000;
+
+        ByteBuffer content = null;
+        if (size <= hotMaxBytes) {
+            if (file != null) {
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                    content = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                }
+            } else {
+                try (InputStream in = objectStore.open(key)) {
+                    content = ByteBuffer.wrap(in.readAllBytes()).asReadOnlyBuffer();
+                }
+            }
+        }
+
+        String hash;
+        if (fingerprinted) {
+            hash = filename.substring(0, 64);
+        } else if (content != null) {
+            hash = sha256(content.duplicate());
+        } else {
+            try (InputStream in = objectStore.open(key)) {
+                hash = sha256(in);
+            }
+        }
+        long expiresAtMillis = fingerprinted ? Long.MAX_VALUE : System.currentTimeMillis() + mutableTtlMillis;
+        return new Asset(key, size, lastModified, "\"" + hash + "\"", fingerprinted, content, expiresAtMillis);
+    }
+
+    /**
+     * Re-store shop logos that were uploaded under random names so their URLs become fingerprinted.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void fingerprintShopLogos() {
+        boolean changed = false;
+        try {
+            for (Shop shop : shopRepository.findAll()) {
+                String logoUrl = shop.getLogoUrl();
+                if (logoUrl == null || !logoUrl.startsWith("/uploads/shops/")) continue;
+                String key = logoUrl.substring("/uploads/".length());
+                String filename = key.substring(key.lastIndexOf('/') + 1);
+                if (isFingerprinted(filename) || objectStore.size(key) < 0) continue;
+
+                int dot = filename.lastIndexOf('.');
+                String ext = dot >= 0 ? filename.substring(dot).toLowerCase() : "";
+                if (!ext.matches("\\.[a-z0-9]{1,5}")) ext = "";
+                String newKey;
+                try (InputStream in = objectStore.open(key)) {
+                    newKey = objectStore.putContentAddressed(in, "shops", ext, null);
+                }
+                shop.setLogoUrl("/uploads/" + newKey);
+                shopRepository.update(shop);
+                changed = true;
+                System.out.println("[ShopAssetService] Fingerprinted logo for shop " + shop.getId() + ": " + shop.getLogoUrl());
+            }
+        } catch (Exception e) {
+            System.err.println("[ShopAssetService] Could not fingerprint shop logos: " + e.getMessage());
+        }
+        if (changed) {
+            shopHostResolver.refresh();
+            principalCache.invalidateAll();
+        }
+    }
+
+    private static String sha256(ByteBuffer content) {
+        MessageDigest digest = newDigest();
+        digest.update(content);
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static String sha256(InputStream in) throws IOException {
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (Exception e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
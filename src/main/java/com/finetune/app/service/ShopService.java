@@ -3,6 +3,7 @@ package com.finetune.app.service;
 
 import java.util.List;
 import org.springframework.stereotype.Service;
+import com.finetune.app.config.ShopHostResolver;
 import com.finetune.app.model.Shop;
 import com.finetune.app.model.Location;
 import com.finetune.app.repository.sql.ShopSqlRepository;
@@ -10,9 +11,11 @@ import com.finetune.app.repository.sql.ShopSqlRepository;
 @Service
 public class ShopService {
     private final ShopSqlRepository shopRepository;
+    private final ShopHostResolver shopHostResolver;
 
-    public ShopService(ShopSqlRepository shopRepository) {
+    public ShopService(ShopSqlRepository shopRepository, ShopHostResolver shopHostResolver) {
         this.shopRepository = shopRepository;
+        this.shopHostResolver = shopHostResolver;
     }
 
     public List<Shop> getAllShops() {
@@ -40,6 +43,7 @@ public class ShopService {
     public Shop createShop(Shop shop) {
         validateUniqueLocation(shop);
         shopRepository.save(shop);
+        shopHostResolver.refresh();
         // Return the saved shop (with generated ID)
         return shopRepository.findLastInserted().orElse(shop);
     }
@@ -51,12 +55,14 @@ public class ShopService {
         } else {
             Shop newShop = new Shop();
             shopRepository.save(newShop);
+            shopHostResolver.refresh();
             return shopRepository.findLastInserted().orElse(newShop);
         }
     }
 
     public Shop saveShop(Shop shop) {
         shopRepository.save(shop);
+        shopHostResolver.refresh();
         return shopRepository.findLastInserted().orElse(shop);
     }
 
@@ -64,6 +70,7 @@ public class ShopService {
         Shop existingShop = getShop(id);
         shop.setId(id);
         shopRepository.update(shop);
+        shopHostResolver.refresh();
         return getShop(id);
     }
 
@@ -72,6 +79,7 @@ public class ShopService {
             throw new IllegalArgumentException("Shop not found with id: " + id);
         }
         shopRepository.delete(id);
+        shopHostResolver.refresh();
     }
 
     public String checkIn() {
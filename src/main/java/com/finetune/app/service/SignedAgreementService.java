@@ -6,17 +6,28 @@ import com.finetune.app.model.Customer;
 import com.finetune.app.model.SignedAgreement;
 import com.finetune.app.model.WorkOrder;
 import com.finetune.app.repository.sql.SignedAgreementSqlRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.security.MessageDigest;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
  * Service for managing signed agreements.
  * Signed agreements are immutable records - once created, they cannot be modified.
+ * Because of that, lookups by work order id are cached (bounded LRU); saving a new agreement
+ * evicts the entry for its work order once the save commits. A lookup that was already reading
+ * the database when an eviction happened does not cache its result, so it cannot put the
+ * previous agreement back.
  */
 @Service
 public class SignedAgreementService {
@@ -25,13 +36,26 @@ public class SignedAgreementService {
     private final AgreementTemplateService agreementTemplateService;
     private final AgreementPdfService agreementPdfService;
 
+    // Latest agreement per work order id; only found agreements are cached
+    private final Map<Long, SignedAgreement> agreementsByWorkOrderId;
+    // Bumped on every eviction (guarded by agreementsByWorkOrderId)
+    private long evictionCount;
+
     public SignedAgreementService(
             SignedAgreementSqlRepository signedAgreementRepository,
             AgreementTemplateService agreementTemplateService,
-            AgreementPdfService agreementPdfService) {
+            AgreementPdfService agreementPdfService,
+            @Value("${app.agreements.cache-max-size:5000}") int cacheMaxSize) {
         this.signedAgreementRepository = signedAgreementRepository;
         this.agreementTemplateService = agreementTemplateService;
         this.agreementPdfService = agreementPdfService;
+        // Access-ordered map gives LRU eviction via removeEldestEntry
+        this.agreementsByWorkOrderId = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, SignedAgreement> eldest) {
+                return size() > cacheMaxSize;
+            }
+        };
     }
 
     /**
@@ -39,9 +63,9 @@ public class SignedAgreementService {
      * 
      * Process:
      * 1. Load active AgreementTemplate for shop
-     * 2. Generate PDF via AgreementPdfService
+     * 2. Generate PDF via AgreementPdfService (rendered once)
      * 3. Upload PDF to Cloudflare R2
-     * 4. Compute SHA-256 hash of PDF bytes
+     * 4. Compute SHA-256 hash of PDF bytes (while rendering, from the same bytes)
      * 5. Create SignedAgreement entity
      * 6. Persist and associate with WorkOrder
      * 
@@ -72,9 +96,8 @@ public class SignedAgreementService {
             
             Customer customer = workOrder.getCustomer();
             
-            // 2 & 3. Generate PDF (in memory) and upload to Cloudflare R2
-            // This generates the PDF once and returns both bytes and storage key
-                    String pdfStorageKey = agreementPdfService.generateAndUploadAgreementPdf(
+            // 2, 3 & 4. Render the PDF once (in memory), hash it while rendering and upload it to R2
+                    AgreementPdfService.UploadedPdf pdf = agreementPdfService.generateAndUploadAgreementPdf(
                         agreementTemplate,
                         workOrder,
                         customer,
@@ -83,25 +106,10 @@ public class SignedAgreementService {
                         signatureUserAgent,
                         signatureImageBase64
                     );
+                    String pdfStorageKey = pdf.getStorageKey();
+                    String documentHash = pdf.getDocumentHash();
                     System.out.println("[SignedAgreementService] PDF generated and uploaded. Storage key: " + pdfStorageKey);
-            
-            // Generate PDF bytes again for hash computation
-            // Note: We need the bytes for hashing, so we generate twice
-            // This is acceptable as PDF generation is deterministic
-                    byte[] pdfBytes = agreementPdfService.generateAgreementPdfBytes(
-                        agreementTemplate,
-                        workOrder,
-                        customer,
-                        signatureName,
-                        signatureIp,
-                        signatureUserAgent,
-                        signatureImageBase64
-                    );
-                    System.out.println("[SignedAgreementService] PDF bytes generated for hash.");
-            
-            // 4. Compute SHA-256 hash of PDF bytes
-            String documentHash = computeDocumentHash(pdfBytes);
-            System.out.println("[SignedAgreementService] Document hash computed: " + documentHash);
+                    System.out.println("[SignedAgreementService] Document hash computed: " + documentHash);
             
             // 5. Create SignedAgreement entity
             LocalDateTime signedAt = LocalDateTime.now();
@@ -122,6 +130,7 @@ public class SignedAgreementService {
             
             // 6. Persist SignedAgreement and associate with WorkOrder
             SignedAgreement saved = signedAgreementRepository.save(signedAgreement);
+            evictCachedAgreement(saved.getWorkOrderId());
             System.out.println("[SignedAgreementService] SignedAgreement saved to DB. ID: " + saved.getId());
             return saved;
             
@@ -131,33 +140,6 @@ public class SignedAgreementService {
         }
     }
 
-    /**
-     * Compute SHA-256 hash of document bytes for integrity verification.
-     * 
-     * @param documentBytes The document bytes to hash
-     * @return Hex-encoded SHA-256 hash
-     * @throws RuntimeException if hash computation fails
-     */
-    private String computeDocumentHash(byte[] documentBytes) {
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hashBytes = digest.digest(documentBytes);
-            
-            // Convert to hex string
-            StringBuilder hexString = new StringBuilder();
-            for (byte b : hashBytes) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) {
-                    hexString.append('0');
-                }
-                hexString.append(hex);
-            }
-            return hexString.toString();
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to compute document hash", e);
-        }
-    }
-
     /**
      * Create a new signed agreement record.
      * This record is immutable and cannot be updated after creation.
@@ -167,7 +149,9 @@ public class SignedAgreementService {
      */
     @Transactional
     public SignedAgreement createSignedAgreement(SignedAgreement signedAgreement) {
-        return signedAgreementRepository.save(signedAgreement);
+        SignedAgreement saved = signedAgreementRepository.save(signedAgreement);
+        evictCachedAgreement(saved.getWorkOrderId());
+        return saved;
     }
 
     /**
@@ -275,8 +259,83 @@ public class SignedAgreementService {
      * @return SignedAgreement if found, null otherwise
      */
     public SignedAgreement findByWorkOrderId(Long workOrderId) {
-        return signedAgreementRepository.findFirstByWorkOrderId(workOrderId)
+        long evictionsBeforeLoad;
+        synchronized (agreementsByWorkOrderId) {
+            SignedAgreement cached = agreementsByWorkOrderId.get(workOrderId);
+            if (cached != null) {
+                return cached;
+            }
+            evictionsBeforeLoad = evictionCount;
+        }
+        SignedAgreement agreement = signedAgreementRepository.findFirstByWorkOrderId(workOrderId)
                 .orElse(null);
+        if (agreement != null) {
+            synchronized (agreementsByWorkOrderId) {
+                if (evictionCount == evictionsBeforeLoad) {
+                    agreementsByWorkOrderId.put(workOrderId, agreement);
+                }
+            }
+        }
+        return agreement;
+    }
+
+    /**
+     * Find signed agreements for many work orders at once (cache first, then one query for the rest).
+     * 
+     * @param workOrderIds The work order IDs
+     * @return Latest signed agreement per work order ID; work orders without one are absent
+     */
+    public Map<Long, SignedAgreement> findByWorkOrderIds(Collection<Long> workOrderIds) {
+        Map<Long, SignedAgreement> result = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        long evictionsBeforeLoad;
+        synchronized (agreementsByWorkOrderId) {
+            evictionsBeforeLoad = evictionCount;
+            for (Long id : workOrderIds) {
+                SignedAgreement cached = agreementsByWorkOrderId.get(id);
+                if (cached != null) {
+                    result.put(id, cached);
+                } else {
+                    missing.add(id);
+                }
+            }
+        }
+        if (!missing.isEmpty()) {
+            Map<Long, SignedAgreement> loaded = signedAgreementRepository.findLatestByWorkOrderIdIn(missing);
+            synchronized (agreementsByWorkOrderId) {
+                if (evictionCount == evictionsBeforeLoad) {
+                    agreementsByWorkOrderId.putAll(loaded);
+                }
+            }
+            result.putAll(loaded);
+        }
+        return result;
+    }
+
+    /**
+     * Evict the work order's cached agreement once the current transaction commits (right away
+     * without a transaction). Evicting before commit would let a concurrent lookup re-cache the
+     * previous agreement from the not-yet-updated table.
+     */
+    private void evictCachedAgreement(Long workOrderId) {
+        if (workOrderId == null) return;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictNow(workOrderId);
+                }
+            });
+        } else {
+            evictNow(workOrderId);
+        }
+    }
+
+    private void evictNow(Long workOrderId) {
+        synchronized (agreementsByWorkOrderId) {
+            agreementsByWorkOrderId.remove(workOrderId);
+            evictionCount++;
+        }
     }
 
     /**
@@ -7,12 +7,25 @@ import com.finetune.app.model.dto.UpdateStaffSettingsRequest;
 import com.finetune.app.repository.sql.StaffSettingsSqlRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class StaffSettingsService {
 
+    private static final int DEFAULT_MAX_CUSTOMER_WORK_ORDERS_PER_DAY = 25;
+
     private final StaffSettingsSqlRepository staffSettingsRepository;
 
+    // Cached limit read on every customer intake; refreshed by updateSettings after commit
+    private volatile Integer maxCustomerWorkOrdersPerDay;
+
+    // Bumped whenever updateSettings publishes a limit, so a load that read the row before the
+    // update committed does not overwrite the new value with the old one
+    private final AtomicLong limitUpdates = new AtomicLong();
+
     public StaffSettingsService(StaffSettingsSqlRepository staffSettingsRepository) {
         this.staffSettingsRepository = staffSettingsRepository;
     }
@@ -20,23 +33,65 @@ public class StaffSettingsService {
     @Transactional
     public StaffSettingsResponse getSettings() {
         StaffSettings settings = staffSettingsRepository.findFirstByOrderByIdAsc()
-            .orElseGet(() -> new StaffSettings(25));
+            .orElseGet(() -> new StaffSettings(DEFAULT_MAX_CUSTOMER_WORK_ORDERS_PER_DAY));
         return StaffSettingsResponse.fromEntity(settings);
     }
 
     @Transactional
     public StaffSettingsResponse updateSettings(UpdateStaffSettingsRequest request) {
         StaffSettings settings = staffSettingsRepository.findFirstByOrderByIdAsc()
-            .orElseGet(() -> new StaffSettings(25));
+            .orElseGet(() -> new StaffSettings(DEFAULT_MAX_CUSTOMER_WORK_ORDERS_PER_DAY));
         settings.setMaxCustomerWorkOrdersPerDay(request.getMaxCustomerWorkOrdersPerDay());
-        // Persist the updated settings (implement update in SQL repository if needed)
-        // staffSettingsRepository.update(settings); // Uncomment if update method exists
+        staffSettingsRepository.save(settings);
+        publishLimitAfterCommit(settings.getMaxCustomerWorkOrdersPerDay());
         return StaffSettingsResponse.fromEntity(settings);
     }
 
+    /**
+     * Daily limit for customer-created work orders. Read from staff_settings once and cached.
+     */
     public int getMaxCustomerWorkOrdersPerDay() {
-        StaffSettings settings = staffSettingsRepository.findFirstByOrderByIdAsc()
-            .orElseGet(() -> new StaffSettings(25));
-        return settings.getMaxCustomerWorkOrdersPerDay();
+        Integer cached = maxCustomerWorkOrdersPerDay;
+        if (cached != null) {
+            return cached;
+        }
+        long updatesBeforeLoad = limitUpdates.get();
+        Integer loaded = staffSettingsRepository.findFirstByOrderByIdAsc()
+            .map(StaffSettings::getMaxCustomerWorkOrdersPerDay)
+            .orElse(null);
+        if (loaded == null) {
+            // Table missing/empty: use the default without caching so a later row is picked up
+            return DEFAULT_MAX_CUSTOMER_WORK_ORDERS_PER_DAY;
+        }
+        synchronized (limitUpdates) {
+            if (limitUpdates.get() == updatesBeforeLoad) {
+                maxCustomerWorkOrdersPerDay = loaded;
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Make a saved limit visible to the limiter only once its transaction has committed, so a
+     * rolled-back update is never enforced. Outside a transaction it is published right away.
+     */
+    private void publishLimitAfterCommit(Integer limit) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publishLimit(limit);
+                }
+            });
+        } else {
+            publishLimit(limit);
+        }
+    }
+
+    private void publishLimit(Integer limit) {
+        synchronized (limitUpdates) {
+            limitUpdates.incrementAndGet();
+            maxCustomerWorkOrdersPerDay = limit;
+        }
     }
 }
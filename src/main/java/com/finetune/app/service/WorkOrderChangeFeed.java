@@ -0,0 +1,281 @@
+package com.finetune.app.service;
+
+import com.finetune.app.model.dto.WorkOrderChangeEvent;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process change feed for work orders, pushed to staff dashboards as server-sent events.
+ *
+ * WorkOrderService publishes a compact WorkOrderChangeEvent after each mutation commits. Events
+ * are fanned out per shop:
+ * - each shop keeps the last app.feed.history-size events, so a reconnecting client that sends
+ *   Last-Event-ID gets what it missed; if those events are no longer held (or the id is from
+ *   before a restart) it gets a "reset" event and should reload the board once
+ * - each client has a bounded buffer drained by a small sender pool; a client that falls a full
+ *   buffer behind is disconnected instead of slowing down publishers, and resumes on reconnect
+ * - a comment heartbeat keeps idle connections open and detects dead clients
+ *
+ * Event ids are seeded from the clock at startup, so they keep increasing across restarts.
+ */
+@Component
+public class WorkOrderChangeFeed {
+
+    private static final String EVENT_NAME = "workorder";
+    private static final String RESET_EVENT_NAME = "reset";
+    private static final String RESET_TYPE = "RESET";
+
+    // Buffer marker for a heartbeat comment
+    private static final WorkOrderChangeEvent HEARTBEAT = new WorkOrderChangeEvent();
+
+    private final int historySize;
+    private final int clientBufferSize;
+    private final long emitterTimeoutMillis;
+
+    private final long firstEventId;
+    private final AtomicLong sequence;
+    private final Map<Long, ShopChannel> channels = new ConcurrentHashMap<>();
+
+    private final ThreadPoolExecutor senders;
+    private final ScheduledExecutorService heartbeat;
+
+    /**
+     * Recent events and connected clients of one shop. Guarded by synchronizing on the channel,
+     * so replay on subscribe and live delivery cannot interleave.
+     */
+    private static final class ShopChannel {
+        final ArrayDeque<WorkOrderChangeEvent> history = new ArrayDeque<>();
+        final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+        // Id of the newest event dropped from history (0 = none dropped yet)
+        long trimmedUpTo;
+    }
+
+    /**
+     * One connected client: a bounded buffer drained by at most one sender task at a time.
+     */
+    private final class Subscriber {
+        final ShopChannel channel;
+        final SseEmitter emitter;
+        final ArrayBlockingQueue<WorkOrderChangeEvent> buffer;
+        final AtomicBoolean draining = new AtomicBoolean();
+        volatile boolean closed;
+
+        Subscriber(ShopChannel channel, SseEmitter emitter) {
+            this.channel = channel;
+            this.emitter = emitter;
+            this.buffer = new ArrayBlockingQueue<>(clientBufferSize);
+        }
+
+        void offer(WorkOrderChangeEvent event) {
+            if (closed) return;
+            if (!buffer.offer(event)) {
+                // Too slow: drop the connection; the client reconnects with Last-Event-ID
+                close();
+                return;
+            }
+            scheduleDrain();
+        }
+
+        void scheduleDrain() {
+            if (!draining.compareAndSet(false, true)) return;
+            try {
+                senders.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                draining.set(false);
+                close();
+            }
+        }
+
+        void drain() {
+            try {
+                WorkOrderChangeEvent event;
+                while (!closed && (event = buffer.poll()) != null) {
+                    if (event == HEARTBEAT) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    } else if (RESET_TYPE.equals(event.getType())) {
+                        emitter.send(SseEmitter.event()
+                                .id(Long.toString(event.getId()))
+                                .name(RESET_EVENT_NAME)
+                                .data("reload"));
+                    } else {
+                        emitter.send(SseEmitter.event()
+                                .id(Long.toString(event.getId()))
+                                .name(EVENT_NAME)
+                                .data(event, MediaType.APPLICATION_JSON));
+                    }
+                }
+            } catch (Exception e) {
+                // Client went away
+                close();
+            } finally {
+                draining.set(false);
+                if (!closed && !buffer.isEmpty()) {
+                    scheduleDrain();
+                }
+            }
+        }
+
+        void close() {
+            if (closed) return;
+            closed = true;
+            channel.subscribers.remove(this);
+            buffer.clear();
+            try {
+                emitter.complete();
+            } catch (Exception ignored) {
+                // Already completed or the response is gone
+            }
+        }
+    }
+
+    public WorkOrderChangeFeed(
+            @Value("${app.feed.history-size:500}") int historySize,
+            @Value("${app.feed.client-buffer:256}") int clientBufferSize,
+            @Value("${app.feed.sender-threads:4}") int senderThreads,
+            @Value("${app.feed.emitter-timeout-minutes:30}") long emitterTimeoutMinutes,
+            @Value("${app.feed.heartbeat-seconds:25}") long heartbeatSeconds) {
+        this.historySize = historySize;
+        this.clientBufferSize = clientBufferSize;
+        this.emitterTimeoutMillis = TimeUnit.MINUTES.toMillis(emitterTimeoutMinutes);
+        this.firstEventId = System.currentTimeMillis() * 1000L;
+        this.sequence = new AtomicLong(firstEventId);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.senders = new ThreadPoolExecutor(
+                senderThreads, senderThreads, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                r -> {
+                    Thread t = new Thread(r, "workorder-feed-" + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "workorder-feed-heartbeat");
+            t.setDaemon(true);
+            return t;
+        });
+        heartbeat.scheduleWithFixedDelay(this::sendHeartbeats, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeat.shutdownNow();
+        for (ShopChannel channel : channels.values()) {
+            for (Subscriber subscriber : new ArrayList<>(channel.subscribers)) {
+                subscriber.close();
+            }
+        }
+        senders.shutdownNow();
+    }
+
+    /**
+     * Connect a client to a shop's feed.
+     *
+     * @param shopId the shop whose work orders to follow
+     * @param lastEventId id of the last event the client received (Last-Event-ID), or null
+     * @return emitter to return from the controller
+     */
+    public SseEmitter subscribe(Long shopId, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        ShopChannel channel = channels.computeIfAbsent(shopId, k -> new ShopChannel());
+        Subscriber subscriber = new Subscriber(channel, emitter);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+
+        synchronized (channel) {
+            if (lastEventId != null) {
+                List<WorkOrderChangeEvent> missed = new ArrayList<>();
+                for (WorkOrderChangeEvent event : channel.history) {
+                    if (event.getId() > lastEventId) missed.add(event);
+                }
+                // Missed events are gone if they predate this process or were trimmed from history
+                boolean reset = lastEventId < firstEventId || lastEventId < channel.trimmedUpTo
+                        || missed.size() >= clientBufferSize;
+                if (reset) {
+                    subscriber.offer(new WorkOrderChangeEvent(sequence.get(), RESET_TYPE,
+                            null, null, null, null, LocalDateTime.now()));
+                } else {
+                    for (WorkOrderChangeEvent event : missed) {
+                        subscriber.offer(event);
+                    }
+                }
+            }
+            channel.subscribers.add(subscriber);
+        }
+        return emitter;
+    }
+
+    /**
+     * Publish a change for a work order. Inside a transaction the event is sent after commit
+     * (and dropped on rollback); otherwise immediately. Events without a shop are not published.
+     */
+    public void publish(Long shopId, String type, Long workOrderId, String status,
+                        Long equipmentId, String equipmentStatus) {
+        if (shopId == null) return;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(shopId, type, workOrderId, status, equipmentId, equipmentStatus);
+                }
+            });
+        } else {
+            dispatch(shopId, type, workOrderId, status, equipmentId, equipmentStatus);
+        }
+    }
+
+    private void dispatch(Long shopId, String type, Long workOrderId, String status,
+                          Long equipmentId, String equipmentStatus) {
+        ShopChannel channel = channels.computeIfAbsent(shopId, k -> new ShopChannel());
+        synchronized (channel) {
+            WorkOrderChangeEvent event = new WorkOrderChangeEvent(sequence.incrementAndGet(), type,
+                    workOrderId, status, equipmentId, equipmentStatus, LocalDateTime.now());
+            channel.history.addLast(event);
+            while (channel.history.size() > historySize) {
+                channel.trimmedUpTo = channel.history.pollFirst().getId();
+            }
+            for (Subscriber subscriber : channel.subscribers) {
+                subscriber.offer(event);
+            }
+        }
+    }
+
+    private void sendHeartbeats() {
+        try {
+            for (ShopChannel channel : channels.values()) {
+                for (Subscriber subscriber : channel.subscribers) {
+                    if (subscriber.buffer.isEmpty()) {
+                        subscriber.offer(HEARTBEAT);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            // Keep the heartbeat alive; it runs again on the next tick
+            System.err.println("[WorkOrderChangeFeed] Heartbeat failed: " + e.getMessage());
+        }
+    }
+}
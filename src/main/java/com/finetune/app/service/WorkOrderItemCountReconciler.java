@@ -0,0 +1,102 @@
+package com.finetune.app.service;
+
+import com.finetune.app.repository.sql.WorkOrderSqlRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically checks the per-status item counters on work_orders against the actual
+ * work_order_items/equipment rows.
+ *
+ * Item transitions keep the counters in step, so drift means a write path bypassed them (e.g. a
+ * manual SQL fix). The job walks work_orders in id order, app.workorders.counter-reconcile-batch-size
+ * rows at a time, logs every work order whose counters differ and, unless repair is disabled,
+ * recomputes them from the items.
+ */
+@Service
+public class WorkOrderItemCountReconciler {
+
+    private final WorkOrderSqlRepository workOrderRepository;
+
+    private final long intervalMinutes;
+    private final int batchSize;
+    private final boolean repair;
+
+    private final ScheduledExecutorService scheduler;
+
+    public WorkOrderItemCountReconciler(
+            WorkOrderSqlRepository workOrderRepository,
+            @Value("${app.workorders.counter-reconcile-interval-minutes:60}") long intervalMinutes,
+            @Value("${app.workorders.counter-reconcile-batch-size:500}") int batchSize,
+            @Value("${app.workorders.counter-reconcile-repair:true}") boolean repair) {
+        this.workOrderRepository = workOrderRepository;
+        this.intervalMinutes = intervalMinutes;
+        this.batchSize = batchSize;
+        this.repair = repair;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "workorder-counter-reconciler");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (intervalMinutes <= 0) {
+            return;
+        }
+        scheduler.scheduleWithFixedDelay(this::reconcileSafely, intervalMinutes, intervalMinutes, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Check every work order once.
+     *
+     * @return number of work orders whose counters did not match their items
+     */
+    public int reconcile() {
+        int drifted = 0;
+        long afterId = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            Long batchEnd = workOrderRepository.findBatchEndId(afterId, batchSize);
+            if (batchEnd == null) {
+                break;
+            }
+            List<Long> driftedIds = workOrderRepository.findItemCountDrift(afterId, batchSize);
+            if (!driftedIds.isEmpty()) {
+                drifted += driftedIds.size();
+                System.err.println("[WorkOrderItemCountReconciler] Item counters out of sync for work orders " + driftedIds
+                        + (repair ? ", recomputing" : ""));
+                if (repair) {
+                    workOrderRepository.refreshItemCounts(driftedIds);
+                }
+            }
+            afterId = batchEnd;
+        }
+        return drifted;
+    }
+
+    private void reconcileSafely() {
+        try {
+            int drifted = reconcile();
+            if (drifted > 0) {
+                System.out.println("[WorkOrderItemCountReconciler] Reconciled " + drifted + " work order(s)");
+            }
+        } catch (Exception e) {
+            // Keep the schedule alive; it runs again on the next tick
+            System.err.println("[WorkOrderItemCountReconciler] Reconciliation failed: " + e.getMessage());
+        }
+    }
+}
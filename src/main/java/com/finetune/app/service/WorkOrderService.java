@@ -22,6 +22,8 @@
  */
 package com.finetune.app.service;
 
+import com.finetune.app.model.dto.BulkEquipmentStatusRequest;
+import com.finetune.app.model.dto.BulkEquipmentStatusResponse;
 import com.finetune.app.model.dto.CreateWorkOrderRequest;
 import com.finetune.app.model.dto.EquipmentItemRequest;
 import com.finetune.app.model.dto.EquipmentRequest;
@@ -32,18 +34,27 @@ import com.finetune.app.model.Boot;
 import com.finetune.app.model.enums.EquipmentStatus;
 import com.finetune.app.model.enums.WorkOrderStatus;
 import com.finetune.app.exception.DailyLimitExceededException;
+import com.finetune.app.exception.OptimisticLockConflictException;
 import com.finetune.app.repository.sql.WorkOrderSqlRepository;
 import com.finetune.app.repository.sql.CustomerSqlRepository;
 import com.finetune.app.repository.sql.EquipmentSqlRepository;
 import com.finetune.app.repository.sql.BootSqlRepository;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -58,6 +69,10 @@ public class WorkOrderService {
     private final com.finetune.app.repository.sql.WorkOrderItemSqlRepository workOrderItemRepository;
     private final CustomerService customerService;
     private final StaffSettingsService staffSettingsService;
+    private final DailyWorkOrderLimiter dailyWorkOrderLimiter;
+    private final WorkOrderChangeFeed changeFeed;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxConflictRetries;
 
     public WorkOrderService(
             WorkOrderSqlRepository workOrderRepository,
@@ -66,7 +81,11 @@ public class WorkOrderService {
             BootSqlRepository bootRepository,
             com.finetune.app.repository.sql.WorkOrderItemSqlRepository workOrderItemRepository,
             CustomerService customerService,
-            StaffSettingsService staffSettingsService) {
+            StaffSettingsService staffSettingsService,
+            DailyWorkOrderLimiter dailyWorkOrderLimiter,
+            WorkOrderChangeFeed changeFeed,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.workorders.max-conflict-retries:3}") int maxConflictRetries) {
         this.workOrderRepository = workOrderRepository;
         this.customerRepository = customerRepository;
         this.equipmentRepository = equipmentRepository;
@@ -74,6 +93,43 @@ public class WorkOrderService {
         this.workOrderItemRepository = workOrderItemRepository;
         this.customerService = customerService;
         this.staffSettingsService = staffSettingsService;
+        this.dailyWorkOrderLimiter = dailyWorkOrderLimiter;
+        this.changeFeed = changeFeed;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxConflictRetries = maxConflictRetries;
+    }
+
+    /**
+     * Run a work order mutation in its own transaction and, if one of its version-checked writes
+     * conflicts with a concurrent change, run it again from fresh reads (up to
+     * app.workorders.max-conflict-retries times, with a short random backoff). Each attempt
+     * re-validates against the current state, so a change that is no longer allowed fails with the
+     * usual validation error instead of overwriting the other write.
+     *
+     * When called inside an existing transaction the action runs once: a retry would read the same
+     * snapshot, so the conflict is left to the caller.
+     */
+    private <T> T withConflictRetry(String operation, java.util.function.Supplier<T> action) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return action.get();
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> action.get());
+            } catch (OptimisticLockConflictException e) {
+                if (attempt > maxConflictRetries) {
+                    throw e;
+                }
+                System.out.println("[WorkOrderService] " + operation + " conflicted (" + e.getMessage()
+                    + "), retrying " + attempt + "/" + maxConflictRetries);
+                try {
+                    Thread.sleep(java.util.concurrent.ThreadLocalRandom.current().nextLong(5, 25L * attempt));
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
     }
 
     /**
@@ -88,25 +144,19 @@ public class WorkOrderService {
     }
 
     /**
-     * Checks if a customer has exceeded their daily work order limit.
+     * Checks if a customer has exceeded their daily work order limit and, if not,
+     * counts the work order about to be created against it.
      * This check only applies to customer-created work orders.
      * 
      * @param customer the customer to check
      * @throws DailyLimitExceededException if the customer has reached or exceeded their daily limit
      */
     private void checkDailyLimit(Customer customer) {
-        // Get the max limit from settings
+        // Get the max limit from settings (cached)
         int maxLimit = staffSettingsService.getMaxCustomerWorkOrdersPerDay();
         
-        // Count customer-created work orders in the last 24 hours
-        LocalDateTime twentyFourHoursAgo = LocalDateTime.now().minusHours(24);
-        // TODO: Implement countCustomerCreatedWorkOrdersSince in WorkOrderSqlRepository
-        long count = 0; // workOrderRepository.countCustomerCreatedWorkOrdersSince(customer.getId(), twentyFourHoursAgo);
-        
-        // Check if limit is exceeded
-        if (count >= maxLimit) {
-            throw new DailyLimitExceededException(maxLimit);
-        }
+        // Check and record against the customer's rolling 24 hour window in one step
+        dailyWorkOrderLimiter.acquire(customer.getId(), maxLimit);
     }
 
     /**
@@ -151,6 +201,20 @@ public class WorkOrderService {
      */
     @Transactional
     public WorkOrder createOrMergeWorkOrder(CreateWorkOrderRequest request, boolean customerCreated) {
+        return createOrMergeWorkOrder(request, customerCreated, null);
+    }
+
+    /**
+     * Creates or merges a work order, recording the owning shop on newly created orders
+     * so shop-scoped listings (GET /workorders/page) can find them.
+     *
+     * @param request the create work order request with customer and ski item details
+     * @param customerCreated true if this is a customer-created work order (for daily limit enforcement)
+     * @param shopId the active shop (ACTIVE_SHOP request attribute), or null if unknown
+     * @return the work order (new or merged) with all ski items
+     */
+    @Transactional
+    public WorkOrder createOrMergeWorkOrder(CreateWorkOrderRequest request, boolean customerCreated, Long shopId) {
         // Step 1: Find or create customer
         Customer customer = customerService.findOrCreateCustomer(
             request.getCustomerFirstName(),
@@ -159,11 +223,7 @@ public class WorkOrderService {
             request.getPhone()
         );
 
-        // Ensure we are working with a managed Customer instance.
-        // This avoids subtle merge/detached-entity behavior when we add new Boots.
         final Long customerId = customer.getId();
-        customer = customerRepository.findById(customerId)
-            .orElseThrow(() -> new IllegalArgumentException("Customer not found: " + customerId));
 
         // Step 2: Check for duplicate active work order with matching equipment
         // Use the first ski item to detect if customer already has an active work order with this equipment
@@ -182,7 +242,8 @@ public class WorkOrderService {
                 if (firstItem.getBootId() != null) {
                     bootForDuplicateCheck = bootRepository.findById(firstItem.getBootId()).orElse(null);
                 } else {
-                    // Check if customer has matching boot
+                    // Check if customer has matching boot (boots are only loaded when needed)
+                    customer.setBoots(bootRepository.findByCustomerId(customerId));
                     bootForDuplicateCheck = customer.findMatchingBoot(
                         firstItem.getBootBrand(),
                         firstItem.getBootModel(),
@@ -191,13 +252,17 @@ public class WorkOrderService {
                 }
             }
             
-            // Check for duplicate active work order
-            Optional<WorkOrder> duplicateWorkOrder = findDuplicateActiveWorkOrder(customer, firstItem, bootForDuplicateCheck);
-            if (duplicateWorkOrder.isPresent()) {
-                workOrder = duplicateWorkOrder.get();
-                // Ensure the work order is attached to the current session
-                workOrder = workOrderRepository.findByIdWithEquipment(workOrder.getId()).orElse(workOrder);
+            // Check for duplicate active work order; the full graph is loaded only for a match
+            Optional<Long> duplicateWorkOrderId = findDuplicateActiveWorkOrder(customer, firstItem, bootForDuplicateCheck);
+            if (duplicateWorkOrderId.isPresent()) {
                 // Duplicate found - will merge into this work order
+                workOrder = workOrderRepository.findByIdWithEquipment(duplicateWorkOrderId.get()).orElse(null);
+                // Legacy orders created before shop scoping have no shop; claim them for the
+                // shop merging into them so they show up in its listings
+                if (workOrder != null && workOrder.getShopId() == null && shopId != null
+                        && workOrderRepository.assignShopIfMissing(workOrder.getId(), shopId) > 0) {
+                    workOrder.setShopId(shopId);
+                }
             }
         }
         
@@ -227,6 +292,7 @@ public class WorkOrderService {
                 workOrder.setCreatedAt(LocalDateTime.now());
                 workOrder.setPromisedBy(request.getPromisedBy());
                 workOrder.setCustomerCreated(customerCreated);
+                workOrder.setShopId(shopId);
                 customer.addWorkOrder(workOrder);
                     // Persist the new work order in the database
                     workOrderRepository.save(workOrder);
@@ -237,11 +303,23 @@ public class WorkOrderService {
         // Step 3b: For existing work orders, save first to ensure proper session management
         // TODO: Implement save logic for workOrder in SqlRepository if needed
 
-        // Step 4: Process all incoming equipment items with duplication prevention
+        // Step 4: Process all incoming equipment items with duplication prevention.
+        // Nothing is written per item: equipment and work_order_items rows are collected
+        // here and written in batches in Step 6.
+        List<Equipment> attachedEquipment = new ArrayList<>();
         if (request.getEquipment() != null && !request.getEquipment().isEmpty()) {
             // Track processed equipment items within this request to prevent duplicates
             // (e.g., UI double-adds the same row into the payload)
             Set<String> processedItemKeys = new HashSet<>();
+
+            // Load all referenced existing equipment in one query
+            Set<Long> existingEquipmentIds = new HashSet<>();
+            for (EquipmentItemRequest equipReq : request.getEquipment()) {
+                if (equipReq.getEquipmentId() != null) {
+                    existingEquipmentIds.add(equipReq.getEquipmentId());
+                }
+            }
+            Map<Long, Equipment> existingEquipment = equipmentRepository.findByIdIn(existingEquipmentIds);
             
             for (EquipmentItemRequest equipReq : request.getEquipment()) {
                 // Create a unique key for this equipment item request
@@ -253,7 +331,7 @@ public class WorkOrderService {
                 }
                 
                 processedItemKeys.add(itemKey);
-                processEquipmentItemWithDuplicationPrevention(customer, workOrder, equipReq);
+                processEquipmentItemWithDuplicationPrevention(customer, workOrder, equipReq, existingEquipment, attachedEquipment);
             }
         }
 
@@ -269,20 +347,35 @@ public class WorkOrderService {
             });
         }
 
-        // Persist service history updates for each equipment explicitly
-        if (workOrder.getEquipment() != null) {
+        // Step 6: Persist equipment explicitly via repositories (no cascade from customer):
+        // one batch insert for new equipment, one batch update for rows that actually changed,
+        // then one batch insert for the new work_order_items associations.
+        if (workOrder.getEquipment() != null && !workOrder.getEquipment().isEmpty()) {
+            equipmentRepository.saveAll(workOrder.getEquipment());
+        }
+        if (!attachedEquipment.isEmpty()) {
+            List<Long> attachedIds = new ArrayList<>();
+            for (Equipment equipment : attachedEquipment) {
+                attachedIds.add(equipment.getId());
+            }
+            try {
+                workOrderItemRepository.addEquipmentToWorkOrderBatch(workOrder.getId(), attachedIds);
+            } catch (Exception ex) {
+                System.err.println("Failed to create work_order_items associations for equipment ids: " + attachedIds + " - " + ex.getMessage());
+            }
+        }
+        // Items were attached and reset in a set; recount this work order (and any other work order
+        // sharing these items) in one statement
+        if (workOrder.getEquipment() != null && !workOrder.getEquipment().isEmpty()) {
+            List<Long> equipmentIds = new ArrayList<>();
             for (Equipment equipment : workOrder.getEquipment()) {
-                try {
-                    equipmentRepository.save(equipment);
-                } catch (Exception e) {
-                    // Log and continue - avoid failing the entire flow due to a single item
-                    System.err.println("Failed to persist equipment service history for equipment id: " + equipment.getId() + " - " + e.getMessage());
-                }
+                equipmentIds.add(equipment.getId());
             }
+            workOrderRepository.refreshItemCountsForEquipment(equipmentIds);
         }
 
-        // Step 6: Persistence for new equipment is handled explicitly via repositories
-        // (do not rely on saving the customer to cascade-persist equipment)
+        changeFeed.publish(workOrder.getShopId() != null ? workOrder.getShopId() : shopId,
+            isNewWorkOrder ? "CREATED" : "MERGED", workOrder.getId(), workOrder.getStatus(), null, null);
 
         return workOrder;
     }
@@ -305,8 +398,11 @@ public class WorkOrderService {
      * @param customer the customer
      * @param workOrder the work order to add/merge into
      * @param skiReq the ski item request
+     * @param existingEquipment equipment referenced by equipmentId in this request, keyed by id
+     * @param attachedEquipment collects equipment newly attached to the work order (for work_order_items)
      */
-    private void processEquipmentItemWithDuplicationPrevention(Customer customer, WorkOrder workOrder, EquipmentItemRequest equipReq) {
+    private void processEquipmentItemWithDuplicationPrevention(Customer customer, WorkOrder workOrder, EquipmentItemRequest equipReq,
+                                                               Map<Long, Equipment> existingEquipment, List<Equipment> attachedEquipment) {
         // Validate equipment selection (equipmentId vs newEquipment)
         validateEquipmentSelection(equipReq);
         
@@ -314,7 +410,7 @@ public class WorkOrderService {
         
         // Step 1: If equipmentId provided, use existing equipment
         if (equipReq.getEquipmentId() != null) {
-            processExistingEquipment(customer, workOrder, equipReq);
+            processExistingEquipment(customer, workOrder, equipReq, existingEquipment, attachedEquipment);
             return;
         }
         
@@ -361,7 +457,7 @@ public class WorkOrderService {
         }
         
         // Step 4: Create new Equipment (no match found or cannot merge)
-        createNewEquipment(customer, workOrder, equipReq, boot);
+        createNewEquipment(customer, workOrder, equipReq, boot, attachedEquipment);
     }
 
     /**
@@ -371,12 +467,17 @@ public class WorkOrderService {
      * @param customer the customer
      * @param workOrder the work order
      * @param equipReq the equipment item request with equipmentId
+     * @param existingEquipment equipment preloaded for this request, keyed by id
+     * @param attachedEquipment collects equipment newly attached to the work order
      * @throws IllegalArgumentException if equipment not found or doesn't belong to customer
      */
-    private void processExistingEquipment(Customer customer, WorkOrder workOrder, EquipmentItemRequest equipReq) {
+    private void processExistingEquipment(Customer customer, WorkOrder workOrder, EquipmentItemRequest equipReq,
+                                          Map<Long, Equipment> existingEquipment, List<Equipment> attachedEquipment) {
         // Look up existing equipment
-        Equipment equipment = equipmentRepository.findById(equipReq.getEquipmentId())
-            .orElseThrow(() -> new IllegalArgumentException("Equipment not found with ID: " + equipReq.getEquipmentId()));
+        Equipment equipment = existingEquipment.get(equipReq.getEquipmentId());
+        if (equipment == null) {
+            throw new IllegalArgumentException("Equipment not found with ID: " + equipReq.getEquipmentId());
+        }
         
         // Verify equipment belongs to this customer
         if (!equipment.getCustomer().getId().equals(customer.getId())) {
@@ -407,20 +508,15 @@ public class WorkOrderService {
             }
         }
         
-        // Attach to work order (prevent duplicates)
+        // Attach to work order (prevent duplicates).
+        // New design: a work_order_items association is created instead of setting equipment.work_order_id
         if (!workOrder.getEquipment().contains(equipment)) {
             workOrder.addEquipment(equipment);
+            attachedEquipment.add(equipment);
         }
         
-        // Update last work order pointer and save equipment changes.
-        // New design: create work_order_items association instead of setting equipment.work_order_id
+        // Update last work order pointer; the row is written in Step 6 only if it changed
         equipment.setLastWorkOrderId(workOrder.getId());
-        equipmentRepository.save(equipment);
-        try {
-            workOrderItemRepository.addEquipmentToWorkOrder(workOrder.getId(), equipment.getId());
-        } catch (Exception ex) {
-            System.err.println("Failed to create work_order_items association for equipment id: " + equipment.getId() + " - " + ex.getMessage());
-        }
     }
 
     /**
@@ -518,8 +614,10 @@ public class WorkOrderService {
      * @param workOrder the work order
      * @param equipReq the equipment item request
      * @param boot the boot (null for non-mount services)
+     * @param attachedEquipment collects equipment newly attached to the work order
      */
-    private void createNewEquipment(Customer customer, WorkOrder workOrder, EquipmentItemRequest equipReq, Boot boot) {
+    private void createNewEquipment(Customer customer, WorkOrder workOrder, EquipmentItemRequest equipReq, Boot boot,
+                                    List<Equipment> attachedEquipment) {
         Equipment equipment;
         
         // Use newEquipment if provided, otherwise fall back to legacy fields
@@ -575,23 +673,13 @@ public class WorkOrderService {
         equipment.setCustomerId(customer.getId());
         // Record the association for audit/history
         equipment.setLastWorkOrderId(workOrder.getId());
-        equipmentRepository.save(equipment);
-        try {
-            workOrderItemRepository.addEquipmentToWorkOrder(workOrder.getId(), equipment.getId());
-        } catch (Exception ex) {
-            System.err.println("Failed to create work_order_items association for new equipment id: " + equipment.getId() + " - " + ex.getMessage());
-        }
         
-        // 2. Attach to work order (reference only, no cascade)
-        // Guard: Prevent duplicate equipment entries in work order
-        if (!workOrder.getEquipment().contains(equipment)) {
-            workOrder.addEquipment(equipment);
-        }
-        
-        // 3. Save via customer cascade (this automatically persists equipment with work_order_id)
-        // customerRepository.save(customer);
-        // 4. Explicitly save equipment to ensure persistence in MySQL
-        equipmentRepository.save(equipment);
+        // 2. Attach to work order (reference only, no cascade).
+        // Added directly: the equipment has no id until the batch insert in Step 6, and the
+        // business-key equals() would treat it as a copy of a same-model ski already on the order.
+        workOrder.getEquipment().add(equipment);
+        equipment.setWorkOrder(workOrder);
+        attachedEquipment.add(equipment);
     }
 
     /**
@@ -601,18 +689,24 @@ public class WorkOrderService {
     private void updateCustomerProfileFromEquipment(Customer customer, Equipment equipment) {
         if (customer == null || equipment == null) return;
 
-        if (equipment.getHeightInches() != null) {
+        boolean changed = false;
+        if (equipment.getHeightInches() != null && !equipment.getHeightInches().equals(customer.getHeightInches())) {
             customer.setHeightInches(equipment.getHeightInches());
+            changed = true;
         }
-        if (equipment.getWeight() != null) {
+        if (equipment.getWeight() != null && !equipment.getWeight().equals(customer.getWeight())) {
             customer.setWeight(equipment.getWeight());
+            changed = true;
         }
-        if (equipment.getAbilityLevel() != null) {
+        if (equipment.getAbilityLevel() != null && equipment.getAbilityLevel() != customer.getSkiAbilityLevel()) {
             customer.setSkiAbilityLevel(equipment.getAbilityLevel());
+            changed = true;
         }
 
-        // Persist customer profile changes explicitly
-        customerRepository.save(customer);
+        // Persist customer profile changes explicitly, only when something changed
+        if (changed) {
+            customerRepository.save(customer);
+        }
     }
 
     /**
@@ -629,12 +723,14 @@ public class WorkOrderService {
      * - Boot ID matches (for MOUNT services)
      * - Service type matches
      * 
+     * Uses a single fingerprint query; no work order graph is loaded.
+     * 
      * @param customer the customer
      * @param equipReq the equipment item request with equipment details
      * @param boot the boot (null for non-mount services)
-     * @return Optional containing the matching work order, or empty if no match
+     * @return Optional containing the matching work order id, or empty if no match
      */
-    private Optional<WorkOrder> findDuplicateActiveWorkOrder(
+    private Optional<Long> findDuplicateActiveWorkOrder(
         Customer customer,
         EquipmentItemRequest equipReq,
         Boot boot
@@ -645,21 +741,19 @@ public class WorkOrderService {
             WorkOrderStatus.IN_PROGRESS.name()
         );
         
-        List<WorkOrder> activeWorkOrders = 
-            workOrderRepository.findByCustomerIdAndStatusIn(customer.getId(), activeStatuses);
+        List<WorkOrderSqlRepository.ActiveItemFingerprint> fingerprints =
+            workOrderRepository.findItemFingerprintsByCustomerIdAndStatusIn(customer.getId(), activeStatuses);
         
-        // Check each active work order for matching equipment
-        for (WorkOrder workOrder : activeWorkOrders) {
-            for (Equipment equipment : workOrder.getEquipment()) {
-                // Skip picked up items (they're no longer active)
-                if ("PICKED_UP".equals(equipment.getStatus())) {
-                    continue;
-                }
-                
-                // Check if equipment matches the request
-                if (equipmentMatchesRequest(equipment, equipReq, boot)) {
-                    return Optional.of(workOrder);
-                }
+        // Check each active work order's equipment for a match
+        for (WorkOrderSqlRepository.ActiveItemFingerprint item : fingerprints) {
+            // Skip picked up items (they're no longer active)
+            if ("PICKED_UP".equals(item.getStatus())) {
+                continue;
+            }
+            
+            // Check if equipment matches the request
+            if (equipmentMatchesRequest(item, equipReq, boot)) {
+                return Optional.of(item.getWorkOrderId());
             }
         }
         
@@ -675,12 +769,12 @@ public class WorkOrderService {
      * - Model matches
      * - Boot ID matches (for MOUNT services only)
      * 
-     * @param equipment the equipment to check
+     * @param equipment the equipment fingerprint to check
      * @param equipReq the equipment item request
      * @param boot the boot for mount services (null for others)
      * @return true if equipment matches the request
      */
-    private boolean equipmentMatchesRequest(Equipment equipment, EquipmentItemRequest equipReq, Boot boot) {
+    private boolean equipmentMatchesRequest(WorkOrderSqlRepository.ActiveItemFingerprint equipment, EquipmentItemRequest equipReq, Boot boot) {
         // Match service type
         if (!equipment.getServiceType().equals(equipReq.getServiceType())) {
             return false;
@@ -706,10 +800,10 @@ public class WorkOrderService {
         
         // For MOUNT services, boot must also match
         if ("MOUNT".equals(equipReq.getServiceType())) {
-            if (equipment.getBoot() == null || boot == null) {
-                return equipment.getBoot() == null && boot == null;
+            if (equipment.getBootId() == null || boot == null) {
+                return equipment.getBootId() == null && boot == null;
             }
-            return equipment.getBoot().getId().equals(boot.getId());
+            return equipment.getBootId().equals(boot.getId());
         }
         
         return true;
@@ -803,12 +897,11 @@ public class WorkOrderService {
      * - Any status → PICKED_UP (only via pickup workflow)
      * 
      * Process:
-     * 1. Find and validate the equipment item
+     * 1. Find the equipment item's current status (no equipment rows are loaded)
      * 2. Validate the status transition
-     * 3. Update the item status
-     * 4. Recalculate work order status (item-driven)
-     * 5. Save via Customer (owns Equipment lifecycle)
-     * 6. Return the work order
+     * 3. Update the item status and the work order item counters in one statement
+     * 4. Recalculate work order status from the counters (item-driven)
+     * 5. Return the work order
      * 
      * @param workOrderId the ID of the work order
      * @param equipmentId the ID of the equipment item to update
@@ -816,38 +909,170 @@ public class WorkOrderService {
      * @return the updated work order
      * @throws IllegalArgumentException if validation fails
      */
-    @Transactional
     public WorkOrder updateEquipmentStatus(Long workOrderId, Long equipmentId, String newStatus) {
-        // Find the work order
-        WorkOrder workOrder = workOrderRepository.findByIdWithEquipment(workOrderId)
+        return withConflictRetry("updateEquipmentStatus", () -> applyEquipmentStatus(workOrderId, equipmentId, newStatus));
+    }
+
+    private WorkOrder applyEquipmentStatus(Long workOrderId, Long equipmentId, String newStatus) {
+        // Find the work order (row only; status is derived from its item counters)
+        WorkOrder workOrder = workOrderRepository.findByIdWithoutItems(workOrderId)
             .orElseThrow(() -> new IllegalArgumentException("Work order not found: " + workOrderId));
 
-        // Find the equipment item within this work order
-        Equipment equipment = workOrder.getEquipment().stream()
-            .filter(item -> item.getId().equals(equipmentId))
-            .findFirst()
-            .orElseThrow(() -> new IllegalArgumentException("Equipment item not found in work order: " + equipmentId));
+        // Find the equipment item's current status within this work order
+        String currentStatus = equipmentRepository
+            .findStatusesByWorkOrderIdInAndIdIn(List.of(workOrderId), List.of(equipmentId))
+            .getOrDefault(workOrderId, Map.of())
+            .get(equipmentId);
+        if (currentStatus == null) {
+            throw new IllegalArgumentException("Equipment item not found in work order: " + equipmentId);
+        }
 
         // Validate the status transition
-        validateItemStatusTransition(equipment.getStatus(), newStatus);
+        validateItemStatusTransition(currentStatus, newStatus);
         
         // Prevent manual setting of PICKED_UP (only via pickup workflow)
         if ("PICKED_UP".equals(newStatus)) {
             throw new IllegalArgumentException("PICKED_UP status can only be set via pickup workflow, not manually");
         }
 
-        // Update the equipment item's status
-        equipment.setStatus(newStatus);
+        if (!currentStatus.equals(newStatus)) {
+            // Update the item status and the work order item counters in one statement
+            boolean updated = equipmentRepository.transitionStatus(
+                new EquipmentSqlRepository.StatusTransition(equipmentId, currentStatus, newStatus));
+            if (!updated) {
+                throw new OptimisticLockConflictException("Equipment", equipmentId);
+            }
 
-        // Recalculate work order status based on all items (item-driven logic)
-        updateWorkOrderStatusAndCompletedDate(workOrder);
+            // Recalculate work order status from the updated counters (item-driven logic)
+            workOrder = workOrderRepository.findByIdWithoutItems(workOrderId).orElse(workOrder);
+            String before = workOrder.getStatus();
+            updateWorkOrderStatusFromItemCounts(workOrder);
+            if (!before.equals(workOrder.getStatus())) {
+                workOrderRepository.updateStatusBatch(List.of(workOrder));
+            }
+        }
 
-        // Persist updated equipment explicitly (avoid customer cascade)
-        equipmentRepository.save(equipment);
-        // Save work order status change
-        workOrderRepository.save(workOrder);
+        changeFeed.publish(workOrder.getShopId(), "EQUIPMENT_STATUS", workOrderId, workOrder.getStatus(),
+            equipmentId, newStatus);
 
-        return workOrder;
+        // Full graph only for the response
+        return workOrderRepository.findByIdWithEquipment(workOrderId).orElse(workOrder);
+    }
+
+    /**
+     * Bulk variant of updateEquipmentStatus for moving many items at once (e.g. a tech finishing a rack).
+     *
+     * Only the requested items' current statuses are loaded. Each change is validated in memory against
+     * the same transition rules as the single-item endpoint and applied in request order (so a later
+     * change to the same item sees the earlier one). Net changes are then written in one JDBC batch that
+     * also moves the work order item counters, and each affected work order's status is derived from its
+     * counters once and written in a second batch.
+     *
+     * Invalid changes do not abort the request; they are reported per item and skipped.
+     *
+     * @param items requested (workOrderId, equipmentId, status) changes
+     * @return one result per requested item plus the resulting work order statuses
+     */
+    public BulkEquipmentStatusResponse updateEquipmentStatuses(List<BulkEquipmentStatusRequest.Item> items) {
+        return withConflictRetry("updateEquipmentStatuses", () -> applyEquipmentStatuses(items));
+    }
+
+    private BulkEquipmentStatusResponse applyEquipmentStatuses(List<BulkEquipmentStatusRequest.Item> items) {
+        BulkEquipmentStatusResponse response = new BulkEquipmentStatusResponse();
+
+        Set<Long> workOrderIds = new java.util.LinkedHashSet<>();
+        Set<Long> equipmentIds = new HashSet<>();
+        for (BulkEquipmentStatusRequest.Item item : items) {
+            workOrderIds.add(item.getWorkOrderId());
+            equipmentIds.add(item.getEquipmentId());
+        }
+        Set<Long> existingWorkOrderIds = workOrderRepository.findByIdInWithoutItems(workOrderIds).stream()
+            .map(WorkOrder::getId)
+            .collect(Collectors.toSet());
+        Map<Long, Map<Long, String>> statusesByWorkOrder =
+            equipmentRepository.findStatusesByWorkOrderIdInAndIdIn(workOrderIds, equipmentIds);
+
+        // Status before this request and after the changes applied so far, per equipment id
+        Map<Long, String> originalStatus = new HashMap<>();
+        Map<Long, String> currentStatus = new HashMap<>();
+        Map<Long, Long> changedEquipment = new java.util.LinkedHashMap<>();
+
+        for (BulkEquipmentStatusRequest.Item item : items) {
+            Long workOrderId = item.getWorkOrderId();
+            Long equipmentId = item.getEquipmentId();
+            String newStatus = item.getStatus();
+            try {
+                if (!existingWorkOrderIds.contains(workOrderId)) {
+                    throw new IllegalArgumentException("Work order not found: " + workOrderId);
+                }
+                String loadedStatus = statusesByWorkOrder.getOrDefault(workOrderId, Map.of()).get(equipmentId);
+                if (loadedStatus == null) {
+                    throw new IllegalArgumentException("Equipment item not found in work order: " + equipmentId);
+                }
+                originalStatus.putIfAbsent(equipmentId, loadedStatus);
+                String status = currentStatus.getOrDefault(equipmentId, loadedStatus);
+
+                validateItemStatusTransition(status, newStatus);
+                if ("PICKED_UP".equals(newStatus)) {
+                    throw new IllegalArgumentException("PICKED_UP status can only be set via pickup workflow, not manually");
+                }
+
+                currentStatus.put(equipmentId, newStatus);
+                changedEquipment.put(equipmentId, workOrderId);
+                response.addResult(new BulkEquipmentStatusResponse.ItemResult(workOrderId, equipmentId, newStatus, true, null));
+            } catch (IllegalArgumentException e) {
+                response.addResult(new BulkEquipmentStatusResponse.ItemResult(workOrderId, equipmentId, newStatus, false, e.getMessage()));
+            }
+        }
+
+        if (changedEquipment.isEmpty()) {
+            return response;
+        }
+
+        // One guarded transition per item whose status actually moved (same-status no-ops are not written)
+        List<EquipmentSqlRepository.StatusTransition> transitions = new ArrayList<>();
+        for (Long equipmentId : changedEquipment.keySet()) {
+            String from = originalStatus.get(equipmentId);
+            String to = currentStatus.get(equipmentId);
+            if (!from.equals(to)) {
+                transitions.add(new EquipmentSqlRepository.StatusTransition(equipmentId, from, to));
+            }
+        }
+        int[] updated = equipmentRepository.transitionStatusBatch(transitions);
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                throw new OptimisticLockConflictException("Equipment", transitions.get(i).getEquipmentId());
+            }
+        }
+
+        // Derive each affected work order's status once from its updated counters
+        Set<Long> touchedWorkOrderIds = new java.util.LinkedHashSet<>(changedEquipment.values());
+        Map<Long, WorkOrder> touchedWorkOrders = new HashMap<>();
+        List<WorkOrder> statusChanged = new ArrayList<>();
+        for (WorkOrder workOrder : workOrderRepository.findByIdInWithoutItems(touchedWorkOrderIds)) {
+            String before = workOrder.getStatus();
+            updateWorkOrderStatusFromItemCounts(workOrder);
+            if (!java.util.Objects.equals(before, workOrder.getStatus())) {
+                statusChanged.add(workOrder);
+            }
+            touchedWorkOrders.put(workOrder.getId(), workOrder);
+        }
+        workOrderRepository.updateStatusBatch(statusChanged);
+        for (Long workOrderId : touchedWorkOrderIds) {
+            WorkOrder workOrder = touchedWorkOrders.get(workOrderId);
+            if (workOrder != null) {
+                response.getWorkOrderStatuses().put(workOrderId, workOrder.getStatus());
+            }
+        }
+
+        for (Map.Entry<Long, Long> change : changedEquipment.entrySet()) {
+            WorkOrder workOrder = touchedWorkOrders.get(change.getValue());
+            if (workOrder == null) continue;
+            changeFeed.publish(workOrder.getShopId(), "EQUIPMENT_STATUS", workOrder.getId(), workOrder.getStatus(),
+                change.getKey(), currentStatus.get(change.getKey()));
+        }
+
+        return response;
     }
 
     /**
@@ -917,6 +1142,22 @@ public class WorkOrderService {
     private void updateWorkOrderStatusAndCompletedDate(WorkOrder workOrder) {
         String oldStatus = workOrder.getStatus();
         workOrder.updateStatusBasedOnItems();
+        syncCompletedDate(workOrder, oldStatus);
+    }
+
+    /**
+     * Same as updateWorkOrderStatusAndCompletedDate, but derives the status from the work order's
+     * stored item counters instead of its loaded equipment.
+     *
+     * @param workOrder the work order to update (loaded with its counters)
+     */
+    private void updateWorkOrderStatusFromItemCounts(WorkOrder workOrder) {
+        String oldStatus = workOrder.getStatus();
+        workOrder.updateStatusFromItemCounts();
+        syncCompletedDate(workOrder, oldStatus);
+    }
+
+    private void syncCompletedDate(WorkOrder workOrder, String oldStatus) {
         String newStatus = workOrder.getStatus();
         
         // Set completedDate when transitioning TO COMPLETED
@@ -961,9 +1202,12 @@ public class WorkOrderService {
      * @return the updated work order with COMPLETED status
      * @throws IllegalArgumentException if validation fails
      */
-    @Transactional
     public WorkOrder pickupWorkOrder(Long workOrderId) {
-        WorkOrder workOrder = workOrderRepository.findByIdWithEquipment(workOrderId)
+        return withConflictRetry("pickupWorkOrder", () -> applyPickup(workOrderId));
+    }
+
+    private WorkOrder applyPickup(Long workOrderId) {
+        WorkOrder workOrder = workOrderRepository.findByIdWithoutItems(workOrderId)
             .orElseThrow(() -> new IllegalArgumentException("Work order not found: " + workOrderId));
 
         // VALIDATION: Work order must be awaiting pickup (customer notified)
@@ -973,45 +1217,39 @@ public class WorkOrderService {
                     workOrder.getStatus()));
         }
 
-        // VALIDATION: ALL items must be DONE (no partial pickups allowed)
-        List<Long> equipmentIds = workOrderItemRepository.findEquipmentIdsByWorkOrderId(workOrderId);
-        List<Equipment> equipmentList = equipmentIds.stream()
-            .map(id -> equipmentRepository.findById(id).orElseThrow(() -> new IllegalArgumentException("Equipment not found: " + id)))
-            .collect(Collectors.toList());
-
-        List<Equipment> nonDoneItems = equipmentList.stream()
-            .filter(item -> !"DONE".equals(item.getStatus()))
-            .collect(Collectors.toList());
-
-        if (!nonDoneItems.isEmpty()) {
-            String itemStatuses = nonDoneItems.stream()
+        // VALIDATION: ALL items must be DONE (no partial pickups allowed), checked on the item counters
+        int totalItems = workOrder.getItemCount();
+        int doneItems = workOrder.getDoneCount();
+        if (doneItems < totalItems) {
+            // Items are only loaded to explain the rejection
+            WorkOrder withItems = workOrderRepository.findByIdWithEquipment(workOrderId).orElse(workOrder);
+            String itemStatuses = withItems.getEquipment().stream()
+                .filter(item -> !"DONE".equals(item.getStatus()))
                 .map(item -> String.format("%s %s (%s): %s", item.getBrand(), item.getModel(), item.getServiceType(), item.getStatus()))
                 .collect(Collectors.joining(", "));
             throw new IllegalArgumentException(
                 String.format("Cannot pickup work order: %d items are not DONE: %s. All items must be DONE before pickup.",
-                    nonDoneItems.size(), itemStatuses));
+                    totalItems - doneItems, itemStatuses));
         }
 
-        // ATOMIC OPERATION: Update ALL items to PICKED_UP
-        equipmentList.forEach(item -> item.setStatus("PICKED_UP"));
-        
-        // Set work order status to COMPLETED and record completion timestamp
-        workOrder.setStatus(WorkOrderStatus.COMPLETED.name());
-        workOrder.setCompletedDate(LocalDateTime.now());
-        
-        // Persist each equipment update explicitly (avoid customer cascade)
-        for (Equipment item : equipmentList) {
-            try {
-                equipmentRepository.save(item);
-            } catch (Exception ex) {
-                System.err.println("Failed to persist equipment update for id=" + item.getId() + " - " + ex.getMessage());
-            }
-        }
-
-        // Set work order status to COMPLETED and record completion timestamp
-        workOrder.setStatus(WorkOrderStatus.COMPLETED.name());
+        // Set work order status to COMPLETED and record completion timestamp. Written first and
+        // conditional on the version read above, so a concurrent change to this work order is
+        // detected before any item is touched.
         LocalDateTime completedAt = LocalDateTime.now();
+        workOrder.setStatus(WorkOrderStatus.COMPLETED.name());
         workOrder.setCompletedDate(completedAt);
+        workOrderRepository.save(workOrder);
+
+        // ATOMIC OPERATION: Update ALL items to PICKED_UP with one statement.
+        // Only DONE rows are flipped; if another request changed an item meanwhile the counts
+        // differ and the transaction is rolled back.
+        int pickedUp = equipmentRepository.markPickedUpByWorkOrderId(workOrderId);
+        if (pickedUp != totalItems) {
+            throw new OptimisticLockConflictException(
+                String.format("Cannot pickup work order %d: item statuses changed during pickup. Please retry.", workOrderId));
+        }
+        // Items moved as a set; recount this work order (and any other sharing these items)
+        workOrderRepository.refreshItemCountsSharingItemsWith(workOrderId);
 
         // Mark work_order_items as completed (store completed_at)
         try {
@@ -1021,12 +1259,10 @@ public class WorkOrderService {
             System.err.println("Failed to mark work_order_items completed for workOrderId=" + workOrderId + " - " + ex.getMessage());
         }
 
-        // Save work order status change (transactional - either all succeed or all fail)
-        workOrderRepository.save(workOrder);
+        changeFeed.publish(workOrder.getShopId(), "PICKED_UP", workOrderId, workOrder.getStatus(), null, null);
 
-        // Refresh equipment collection on returned workOrder to reflect updated statuses
-        workOrder.setEquipment(equipmentList);
-        return workOrder;
+        // Full graph only for the response
+        return workOrderRepository.findByIdWithEquipment(workOrderId).orElse(workOrder);
     }
 
     /**
@@ -1047,8 +1283,11 @@ public class WorkOrderService {
      * @return the updated work order with AWAITING_PICKUP status
      * @throws IllegalArgumentException if validation fails
      */
-    @Transactional
     public WorkOrder notifyCustomer(Long workOrderId) {
+        return withConflictRetry("notifyCustomer", () -> applyCustomerNotification(workOrderId));
+    }
+
+    private WorkOrder applyCustomerNotification(Long workOrderId) {
         WorkOrder workOrder = workOrderRepository.findByIdWithEquipment(workOrderId)
             .orElseThrow(() -> new IllegalArgumentException("Work order not found: " + workOrderId));
 
@@ -1082,6 +1321,94 @@ public class WorkOrderService {
         
         // Save and return
         workOrderRepository.save(workOrder);
+        changeFeed.publish(workOrder.getShopId(), "CUSTOMER_NOTIFIED", workOrderId, workOrder.getStatus(), null, null);
+        return workOrder;
+    }
+
+    /**
+     * Update a work order's editable header fields: "notes" and/or "promisedBy" (a LocalDate
+     * string, or null to clear the date). Only keys present in the map are changed.
+     *
+     * Item transitions bump the work order's version (they adjust the stored item counters), so
+     * an edit racing with a technician moving an item would otherwise fail with a conflict. The
+     * edit runs under withConflictRetry: each attempt re-reads the work order and re-applies only
+     * the edited fields, leaving the counters and status written by the other request intact.
+     *
+     * @param workOrderId the ID of the work order to edit
+     * @param fields the fields to change
+     * @return the updated work order
+     * @throws IllegalArgumentException if the work order does not exist
+     */
+    public WorkOrder updateWorkOrderFields(Long workOrderId, Map<String, Object> fields) {
+        // Parse once, outside the retry loop; a malformed date is a client error, not a conflict
+        boolean notesChanged = fields.containsKey("notes");
+        String notes = fields.get("notes") != null ? fields.get("notes").toString() : null;
+        boolean promisedByChanged = fields.containsKey("promisedBy");
+        LocalDate promisedBy = fields.get("promisedBy") != null
+            ? LocalDate.parse(fields.get("promisedBy").toString()) : null;
+
+        return withConflictRetry("updateWorkOrderFields", () -> {
+            WorkOrder workOrder = workOrderRepository.findByIdWithoutItems(workOrderId)
+                .orElseThrow(() -> new IllegalArgumentException("Work order not found: " + workOrderId));
+            if (notesChanged) {
+                workOrder.setNotes(notes);
+            }
+            if (promisedByChanged) {
+                workOrder.setPromisedBy(promisedBy);
+            }
+            workOrderRepository.save(workOrder);
+            // Full graph only for the response
+            return workOrderRepository.findByIdWithEquipment(workOrderId).orElse(workOrder);
+        });
+    }
+
+    /**
+     * Confirm intake review and activate a customer-submitted work order
+     * (CUSTOMER_SUBMITTED → RECEIVED).
+     *
+     * Runs under withConflictRetry like the item transitions: each attempt re-reads the work order
+     * and re-validates the status and promised date, so a concurrent item change is retried while
+     * a concurrent confirmation or edit that invalidates this one fails with the usual error.
+     *
+     * @param workOrderId the ID of the work order to activate
+     * @return the updated work order with RECEIVED status
+     * @throws IllegalArgumentException if the work order does not exist or is not CUSTOMER_SUBMITTED
+     * @throws IllegalStateException if no promisedBy date is set
+     */
+    public WorkOrder confirmIntake(Long workOrderId) {
+        return withConflictRetry("confirmIntake", () -> applyIntakeConfirmation(workOrderId));
+    }
+
+    private WorkOrder applyIntakeConfirmation(Long workOrderId) {
+        WorkOrder workOrder = workOrderRepository.findByIdWithEquipment(workOrderId)
+            .orElseThrow(() -> new IllegalArgumentException("Work order not found: " + workOrderId));
+
+        // Validate work order is in CUSTOMER_SUBMITTED status
+        if (!"CUSTOMER_SUBMITTED".equals(workOrder.getStatus())) {
+            throw new IllegalArgumentException(
+                "Work order must be in CUSTOMER_SUBMITTED status. Current status: " + workOrder.getStatus()
+            );
+        }
+
+        // Validate promisedBy date is set
+        if (workOrder.getPromisedBy() == null) {
+            throw new IllegalStateException(
+                "Cannot activate work order without a promised date. Please set a due date first."
+            );
+        }
+
+        // Update equipment service history
+        LocalDate today = LocalDate.now();
+        if (workOrder.getEquipment() != null) {
+            workOrder.getEquipment().forEach(equipment -> {
+                equipment.setLastServicedDate(today);
+                equipment.setLastServiceType(equipment.getServiceType());
+            });
+        }
+
+        // Transition to RECEIVED status (entering normal workflow)
+        workOrder.setStatus(WorkOrderStatus.RECEIVED.name());
+        workOrderRepository.save(workOrder);
         return workOrder;
     }
 
@@ -1097,26 +1424,32 @@ public class WorkOrderService {
     }
 
     /**
-     * Get all completed work orders, optionally filtered by equipment service type.
-     * Returns work orders with status COMPLETED, sorted by completion date (most recent first).
+     * One keyset page of a shop's completed history, newest completion first.
+     * All filters are applied in SQL; only the returned page is enriched with equipment.
      * 
-     * @param serviceType optional service type filter (e.g., "TUNE", "WAX", "EDGE", "BASE_REPAIR")
-     * @return list of completed work orders, filtered by service type if provided
+     * @param shopId the active shop
+     * @param serviceType optional equipment service type filter
+     * @param completedFrom optional first completion day (inclusive)
+     * @param completedTo optional last completion day (inclusive)
+     * @param customerIds optional customer filter (null/empty = all customers)
+     * @param beforeCompletedDate completedDate of the last row of the previous page (null for first page)
+     * @param beforeId id of the last row of the previous page (null for first page)
+     * @param limit maximum rows to return
+     * @return the matching work orders
      */
-    public List<WorkOrder> getCompletedWorkOrders(String serviceType) {
-        List<WorkOrder> completedWorkOrders = workOrderRepository.findCompletedWorkOrdersOrderByCompletedDateDesc();
-        
-        // If no service type filter, return all completed work orders
-        if (serviceType == null || serviceType.trim().isEmpty()) {
-            return completedWorkOrders;
-        }
-        
-        // Filter by service type: only include work orders that have at least one equipment item with the specified service type
-        String filterServiceType = serviceType.trim().toUpperCase();
-        return completedWorkOrders.stream()
-            .filter(workOrder -> workOrder.getEquipment().stream()
-                .anyMatch(equipment -> filterServiceType.equalsIgnoreCase(equipment.getServiceType())))
-            .collect(Collectors.toList());
+    public List<WorkOrder> getCompletedHistoryPage(Long shopId, String serviceType,
+                                                   java.time.LocalDate completedFrom, java.time.LocalDate completedTo,
+                                                   java.util.Collection<Long> customerIds,
+                                                   LocalDateTime beforeCompletedDate, Long beforeId, int limit) {
+        return workOrderRepository.findCompletedHistory(
+            shopId,
+            serviceType,
+            completedFrom != null ? completedFrom.atStartOfDay() : null,
+            completedTo != null ? completedTo.plusDays(1).atStartOfDay() : null,
+            customerIds,
+            beforeCompletedDate,
+            beforeId,
+            limit);
     }
 
     /**
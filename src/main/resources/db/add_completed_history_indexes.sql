@@ -0,0 +1,17 @@
+-- Indexes for completed history (WorkOrderSqlRepository.findCompletedHistory)
+-- History is read newest completion first with a keyset on (completed_date, id):
+-- (shop, completed_date, id) serves the shop-scoped pages, (customer, completed_date, id) the
+-- per-customer filter, and (work_order_id, equipment_id) the service type EXISTS probe.
+
+-- Older completed rows have no completed_date; use the items' completion time (or creation time)
+-- so they still appear in history
+UPDATE work_orders wo
+SET completed_date = COALESCE(
+    (SELECT MAX(woi.completed_at) FROM work_order_items woi WHERE woi.work_order_id = wo.id),
+    wo.createdAt
+)
+WHERE wo.status IN ('COMPLETED', 'PICKED_UP') AND wo.completed_date IS NULL;
+
+CREATE INDEX idx_work_orders_shop_completed ON work_orders(shop_id, completed_date, id);
+CREATE INDEX idx_work_orders_customer_completed ON work_orders(customer_id, completed_date, id);
+CREATE INDEX idx_work_order_items_order_equipment ON work_order_items(work_order_id, equipment_id);
@@ -0,0 +1,6 @@
+-- Indexes for the paginated customer list (GET /api/customers)
+-- Per-customer counts use the existing customer_id indexes on work_orders, equipment and boots;
+-- these cover the name sorts so a page can be read in index order
+
+CREATE INDEX idx_customers_last_first_id ON customers(lastName, firstName, id);
+CREATE INDEX idx_customers_first_last_id ON customers(firstName, lastName, id);
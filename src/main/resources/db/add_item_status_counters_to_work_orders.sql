@@ -0,0 +1,27 @@
+-- Per-status item counters on work_orders
+-- Item transitions adjust these in the same statement that changes equipment.status, so the
+-- work order status and the pickup check are derived from the row itself without loading items.
+-- WorkOrderItemCountReconciler periodically compares them with work_order_items/equipment.
+
+ALTER TABLE work_orders
+    ADD COLUMN pending_count INT NOT NULL DEFAULT 0,
+    ADD COLUMN in_progress_count INT NOT NULL DEFAULT 0,
+    ADD COLUMN done_count INT NOT NULL DEFAULT 0,
+    ADD COLUMN picked_up_count INT NOT NULL DEFAULT 0;
+
+-- Backfill from the current items
+UPDATE work_orders wo
+JOIN (
+    SELECT woi.work_order_id,
+           SUM(e.status = 'PENDING') AS pending,
+           SUM(e.status = 'IN_PROGRESS') AS in_progress,
+           SUM(e.status = 'DONE') AS done,
+           SUM(e.status = 'PICKED_UP') AS picked_up
+    FROM work_order_items woi
+    JOIN equipment e ON e.id = woi.equipment_id
+    GROUP BY woi.work_order_id
+) c ON c.work_order_id = wo.id
+SET wo.pending_count = c.pending,
+    wo.in_progress_count = c.in_progress,
+    wo.done_count = c.done,
+    wo.picked_up_count = c.picked_up;
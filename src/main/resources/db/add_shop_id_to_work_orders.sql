@@ -0,0 +1,31 @@
+-- Add shop_id column to work_orders table
+-- Work orders were previously only reachable through customer/equipment, so listing
+-- could not be scoped to the active shop. Nullable for existing rows; see the backfill below.
+
+ALTER TABLE work_orders
+ADD COLUMN shop_id BIGINT NULL;
+
+-- There is no per-row ownership to backfill from: equipment.shop_id was always written as 1
+-- and customers are shared between shops, so neither says which shop took an order in.
+-- Only the single-shop rule below is safe; everything else stays NULL for an admin to assign.
+
+-- Single-shop installs: anything still unassigned belongs to the only shop
+UPDATE work_orders
+SET shop_id = (SELECT MIN(id) FROM shop)
+WHERE shop_id IS NULL
+  AND (SELECT COUNT(*) FROM shop) = 1;
+
+-- Rows still NULL here cannot be attributed and stay out of shop-scoped listings until an
+-- admin assigns them (UPDATE work_orders SET shop_id = ? WHERE id IN (...)) or a merge claims
+-- them (WorkOrderService sets shop_id when merging into an unowned order).
+-- Check with: SELECT COUNT(*) FROM work_orders WHERE shop_id IS NULL;
+
+-- createdAt is the keyset pagination column; legacy rows without it would produce no cursor
+UPDATE work_orders
+SET createdAt = COALESCE(completed_date, NOW())
+WHERE createdAt IS NULL;
+
+-- Keyset pagination indexes for GET /workorders/page
+-- (shop, createdAt, id) serves the unfiltered board; (shop, status, createdAt, id) serves status tabs
+CREATE INDEX idx_work_orders_shop_created ON work_orders(shop_id, createdAt, id);
+CREATE INDEX idx_work_orders_shop_status_created ON work_orders(shop_id, status, createdAt, id);
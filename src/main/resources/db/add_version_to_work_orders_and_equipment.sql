@@ -0,0 +1,7 @@
+-- Row versions for optimistic concurrency
+-- WorkOrderSqlRepository/EquipmentSqlRepository updates are conditional on the version that was
+-- read (UPDATE ... WHERE id = ? AND version = ?) and increment it; a write that matches no row is
+-- a conflict, which WorkOrderService retries from fresh reads or returns as 409.
+
+ALTER TABLE work_orders ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE equipment ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,4 @@
+-- Index for the customer-created daily limit (WorkOrderSqlRepository.findCustomerCreatedTimesSince)
+-- Lets the rolling 24h window for one customer be read from the index alone
+
+CREATE INDEX idx_work_orders_customer_created_at ON work_orders(customer_id, customer_created, createdAt);
@@ -0,0 +1,29 @@
+-- Create agreement_signing_jobs table
+-- Durable queue for asynchronous agreement signing (render PDF, upload to R2, persist signed agreement)
+-- Jobs left RUNNING by a crash/restart are put back to PENDING on startup and picked up again
+
+CREATE TABLE agreement_signing_jobs (
+    id VARCHAR(36) PRIMARY KEY,
+    work_order_id BIGINT NOT NULL,
+    shop_id BIGINT,
+    signature_name VARCHAR(255) NOT NULL,
+    signature_ip VARCHAR(100),
+    signature_user_agent VARCHAR(500),
+    signature_image_base64 MEDIUMTEXT,
+    status VARCHAR(20) DEFAULT 'PENDING' NOT NULL,
+    attempts INT DEFAULT 0 NOT NULL,
+    next_attempt_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL,
+    last_error VARCHAR(1000),
+    signed_agreement_id VARCHAR(36),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP NOT NULL,
+
+    CONSTRAINT fk_agreement_signing_jobs_work_order
+        FOREIGN KEY (work_order_id)
+        REFERENCES work_orders(id)
+        ON DELETE CASCADE
+);
+
+-- Poller looks up due jobs by status and next attempt time
+CREATE INDEX idx_agreement_signing_jobs_status_next ON agreement_signing_jobs(status, next_attempt_at);
+CREATE INDEX idx_agreement_signing_jobs_work_order_id ON agreement_signing_jobs(work_order_id);
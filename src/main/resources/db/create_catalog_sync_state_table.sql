@@ -0,0 +1,9 @@
+-- Create catalog_sync_state table
+-- Remembers the content hash of each catalog resource (e.g. SkiModels.json) that DataInitializer
+-- last synced into ski_brands/ski_models, so an unchanged file is skipped at startup
+
+CREATE TABLE catalog_sync_state (
+    source VARCHAR(255) PRIMARY KEY,
+    content_hash CHAR(64) NOT NULL,
+    synced_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP NOT NULL
+);
@@ -0,0 +1,80 @@
+package com.finetune.app.repository.sql;
+
+import com.finetune.app.model.SkiBrand;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * An invalidate() that lands while another thread is loading the catalog must not be lost.
+ */
+class SkiCatalogTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private SkiCatalog catalog;
+
+    // Runs once, in the middle of the next catalog load (after brands are read)
+    private Runnable duringLoad;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource h2 = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        h2.setDriverClassName("org.h2.Driver");
+        jdbcTemplate = new JdbcTemplate(h2) {
+            @Override
+            public <T> List<T> query(String sql, RowMapper<T> rowMapper) {
+                List<T> rows = super.query(sql, rowMapper);
+                if (sql.contains("FROM ski_brands") && duringLoad != null) {
+                    Runnable action = duringLoad;
+                    duringLoad = null;
+                    action.run();
+                }
+                return rows;
+            }
+        };
+        jdbcTemplate.execute("CREATE TABLE ski_brands (id BIGINT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(255))");
+        jdbcTemplate.execute("CREATE TABLE ski_models (id BIGINT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(255), brand_id BIGINT)");
+        jdbcTemplate.update("INSERT INTO ski_brands (name) VALUES ('Atomic')");
+        catalog = new SkiCatalog(jdbcTemplate);
+    }
+
+    @Test
+    void invalidationDuringLoadIsNotLost() {
+        catalog.get();
+        catalog.invalidate();
+
+        // A writer commits and invalidates while this read is still loading the old brand list
+        duringLoad = () -> {
+            jdbcTemplate.update("INSERT INTO ski_brands (name) VALUES ('Blizzard')");
+            catalog.invalidate();
+        };
+        assertEquals(List.of("Atomic"), brandNames(catalog.get()));
+
+        // The racing load was not published; the next read sees the write
+        assertEquals(List.of("Atomic", "Blizzard"), brandNames(catalog.get()));
+    }
+
+    @Test
+    void snapshotIsReusedUntilInvalidated() {
+        SkiCatalog.Snapshot first = catalog.get();
+        assertEquals(first, catalog.get());
+
+        catalog.invalidate();
+        SkiCatalog.Snapshot second = catalog.get();
+        assertEquals(second, catalog.get());
+        assertEquals(first.getEtag(), second.getEtag());
+    }
+
+    private static List<String> brandNames(SkiCatalog.Snapshot snapshot) {
+        return snapshot.getBrands().stream().map(SkiBrand::getName).collect(Collectors.toList());
+    }
+}
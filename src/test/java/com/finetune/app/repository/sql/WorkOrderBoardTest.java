@@ -0,0 +1,106 @@
+package com.finetune.app.repository.sql;
+
+import com.finetune.app.model.dto.WorkOrderSummaryResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The board returns active work orders only unless a status is asked for, so its size does not
+ * grow with completed history.
+ */
+class WorkOrderBoardTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private WorkOrderSqlRepository workOrderRepository;
+
+    @BeforeEach
+    void setUp() {
+        WorkOrderTestDatabase.Repositories repositories = new WorkOrderTestDatabase().repositories();
+        jdbcTemplate = repositories.getJdbcTemplate();
+        workOrderRepository = repositories.newWorkOrderRepository();
+    }
+
+    @Test
+    void defaultsToActiveWorkOrders() {
+        long received = insertWorkOrder("RECEIVED", 1L);
+        long ready = insertWorkOrder("READY_FOR_PICKUP", 1L);
+        insertWorkOrder("COMPLETED", 1L);
+        insertWorkOrder("PICKED_UP", 1L);
+        insertWorkOrder("RECEIVED", 2L);
+
+        assertEquals(List.of(received, ready), ids(workOrderRepository.findBoardSummariesByShopId(1L, null)));
+        assertEquals(2, workOrderRepository.findBoardSummariesByShopId(1L, List.of("COMPLETED", "PICKED_UP")).size());
+    }
+
+    @Test
+    void countsOpenItemsPerServiceType() {
+        long workOrderId = insertWorkOrder("IN_PROGRESS", 1L);
+        addItem(workOrderId, "TUNE", "PENDING");
+        addItem(workOrderId, "TUNE", "IN_PROGRESS");
+        addItem(workOrderId, "TUNE", "DONE");
+        addItem(workOrderId, "MOUNT", "PENDING");
+
+        WorkOrderSummaryResponse card = workOrderRepository.findBoardSummariesByShopId(1L, null).get(0);
+
+        assertEquals(2, card.getOpenTuneCount());
+        assertEquals(1, card.getOpenMountCount());
+        assertEquals(0, card.getOpenRepairCount());
+    }
+
+    @Test
+    void serviceTypeListUsesTheBoardsShopScope() {
+        long tune = insertWorkOrder("RECEIVED", 1L);
+        addItem(tune, "TUNE", "PENDING");
+        long mount = insertWorkOrder("IN_PROGRESS", 1L);
+        addItem(mount, "MOUNT", "IN_PROGRESS");
+        long otherShop = insertWorkOrder("RECEIVED", 2L);
+        addItem(otherShop, "TUNE", "PENDING");
+
+        List<Long> listed = workOrderRepository.findPageByShopId(
+                        1L, List.of("RECEIVED", "IN_PROGRESS", "READY_FOR_PICKUP"), "TUNE", null, null, 50)
+                .stream().map(w -> w.getId()).collect(Collectors.toList());
+
+        assertEquals(List.of(tune), listed);
+        assertEquals(1, workOrderRepository.findBoardSummariesByShopId(1L, null).stream()
+                .mapToInt(WorkOrderSummaryResponse::getOpenTuneCount).sum());
+    }
+
+    private static List<Long> ids(List<WorkOrderSummaryResponse> cards) {
+        return cards.stream().map(WorkOrderSummaryResponse::getId).collect(Collectors.toList());
+    }
+
+    private long insertWorkOrder(String status, Long shopId) {
+        long customerId = insert("INSERT INTO customers (firstName, lastName) VALUES (?, ?)", "First", "Last");
+        return insert("INSERT INTO work_orders (customer_id, status, createdAt, shop_id) VALUES (?, ?, ?, ?)",
+                customerId, status, Timestamp.valueOf(LocalDateTime.now()), shopId);
+    }
+
+    private void addItem(long workOrderId, String serviceType, String status) {
+        long equipmentId = insert("INSERT INTO equipment (type, brand, model, serviceType, status) VALUES (?, ?, ?, ?, ?)",
+                "SKI", "Brand", "Model", serviceType, status);
+        jdbcTemplate.update("INSERT INTO work_order_items (work_order_id, equipment_id) VALUES (?, ?)", workOrderId, equipmentId);
+    }
+
+    private long insert(String sql, Object... args) {
+        GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            for (int i = 0; i < args.length; i++) {
+                ps.setObject(i + 1, args[i]);
+            }
+            return ps;
+        }, keyHolder);
+        return keyHolder.getKey().longValue();
+    }
+}
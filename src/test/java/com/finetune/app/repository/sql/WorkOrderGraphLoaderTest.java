@@ -0,0 +1,154 @@
+package com.finetune.app.repository.sql;
+
+import com.finetune.app.model.Equipment;
+import com.finetune.app.model.WorkOrder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * WorkOrderGraphLoader must issue a fixed number of statements, however many work orders it loads.
+ * Statements are counted at the JDBC connection, so every query any repository issues is included.
+ */
+class WorkOrderGraphLoaderTest {
+
+    private final AtomicInteger statements = new AtomicInteger();
+
+    private JdbcTemplate jdbcTemplate;
+    private WorkOrderSqlRepository workOrderRepository;
+
+    @BeforeEach
+    void setUp() {
+        WorkOrderTestDatabase database = new WorkOrderTestDatabase();
+        WorkOrderTestDatabase.Repositories repositories = database.repositories(countingDataSource(database.getDataSource()));
+        jdbcTemplate = repositories.getJdbcTemplate();
+        workOrderRepository = repositories.newWorkOrderRepository();
+    }
+
+    @Test
+    void statementCountDoesNotGrowWithNumberOfWorkOrders() {
+        List<Long> ids = insertWorkOrders(200);
+
+        int forOne = countStatements(() -> workOrderRepository.findByIdIn(ids.subList(0, 1)));
+        int forMany = countStatements(() -> workOrderRepository.findByIdIn(ids));
+
+        assertEquals(5, forOne); // work orders, customers, equipment, boots, notes
+        assertEquals(forOne, forMany);
+    }
+
+    @Test
+    void loadsWholeGraphForEveryWorkOrder() {
+        List<Long> ids = insertWorkOrders(50);
+
+        List<WorkOrder> loaded = workOrderRepository.findByIdIn(ids);
+
+        assertEquals(50, loaded.size());
+        for (WorkOrder wo : loaded) {
+            assertNotNull(wo.getCustomer().getFirstName());
+            assertEquals(1, wo.getCustomer().getBoots().size());
+            assertEquals(2, wo.getEquipment().size());
+            Equipment withBoot = wo.getEquipment().stream().filter(e -> e.getBootId() != null).findFirst().orElseThrow();
+            assertNotNull(withBoot.getBoot());
+            assertEquals(1, wo.getNotesList().size());
+        }
+    }
+
+    @Test
+    void largeListsAreQueriedInChunks() {
+        List<Long> ids = insertWorkOrders(SqlInClause.CHUNK_SIZE + 100);
+
+        int forOne = countStatements(() -> workOrderRepository.findByIdIn(ids.subList(0, 1)));
+        int forChunked = countStatements(() -> workOrderRepository.findByIdIn(ids));
+
+        // Work orders themselves (findByIdIn's own IN list) and every graph query take two chunks
+        assertEquals(forOne * 2, forChunked);
+        assertEquals(ids.size(), workOrderRepository.findByIdIn(ids).stream()
+                .filter(wo -> wo.getEquipment().size() == 2 && wo.getNotesList().size() == 1)
+                .count());
+    }
+
+    private int countStatements(Runnable action) {
+        statements.set(0);
+        action.run();
+        return statements.get();
+    }
+
+    // One customer (with one boot) per work order; two items (one mounted on the boot) and one note each
+    private List<Long> insertWorkOrders(int count) {
+        List<Long> ids = new ArrayList<>();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (int i = 0; i < count; i++) {
+            long customerId = insert("INSERT INTO customers (firstName, lastName, phone) VALUES (?, ?, ?)",
+                    "First" + i, "Last" + i, "555" + i);
+            long bootId = insert("INSERT INTO boots (brand, model, bsl, customer_id) VALUES (?, ?, ?, ?)",
+                    "Boot", "Model", 300, customerId);
+            long workOrderId = insert("INSERT INTO work_orders (customer_id, status, createdAt, shop_id) VALUES (?, ?, ?, ?)",
+                    customerId, "RECEIVED", now, 1L);
+            long skiId = insert("INSERT INTO equipment (type, brand, model, serviceType, `condition`, status, customer_id) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                    "SKI", "Brand", "Ski", "WAXING", "USED", "PENDING", customerId);
+            long mountId = insert("INSERT INTO equipment (type, brand, model, serviceType, `condition`, status, boot_id, customer_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                    "SKI", "Brand", "Mount", "MOUNT", "NEW", "PENDING", bootId, customerId);
+            jdbcTemplate.update("INSERT INTO work_order_items (work_order_id, equipment_id) VALUES (?, ?)", workOrderId, skiId);
+            jdbcTemplate.update("INSERT INTO work_order_items (work_order_id, equipment_id) VALUES (?, ?)", workOrderId, mountId);
+            jdbcTemplate.update("INSERT INTO work_order_notes (work_order_id, note_text, created_by, created_at) VALUES (?, ?, ?, ?)",
+                    workOrderId, "note", "staff", now);
+            ids.add(workOrderId);
+        }
+        return ids;
+    }
+
+    private long insert(String sql, Object... args) {
+        GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            for (int i = 0; i < args.length; i++) {
+                ps.setObject(i + 1, args[i]);
+            }
+            return ps;
+        }, keyHolder);
+        return keyHolder.getKey().longValue();
+    }
+
+    // Counts every statement prepared or created on connections from the wrapped data source
+    private DataSource countingDataSource(DataSource target) {
+        return (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { DataSource.class },
+                (proxy, method, args) -> {
+                    Object result = invoke(target, method, args);
+                    if (result instanceof Connection connection) {
+                        return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Connection.class },
+                                (p, m, a) -> {
+                                    if (m.getName().equals("prepareStatement") || m.getName().equals("createStatement")
+                                            || m.getName().equals("prepareCall")) {
+                                        statements.incrementAndGet();
+                                    }
+                                    return invoke(connection, m, a);
+                                });
+                    }
+                    return result;
+                });
+    }
+
+    private static Object invoke(Object target, java.lang.reflect.Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.finetune.app.repository.sql;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.util.UUID;
+
+/**
+ * Shared test fixture: a fresh in-memory H2 database (MySQL mode) with the work order graph schema
+ * (db/work_order_graph_schema.sql), and the repositories behind WorkOrderSqlRepository wired the
+ * way the application wires them.
+ */
+public final class WorkOrderTestDatabase {
+
+    private final String url;
+    private final DataSource dataSource;
+
+    public WorkOrderTestDatabase() {
+        this.url = "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1";
+        this.dataSource = newDataSource();
+        new ResourceDatabasePopulator(new ClassPathResource("db/work_order_graph_schema.sql")).execute(dataSource);
+    }
+
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    /**
+     * Another DataSource on the same database. Its statements run on their own connections, so
+     * they commit independently, like a concurrent request.
+     */
+    public DataSource newDataSource() {
+        DriverManagerDataSource h2 = new DriverManagerDataSource(url, "sa", "");
+        h2.setDriverClassName("org.h2.Driver");
+        return h2;
+    }
+
+    /**
+     * Repositories over the given DataSource (e.g. a statement-counting wrapper of getDataSource()).
+     */
+    public Repositories repositories(DataSource dataSource) {
+        return new Repositories(new JdbcTemplate(dataSource));
+    }
+
+    public Repositories repositories() {
+        return repositories(dataSource);
+    }
+
+    /**
+     * The repositories a WorkOrderSqlRepository depends on, sharing one JdbcTemplate.
+     */
+    public static final class Repositories {
+        private final JdbcTemplate jdbcTemplate;
+        private final BootSqlRepository bootRepository;
+        private final CustomerSqlRepository customerRepository;
+        private final EquipmentSqlRepository equipmentRepository;
+        private final WorkOrderGraphLoader graphLoader;
+
+        private Repositories(JdbcTemplate jdbcTemplate) {
+            this.jdbcTemplate = jdbcTemplate;
+            this.bootRepository = new BootSqlRepository(jdbcTemplate);
+            this.customerRepository =
+                    new CustomerSqlRepository(jdbcTemplate, bootRepository, new CustomerSearchIndex(jdbcTemplate));
+            this.equipmentRepository = new EquipmentSqlRepository(jdbcTemplate);
+            this.graphLoader = new WorkOrderGraphLoader(
+                    customerRepository, equipmentRepository, bootRepository, new WorkOrderNoteSqlRepository(jdbcTemplate));
+        }
+
+        public JdbcTemplate getJdbcTemplate() { return jdbcTemplate; }
+        public BootSqlRepository getBootRepository() { return bootRepository; }
+        public CustomerSqlRepository getCustomerRepository() { return customerRepository; }
+        public EquipmentSqlRepository getEquipmentRepository() { return equipmentRepository; }
+        public WorkOrderGraphLoader getGraphLoader() { return graphLoader; }
+
+        /**
+         * A WorkOrderSqlRepository over these repositories. Tests that need to hook into it
+         * subclass WorkOrderSqlRepository with getJdbcTemplate() and getGraphLoader() instead.
+         */
+        public WorkOrderSqlRepository newWorkOrderRepository() {
+            return new WorkOrderSqlRepository(jdbcTemplate, graphLoader);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.finetune.app.service;
+
+import com.finetune.app.model.AgreementTemplate;
+import com.finetune.app.model.Customer;
+import com.finetune.app.model.Location;
+import com.finetune.app.model.Shop;
+import com.finetune.app.model.WorkOrder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Agreement PDF render time with the per-template cache warm versus rebuilt on every render.
+ *
+ * Both benchmarks run the same AgreementPdfService.generatePdf path (Thymeleaf + Flying Saucer)
+ * into a discarding stream; the uncached one invalidates AgreementTemplateCache first, so it also
+ * pays for loading and embedding the logo and rendering the terms fragment.
+ *
+ * Run with:
+ *   mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.finetune.app.service.AgreementPdfRenderBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AgreementPdfRenderBenchmark {
+
+    private Path storeRoot;
+    private AgreementTemplateCache cache;
+    private AgreementPdfService pdfService;
+
+    private AgreementTemplate template;
+    private WorkOrder workOrder;
+    private Customer customer;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+        // Same engine type as the application (SpEL expressions)
+        SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+
+        storeRoot = Files.createTempDirectory("agreement-bench");
+        LocalObjectStore objectStore = new LocalObjectStore(storeRoot);
+        String logoKey = objectStore.putContentAddressed(
+                new ByteArrayInputStream(logoPng()), "logos", "png", "image/png");
+
+        cache = new AgreementTemplateCache(objectStore, templateEngine, 60);
+        // Rendering only - the upload dependency is not used by generatePdf
+        pdfService = new AgreementPdfService(templateEngine, null, cache);
+
+        Location location = new Location(1L, "Main", "1 Slope Rd", "Aspen", "CO", "81611");
+        Shop shop = new Shop();
+        shop.setId(1L);
+        shop.setName("Fine Tune Ski Shop");
+        shop.setLocation(location);
+        shop.setLogoUrl("/uploads/" + logoKey);
+
+        template = new AgreementTemplate();
+        template.setId(1L);
+        template.setTitle("Ski Service Agreement");
+        template.setJurisdictionState("CO");
+        template.setShop(shop);
+        StringBuilder text = new StringBuilder();
+        for (int i = 1; i <= 30; i++) {
+            text.append(i).append(". The customer acknowledges that binding adjustments are made to the stated ")
+                .append("skier type, weight and boot sole length, and that incorrect information may ")
+                .append("result in release values unsuitable for the skier.\n\n");
+        }
+        template.setAgreementText(text.toString());
+
+        workOrder = new WorkOrder();
+        workOrder.setId(42L);
+
+        customer = new Customer();
+        customer.setFirstName("Jane");
+        customer.setLastName("Skier");
+        customer.setEmail("jane@example.com");
+        customer.setPhone("555-0100");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        try (Stream<Path> paths = Files.walk(storeRoot)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void renderWithCachedTemplate() throws Exception {
+        render();
+    }
+
+    @Benchmark
+    public void renderWithoutCache() throws Exception {
+        cache.invalidateAll();
+        render();
+    }
+
+    private void render() throws Exception {
+        pdfService.generatePdf(template, workOrder, customer, "Jane Skier", "127.0.0.1", "JMH",
+                null, OutputStream.nullOutputStream());
+    }
+
+    private static byte[] logoPng() throws Exception {
+        BufferedImage image = new BufferedImage(400, 200, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < image.getWidth(); x++) {
+            for (int y = 0; y < image.getHeight(); y++) {
+                image.setRGB(x, y, (x * 31 + y * 17) & 0xFFFFFF);
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(AgreementPdfRenderBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
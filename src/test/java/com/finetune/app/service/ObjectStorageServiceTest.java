@@ -0,0 +1,379 @@
+package com.finetune.app.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.core.retry.RetryPolicy;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Uploads through the real S3AsyncClient (Netty) against a minimal in-process S3-compatible server:
+ * small objects go up with one PUT, large ones as a multipart upload with a bounded number of parts
+ * in flight, and a failed or abandoned upload leaves no object behind.
+ */
+class ObjectStorageServiceTest {
+
+    private static final String BUCKET = "test-bucket";
+    private static final int PART_SIZE = 5 * 1024 * 1024;
+    private static final int PARTS_IN_FLIGHT = 2;
+
+    private FakeS3 s3;
+    private S3AsyncClient asyncClient;
+    private S3Client syncClient;
+    private ObjectStorageService storage;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        s3 = new FakeS3();
+        URI endpoint = URI.create("http://localhost:" + s3.port());
+        StaticCredentialsProvider credentials =
+                StaticCredentialsProvider.create(AwsBasicCredentials.create("test", "test"));
+        ClientOverrideConfiguration noRetries = ClientOverrideConfiguration.builder()
+                .retryPolicy(RetryPolicy.none())
+                .build();
+        asyncClient = S3AsyncClient.builder()
+                .endpointOverride(endpoint)
+                .credentialsProvider(credentials)
+                .region(Region.US_EAST_1)
+                .forcePathStyle(true)
+                .overrideConfiguration(noRetries)
+                .httpClient(NettyNioAsyncHttpClient.builder().maxConcurrency(8).build())
+                .build();
+        syncClient = S3Client.builder()
+                .endpointOverride(endpoint)
+                .credentialsProvider(credentials)
+                .region(Region.US_EAST_1)
+                .forcePathStyle(true)
+                .overrideConfiguration(noRetries)
+                .httpClient(UrlConnectionHttpClient.create())
+                .build();
+        // Files above 6 MiB are sent as multipart uploads; the presigner is not used here
+        storage = new ObjectStorageService(syncClient, asyncClient, null, BUCKET, 100,
+                6 * 1024 * 1024, PART_SIZE, PARTS_IN_FLIGHT);
+    }
+
+    @AfterEach
+    void tearDown() {
+        asyncClient.close();
+        syncClient.close();
+        s3.stop();
+    }
+
+    @Test
+    void smallObjectIsSentWithOnePut() throws Exception {
+        byte[] content = randomBytes(100 * 1024);
+
+        storage.uploadAsync(new ByteArrayInputStream(content), "photos/small.jpg", "image/jpeg")
+                .get(30, TimeUnit.SECONDS);
+
+        assertArrayEquals(content, s3.objects.get("photos/small.jpg"));
+        assertEquals(0, s3.multipartUploadsStarted.get());
+    }
+
+    @Test
+    void largeObjectIsStreamedAsMultipartUpload() throws Exception {
+        byte[] content = randomBytes(4 * PART_SIZE + 12345);
+        s3.partDelayMillis = 100;
+
+        try (OutputStream out = storage.openUploadStream("agreements/1/2/large.pdf", "application/pdf")) {
+            // Written in small chunks, the way the PDF renderer writes
+            for (int off = 0; off < content.length; off += 8192) {
+                out.write(content, off, Math.min(8192, content.length - off));
+            }
+        }
+
+        assertArrayEquals(content, s3.objects.get("agreements/1/2/large.pdf"));
+        assertEquals(1, s3.multipartUploadsStarted.get());
+        assertEquals(5, s3.partsReceived.get());
+        assertTrue(s3.maxPartsInFlight.get() <= PARTS_IN_FLIGHT,
+                "parts in flight: " + s3.maxPartsInFlight.get());
+        assertTrue(s3.uploads.isEmpty());
+    }
+
+    @Test
+    void filesAreSentWithOnePutOrMultipartBySize() throws Exception {
+        Path small = Files.createTempFile("upload-small", ".bin");
+        Path large = Files.createTempFile("upload-large", ".bin");
+        try {
+            byte[] smallContent = randomBytes(1024 * 1024);
+            byte[] largeContent = randomBytes(2 * PART_SIZE + 1);
+            Files.write(small, smallContent);
+            Files.write(large, largeContent);
+
+            storage.uploadFileAsync(small, "docs/small.bin", "application/octet-stream").get(30, TimeUnit.SECONDS);
+            assertEquals(0, s3.multipartUploadsStarted.get());
+
+            storage.uploadFileAsync(large, "docs/large.bin", "application/octet-stream").get(30, TimeUnit.SECONDS);
+            assertEquals(1, s3.multipartUploadsStarted.get());
+
+            assertArrayEquals(smallContent, s3.objects.get("docs/small.bin"));
+            assertArrayEquals(largeContent, s3.objects.get("docs/large.bin"));
+        } finally {
+            Files.deleteIfExists(small);
+            Files.deleteIfExists(large);
+        }
+    }
+
+    @Test
+    void abortedUploadStoresNothingAndDiscardsParts() throws Exception {
+        ObjectUploadStream upload = storage.openUploadStream("agreements/1/2/aborted.pdf", "application/pdf");
+        upload.write(randomBytes(2 * PART_SIZE + 100));
+
+        upload.abort();
+
+        awaitTrue(() -> s3.abortedUploads.get() == 1);
+        assertFalse(s3.objects.containsKey("agreements/1/2/aborted.pdf"));
+        assertTrue(s3.uploads.isEmpty());
+        assertThrows(IOException.class, () -> upload.write(1));
+    }
+
+    @Test
+    void failedPartFailsCloseAndAbortsUpload() throws Exception {
+        s3.failPartNumber = 2;
+        ObjectUploadStream upload = storage.openUploadStream("agreements/1/2/failed.pdf", "application/pdf");
+
+        assertThrows(IOException.class, () -> {
+            upload.write(randomBytes(3 * PART_SIZE));
+            upload.close();
+        });
+
+        awaitTrue(() -> s3.abortedUploads.get() == 1);
+        assertFalse(s3.objects.containsKey("agreements/1/2/failed.pdf"));
+        assertTrue(s3.uploads.isEmpty());
+    }
+
+    @Test
+    void contentAddressedStoreSkipsUploadOfKnownContent() throws Exception {
+        R2ObjectStore store = new R2ObjectStore(storage);
+        byte[] content = "logo".getBytes(StandardCharsets.UTF_8);
+
+        String first = store.putContentAddressed(new ByteArrayInputStream(content), "logos", ".png", "image/png");
+        String second = store.putContentAddressed(new ByteArrayInputStream(content), "logos", ".png", "image/png");
+
+        assertEquals(first, second);
+        assertArrayEquals(content, s3.objects.get(first));
+        assertEquals(1, s3.objectPuts.get());
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static void awaitTrue(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("condition not met within 10s");
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    /**
+     * Just enough of the S3 REST API (path-style) for the calls ObjectStorageService makes:
+     * PutObject, CreateMultipartUpload, UploadPart, CompleteMultipartUpload, AbortMultipartUpload
+     * and HeadObject. Signatures are not checked. ETags are the quoted MD5 of the content, which
+     * the SDK validates on PutObject.
+     */
+    private static final class FakeS3 {
+
+        final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+        final Map<String, Map<Integer, byte[]>> uploads = new ConcurrentHashMap<>();
+        final AtomicInteger objectPuts = new AtomicInteger();
+        final AtomicInteger multipartUploadsStarted = new AtomicInteger();
+        final AtomicInteger partsReceived = new AtomicInteger();
+        final AtomicInteger abortedUploads = new AtomicInteger();
+        final AtomicInteger maxPartsInFlight = new AtomicInteger();
+        private final AtomicInteger partsInFlight = new AtomicInteger();
+
+        volatile long partDelayMillis;
+        volatile int failPartNumber;
+
+        private final HttpServer server;
+
+        FakeS3() throws IOException {
+            server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.setExecutor(Executors.newFixedThreadPool(8));
+            server.createContext("/", exchange -> {
+                try {
+                    handle(exchange);
+                } catch (Exception e) {
+                    respond(exchange, 500, "<Error><Code>InternalError</Code><Message>" + e + "</Message></Error>");
+                } finally {
+                    exchange.close();
+                }
+            });
+            server.start();
+        }
+
+        int port() {
+            return server.getAddress().getPort();
+        }
+
+        void stop() {
+            server.stop(0);
+        }
+
+        private void handle(HttpExchange exchange) throws Exception {
+            String method = exchange.getRequestMethod();
+            String path = exchange.getRequestURI().getPath();
+            String key = path.substring(("/" + BUCKET + "/").length());
+            Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+
+            if (method.equals("POST") && query.containsKey("uploads")) {
+                String uploadId = UUID.randomUUID().toString();
+                uploads.put(uploadId, new ConcurrentHashMap<>());
+                multipartUploadsStarted.incrementAndGet();
+                respond(exchange, 200, "<InitiateMultipartUploadResult><Bucket>" + BUCKET + "</Bucket><Key>" + key
+                        + "</Key><UploadId>" + uploadId + "</UploadId></InitiateMultipartUploadResult>");
+            } else if (method.equals("PUT") && query.containsKey("uploadId")) {
+                int inFlight = partsInFlight.incrementAndGet();
+                maxPartsInFlight.accumulateAndGet(inFlight, Math::max);
+                try {
+                    byte[] body = body(exchange);
+                    Thread.sleep(partDelayMillis);
+                    int partNumber = Integer.parseInt(query.get("partNumber"));
+                    if (partNumber == failPartNumber) {
+                        respond(exchange, 500, "<Error><Code>InternalError</Code></Error>");
+                        return;
+                    }
+                    uploads.get(query.get("uploadId")).put(partNumber, body);
+                    partsReceived.incrementAndGet();
+                    exchange.getResponseHeaders().set("ETag", etag(body));
+                    respond(exchange, 200, null);
+                } finally {
+                    partsInFlight.decrementAndGet();
+                }
+            } else if (method.equals("POST") && query.containsKey("uploadId")) {
+                body(exchange);
+                Map<Integer, byte[]> parts = new TreeMap<>(uploads.remove(query.get("uploadId")));
+                ByteArrayOutputStream object = new ByteArrayOutputStream();
+                for (byte[] part : parts.values()) {
+                    object.write(part);
+                }
+                objects.put(key, object.toByteArray());
+                respond(exchange, 200, "<CompleteMultipartUploadResult><Bucket>" + BUCKET + "</Bucket><Key>" + key
+                        + "</Key><ETag>" + etag(object.toByteArray()) + "</ETag></CompleteMultipartUploadResult>");
+            } else if (method.equals("DELETE") && query.containsKey("uploadId")) {
+                uploads.remove(query.get("uploadId"));
+                abortedUploads.incrementAndGet();
+                respond(exchange, 204, null);
+            } else if (method.equals("PUT")) {
+                byte[] body = body(exchange);
+                objects.put(key, body);
+                objectPuts.incrementAndGet();
+                exchange.getResponseHeaders().set("ETag", etag(body));
+                respond(exchange, 200, null);
+            } else if (method.equals("HEAD")) {
+                byte[] object = objects.get(key);
+                if (object != null) {
+                    exchange.getResponseHeaders().set("ETag", etag(object));
+                }
+                exchange.sendResponseHeaders(object != null ? 200 : 404, -1);
+            } else {
+                respond(exchange, 405, null);
+            }
+        }
+
+        // Request body, with aws-chunked (streaming SigV4) framing removed if the client used it
+        private static byte[] body(HttpExchange exchange) throws IOException {
+            byte[] raw;
+            try (InputStream in = exchange.getRequestBody()) {
+                raw = in.readAllBytes();
+            }
+            String contentSha = exchange.getRequestHeaders().getFirst("x-amz-content-sha256");
+            if (contentSha == null || !contentSha.startsWith("STREAMING")) {
+                return raw;
+            }
+            ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+            int pos = 0;
+            while (pos < raw.length) {
+                int lineEnd = indexOfCrlf(raw, pos);
+                String header = new String(raw, pos, lineEnd - pos, StandardCharsets.US_ASCII);
+                int size = Integer.parseInt(header.split(";")[0].trim(), 16);
+                pos = lineEnd + 2;
+                if (size == 0) {
+                    break;
+                }
+                decoded.write(raw, pos, size);
+                pos += size + 2;
+            }
+            return decoded.toByteArray();
+        }
+
+        private static int indexOfCrlf(byte[] bytes, int from) {
+            for (int i = from; i < bytes.length - 1; i++) {
+                if (bytes[i] == '\r' && bytes[i + 1] == '\n') {
+                    return i;
+                }
+            }
+            throw new IllegalArgumentException("malformed aws-chunked body");
+        }
+
+        private static Map<String, String> query(String rawQuery) {
+            Map<String, String> params = new HashMap<>();
+            if (rawQuery == null) {
+                return params;
+            }
+            for (String pair : rawQuery.split("&")) {
+                int eq = pair.indexOf('=');
+                params.put(eq < 0 ? pair : pair.substring(0, eq), eq < 0 ? "" : pair.substring(eq + 1));
+            }
+            return params;
+        }
+
+        private static String etag(byte[] content) throws Exception {
+            return "\"" + HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(content)) + "\"";
+        }
+
+        private static void respond(HttpExchange exchange, int status, String xml) throws IOException {
+            byte[] body = xml == null ? new byte[0] : xml.getBytes(StandardCharsets.UTF_8);
+            if (xml != null) {
+                exchange.getResponseHeaders().set("Content-Type", "application/xml");
+            }
+            exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+            if (body.length > 0) {
+                exchange.getResponseBody().write(body);
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.finetune.app.service;
+
+import com.finetune.app.model.dto.UpdateStaffSettingsRequest;
+import com.finetune.app.repository.sql.StaffSettingsSqlRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The cached daily limit only changes once the settings update has committed.
+ */
+class StaffSettingsServiceTest {
+
+    private StaffSettingsService settingsService;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource h2 = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        h2.setDriverClassName("org.h2.Driver");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(h2);
+        jdbcTemplate.execute("CREATE TABLE staff_settings (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "max_customer_work_orders_per_day INT DEFAULT 25 NOT NULL, "
+                + "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+        jdbcTemplate.update("INSERT INTO staff_settings (max_customer_work_orders_per_day) VALUES (25)");
+        settingsService = new StaffSettingsService(new StaffSettingsSqlRepository(jdbcTemplate));
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(h2));
+    }
+
+    @Test
+    void rolledBackUpdateIsNotCached() {
+        assertEquals(25, settingsService.getMaxCustomerWorkOrdersPerDay());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            settingsService.updateSettings(new UpdateStaffSettingsRequest(5));
+            // Not visible before commit
+            assertEquals(25, settingsService.getMaxCustomerWorkOrdersPerDay());
+            status.setRollbackOnly();
+        });
+
+        assertEquals(25, settingsService.getMaxCustomerWorkOrdersPerDay());
+    }
+
+    @Test
+    void committedUpdateIsCached() {
+        assertEquals(25, settingsService.getMaxCustomerWorkOrdersPerDay());
+
+        transactionTemplate.executeWithoutResult(status ->
+                settingsService.updateSettings(new UpdateStaffSettingsRequest(5)));
+
+        assertEquals(5, settingsService.getMaxCustomerWorkOrdersPerDay());
+    }
+}
@@ -0,0 +1,92 @@
+package com.finetune.app.service;
+
+import com.finetune.app.model.WorkOrder;
+import com.finetune.app.repository.sql.WorkOrderSqlRepository;
+import com.finetune.app.repository.sql.WorkOrderTestDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Editing a work order's notes or due date while a technician moves one of its items (which bumps
+ * the work order version) is retried from a fresh read instead of failing with a conflict, and
+ * keeps the other request's changes.
+ */
+class WorkOrderFieldUpdateTest {
+
+    private JdbcTemplate otherRequest;
+    private WorkOrderService workOrderService;
+    private long workOrderId;
+
+    // Runs once, between the edit's read and its write
+    private Runnable afterRead;
+
+    @BeforeEach
+    void setUp() {
+        WorkOrderTestDatabase database = new WorkOrderTestDatabase();
+        // Separate DataSource, so its writes commit on their own connection like a concurrent request
+        otherRequest = new JdbcTemplate(database.newDataSource());
+
+        WorkOrderTestDatabase.Repositories repositories = database.repositories();
+        WorkOrderSqlRepository workOrderRepository =
+                new WorkOrderSqlRepository(repositories.getJdbcTemplate(), repositories.getGraphLoader()) {
+            @Override
+            public Optional<WorkOrder> findByIdWithoutItems(Long id) {
+                Optional<WorkOrder> workOrder = super.findByIdWithoutItems(id);
+                if (afterRead != null) {
+                    Runnable action = afterRead;
+                    afterRead = null;
+                    action.run();
+                }
+                return workOrder;
+            }
+        };
+        workOrderService = new WorkOrderService(workOrderRepository, repositories.getCustomerRepository(),
+                repositories.getEquipmentRepository(), repositories.getBootRepository(), null, null, null, null, null,
+                new DataSourceTransactionManager(database.getDataSource()), 3);
+
+        otherRequest.update("INSERT INTO work_orders (status, createdAt, shop_id, pending_count, notes) "
+                + "VALUES ('RECEIVED', CURRENT_TIMESTAMP, 1, 1, 'old notes')");
+        workOrderId = otherRequest.queryForObject("SELECT MAX(id) FROM work_orders", Long.class);
+    }
+
+    @Test
+    void editRacingWithItemTransitionIsRetried() {
+        // A technician starts the only item: counters, status and version change under the edit
+        afterRead = () -> otherRequest.update("UPDATE work_orders SET pending_count = 0, in_progress_count = 1, "
+                + "status = 'IN_PROGRESS', version = version + 1 WHERE id = ?", workOrderId);
+
+        WorkOrder updated = workOrderService.updateWorkOrderFields(workOrderId,
+                Map.of("notes", "new notes", "promisedBy", "2026-12-01"));
+
+        assertEquals("new notes", updated.getNotes());
+        assertEquals(LocalDate.of(2026, 12, 1), updated.getPromisedBy());
+        Map<String, Object> row = otherRequest.queryForMap(
+                "SELECT status, notes, promised_by, in_progress_count, version FROM work_orders WHERE id = ?", workOrderId);
+        assertEquals("IN_PROGRESS", row.get("STATUS"));
+        assertEquals("new notes", row.get("NOTES"));
+        assertEquals(1, ((Number) row.get("IN_PROGRESS_COUNT")).intValue());
+        assertEquals(2L, ((Number) row.get("VERSION")).longValue());
+    }
+
+    @Test
+    void onlyFieldsInTheRequestAreChanged() {
+        otherRequest.update("UPDATE work_orders SET promised_by = DATE '2026-11-01' WHERE id = ?", workOrderId);
+
+        workOrderService.updateWorkOrderFields(workOrderId, Map.of("notes", "new notes"));
+        assertEquals(LocalDate.of(2026, 11, 1), otherRequest.queryForObject(
+                "SELECT promised_by FROM work_orders WHERE id = ?", LocalDate.class, workOrderId));
+
+        workOrderService.updateWorkOrderFields(workOrderId, java.util.Collections.singletonMap("promisedBy", null));
+        assertNull(otherRequest.queryForObject("SELECT promised_by FROM work_orders WHERE id = ?", LocalDate.class, workOrderId));
+        assertEquals("new notes", otherRequest.queryForObject("SELECT notes FROM work_orders WHERE id = ?", String.class, workOrderId));
+    }
+}
@@ -0,0 +1,80 @@
+-- Minimal schema for repository tests (H2 in MySQL mode)
+CREATE TABLE customers (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    firstName VARCHAR(255),
+    lastName VARCHAR(255),
+    email VARCHAR(255),
+    phone VARCHAR(255),
+    heightInches INT,
+    weight INT,
+    skiAbilityLevel VARCHAR(50)
+);
+
+CREATE TABLE boots (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    brand VARCHAR(255),
+    model VARCHAR(255),
+    bsl INT,
+    heightInches INT,
+    weight INT,
+    age INT,
+    abilityLevel VARCHAR(50),
+    active BOOLEAN DEFAULT TRUE,
+    customer_id BIGINT
+);
+
+CREATE TABLE work_orders (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    customer_id BIGINT,
+    status VARCHAR(50),
+    createdAt TIMESTAMP,
+    promised_by DATE,
+    completed_date TIMESTAMP,
+    customer_created BOOLEAN DEFAULT FALSE,
+    notes TEXT,
+    shop_id BIGINT,
+    pending_count INT NOT NULL DEFAULT 0,
+    in_progress_count INT NOT NULL DEFAULT 0,
+    done_count INT NOT NULL DEFAULT 0,
+    picked_up_count INT NOT NULL DEFAULT 0,
+    version BIGINT NOT NULL DEFAULT 0
+);
+
+CREATE TABLE equipment (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    shop_id BIGINT,
+    type VARCHAR(50),
+    brand VARCHAR(255),
+    model VARCHAR(255),
+    length INT,
+    serviceType VARCHAR(50),
+    `condition` VARCHAR(50),
+    bindingBrand VARCHAR(255),
+    bindingModel VARCHAR(255),
+    heightInches INT,
+    weight INT,
+    age INT,
+    abilityLevel VARCHAR(50),
+    boot_id BIGINT,
+    status VARCHAR(50),
+    last_serviced_date DATE,
+    last_service_type VARCHAR(50),
+    last_work_order_id BIGINT,
+    customer_id BIGINT,
+    version BIGINT NOT NULL DEFAULT 0
+);
+
+CREATE TABLE work_order_items (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    work_order_id BIGINT NOT NULL,
+    equipment_id BIGINT NOT NULL,
+    completed_at TIMESTAMP
+);
+
+CREATE TABLE work_order_notes (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    work_order_id BIGINT NOT NULL,
+    note_text TEXT,
+    created_by VARCHAR(255),
+    created_at TIMESTAMP
+);